@@ -24,20 +24,27 @@ import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
+import com.eon.auth.support.authorization.AuthorizationStoreProperties;
+import com.eon.auth.support.authorization.RedisOAuth2AuthorizationService;
 import com.eon.auth.support.password.PasswordAuthenticationConverter;
 import com.eon.auth.support.password.PasswordAuthenticationProvider;
+import com.eon.auth.support.user.AuthorityCacheProperties;
 import com.eon.auth.support.user.UserAuthorityService;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -48,6 +55,7 @@ import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationConsentService;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.client.JdbcRegisteredClientRepository;
@@ -125,7 +133,8 @@ import static org.springframework.security.oauth2.server.authorization.config.an
  * @since 1.1
  */
 @Configuration(proxyBeanMethods = false)
-@EnableConfigurationProperties(AuthorizationServerTokenProperties.class)
+@EnableConfigurationProperties({AuthorizationServerTokenProperties.class, AuthorityCacheProperties.class,
+        AuthorizationStoreProperties.class})
 public class AuthorizationServerConfig {
     /** 自定义同意页面URI */
     private static final String CUSTOM_CONSENT_PAGE_URI = "/oauth2/consent";
@@ -220,10 +229,27 @@ public class AuthorizationServerConfig {
     }
     // @formatter:on
 
+    /**
+     * 授权记录存储，按 eon.auth.authorization-store.type 选择：
+     * JDBC（默认，oauth2_authorization 表）、REDIS（按令牌过期自动清理）或 MEMORY（测试 / 本地开发）。
+     */
     @Bean
-    public JdbcOAuth2AuthorizationService authorizationService(JdbcTemplate jdbcTemplate,
-                                                               RegisteredClientRepository registeredClientRepository) {
-        return new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository);
+    public OAuth2AuthorizationService authorizationService(AuthorizationStoreProperties storeProperties,
+                                                           JdbcTemplate jdbcTemplate,
+                                                           RegisteredClientRepository registeredClientRepository,
+                                                           ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        return switch (storeProperties.getType()) {
+            case REDIS -> {
+                RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+                redisTemplate.setConnectionFactory(redisConnectionFactory.getObject());
+                redisTemplate.setKeySerializer(RedisSerializer.string());
+                redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+                redisTemplate.afterPropertiesSet();
+                yield new RedisOAuth2AuthorizationService(redisTemplate, storeProperties);
+            }
+            case MEMORY -> new InMemoryOAuth2AuthorizationService();
+            case JDBC -> new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository);
+        };
     }
 
     @Bean
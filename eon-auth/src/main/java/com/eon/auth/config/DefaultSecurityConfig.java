@@ -14,6 +14,7 @@ package com.eon.auth.config;/*
  * limitations under the License.
  */
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,13 +22,14 @@ import org.springframework.security.config.annotation.authentication.configurati
 
 import com.eon.auth.support.security.JdbcUserDetailsServiceAdapter;
 import com.eon.auth.support.user.UserAuthorityService;
-import org.springframework.jdbc.core.JdbcTemplate;
+import com.eon.common.security.crypto.BCryptCostCalibrator;
+import com.eon.common.security.crypto.BoundedPasswordEncoder;
+import com.eon.common.security.crypto.PasswordEncoderProperties;
+import com.eon.common.security.crypto.PasswordHashingExecutor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.session.SessionRegistryImpl;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -82,9 +84,9 @@ public class  DefaultSecurityConfig {
 
     // @formatter:off
     @Bean
-    public UserDetailsService userDetailsService(JdbcTemplate jdbcTemplate, UserAuthorityService userAuthorityService) {
-        // 统一由数据库驱动的 UserDetailsService 提供账号信息
-        return new JdbcUserDetailsServiceAdapter(jdbcTemplate, userAuthorityService);
+    public JdbcUserDetailsServiceAdapter userDetailsService(UserAuthorityService userAuthorityService) {
+        // 统一由数据库驱动的 UserDetailsService 提供账号信息，同时作为 UserDetailsPasswordService 回写升级后的哈希
+        return new JdbcUserDetailsServiceAdapter(userAuthorityService);
     }
     // @formatter:on
 
@@ -99,9 +101,13 @@ public class  DefaultSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // BCrypt 是 Spring Security 默认推荐的密码加密算法
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordEncoderProperties encoderProperties,
+                                           ObjectProvider<PasswordHashingExecutor> hashingExecutor) {
+        // BCrypt 是 Spring Security 默认推荐的密码加密算法；成本因子按主机标定，低成本旧哈希在登录成功后透明升级
+        PasswordEncoder encoder = BCryptCostCalibrator.encoder(encoderProperties);
+        // 登录洪峰时哈希校验在有界线程池中排队，饱和即 429，避免占满 Tomcat 工作线程
+        PasswordHashingExecutor executor = hashingExecutor.getIfAvailable();
+        return executor != null ? new BoundedPasswordEncoder(encoder, executor) : encoder;
     }
 
     @Bean
@@ -60,6 +60,7 @@ public class FederatedIdentityIdTokenCustomizer implements OAuth2TokenCustomizer
             context.getClaims().audience(accessTokenAudiences);
         }
 
+        // 密码登录时快照已在认证阶段加载并记忆到当前请求，访问令牌与 ID Token 不再重复查询
         UserAuthoritySnapshot snapshot = userAuthorityService.loadAuthoritySnapshot(principal.getName());
         if (!snapshot.hasUser()) {
             // 若用户不存在或被禁用，说明此次令牌不是为某个业务用户签发，不追加任何声明
@@ -81,6 +82,9 @@ public class FederatedIdentityIdTokenCustomizer implements OAuth2TokenCustomizer
         if (snapshot.policyVersion() != null) {
             context.getClaims().claim("pv", snapshot.policyVersion());
         }
+        if (snapshot.policyFingerprint() != null) {
+            context.getClaims().claim("pf", snapshot.policyFingerprint());   // 策略指纹（用户版本 + 角色版本向量）
+        }
         context.getClaims().claim("roles", roleCodes);                // 角色列表，示例：["ADMIN","USER"]
         context.getClaims().claim("permissions", permissionCodes);    // 权限列表，示例：["/api/users:READ"]
         context.getClaims().claim("authorities", new ArrayList<>(mergedAuthorities));
@@ -0,0 +1,69 @@
+package com.eon.auth.support.authorization;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 授权记录的二进制编解码：JDK 序列化后 Deflate 压缩，首字节为格式版本。
+ *
+ * <p>相比 JDBC 存储使用的带类型信息 JSON，主体与属性中大量重复的类名经压缩后体积显著减小。
+ * Redis 可能被其他服务共享写入，解码时以 {@link #FILTER} 白名单限制可反序列化的类与对象图规模，
+ * 不在白名单内的类直接拒绝，杜绝反序列化利用链。</p>
+ *
+ * <p>格式版本不符、类版本不兼容（如 Spring Security 升级后 serialVersionUID 变化）或被过滤拒绝时
+ * 抛出 {@link IllegalArgumentException}，由调用方按记录不存在处理。</p>
+ */
+final class AuthorizationCodec {
+
+    private static final byte VERSION = 1;
+
+    /**
+     * 授权记录对象图只包含 JDK 基础类型与集合、Spring Security 的令牌 / 认证 / 主体类型以及本项目的主体类型；
+     * java.net.URL 来自联邦登录主体中的 iss 声明。
+     */
+    static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=32;maxrefs=10000;maxarray=65536;maxbytes=1048576;"
+                    + "java.lang.*;java.util.*;java.time.*;java.net.URL;java.net.URI;"
+                    + "org.springframework.security.**;com.eon.**;!*");
+
+    private AuthorizationCodec() {
+    }
+
+    static byte[] encode(OAuth2Authorization authorization) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        bytes.write(VERSION);
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED)))) {
+            out.writeObject(authorization);
+        } catch (IOException e) {
+            throw new UncheckedIOException("授权记录序列化失败: " + authorization.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static OAuth2Authorization decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return null;
+        }
+        if (payload[0] != VERSION) {
+            throw new IllegalArgumentException("不支持的授权记录格式版本: " + payload[0]);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1)))) {
+            in.setObjectInputFilter(FILTER);
+            return (OAuth2Authorization) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("授权记录反序列化失败", e);
+        }
+    }
+}
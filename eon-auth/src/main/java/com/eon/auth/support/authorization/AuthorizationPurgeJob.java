@@ -0,0 +1,190 @@
+package com.eon.auth.support.authorization;
+
+import com.eon.auth.support.authorization.AuthorizationStoreProperties.Purge;
+import com.eon.auth.support.authorization.AuthorizationStoreProperties.StoreType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 清理 oauth2_authorization 中令牌已全部过期的记录，以及所属客户端已删除的授权同意。
+ *
+ * <p>按主键游标分批：每批先按 {@code id > 游标} 顺序取出一批过期 ID，再按主键删除（删除时复核过期条件，
+ * 避免误删期间被刷新的记录），批次之间停顿以限制对在线流量的影响；单次运行批次数有上限。
+ * 多实例同时运行时删除是幂等的，只是重复扫描。</p>
+ *
+ * <p>指标：{@code eon.auth.authorization.purged}（按 table 区分的删除行数）、
+ * {@code eon.auth.authorization.purge}（单次运行耗时）、{@code eon.auth.authorization.rows}（表行数估算，每次运行后刷新）。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "eon.auth.authorization-store.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuthorizationPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorizationPurgeJob.class);
+
+    /**
+     * 过期判定：所有带过期时间的令牌都早于截止时间，且至少签发过一种令牌；
+     * 仅有 state 的授权码流程中间记录没有时间信息，不在此清理。
+     */
+    private static final String EXPIRED = """
+            (access_token_expires_at IS NULL OR access_token_expires_at < ?)
+              AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)
+              AND (authorization_code_expires_at IS NULL OR authorization_code_expires_at < ?)
+              AND (oidc_id_token_expires_at IS NULL OR oidc_id_token_expires_at < ?)
+              AND (device_code_expires_at IS NULL OR device_code_expires_at < ?)
+              AND (user_code_expires_at IS NULL OR user_code_expires_at < ?)
+              AND (access_token_expires_at IS NOT NULL OR authorization_code_expires_at IS NOT NULL
+                   OR device_code_expires_at IS NOT NULL)
+            """;
+
+    private static final String SELECT_EXPIRED_IDS =
+            "SELECT id FROM oauth2_authorization WHERE id > ? AND " + EXPIRED + " ORDER BY id LIMIT ?";
+
+    private static final String SELECT_ORPHAN_CONSENTS = """
+            SELECT c.registered_client_id, c.principal_name
+            FROM oauth2_authorization_consent c
+            LEFT JOIN oauth2_registered_client rc ON rc.id = c.registered_client_id
+            WHERE rc.id IS NULL
+            LIMIT ?
+            """;
+
+    private static final String DELETE_CONSENT =
+            "DELETE FROM oauth2_authorization_consent WHERE registered_client_id = ? AND principal_name = ?";
+
+    private static final String ESTIMATE_ROWS = """
+            SELECT TABLE_ROWS FROM information_schema.TABLES
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oauth2_authorization'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuthorizationStoreProperties properties;
+    private final Counter purgedAuthorizations;
+    private final Counter purgedConsents;
+    private final Timer runs;
+    private final AtomicLong estimatedRows = new AtomicLong();
+
+    public AuthorizationPurgeJob(JdbcTemplate jdbcTemplate, AuthorizationStoreProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.purgedAuthorizations = Counter.builder("eon.auth.authorization.purged").tag("table", "authorization")
+                .register(meterRegistry);
+        this.purgedConsents = Counter.builder("eon.auth.authorization.purged").tag("table", "consent")
+                .register(meterRegistry);
+        this.runs = Timer.builder("eon.auth.authorization.purge").register(meterRegistry);
+        Gauge.builder("eon.auth.authorization.rows", estimatedRows, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${eon.auth.authorization-store.purge.initial-delay:PT5M}",
+            fixedDelayString = "${eon.auth.authorization-store.purge.interval:PT1H}")
+    public void run() {
+        if (properties.getType() != StoreType.JDBC) {
+            return;
+        }
+        runs.record(() -> {
+            long authorizations = purgeAuthorizations();
+            long consents = purgeOrphanConsents();
+            refreshRowEstimate();
+            if (authorizations > 0 || consents > 0) {
+                log.info("清理过期授权记录 {} 条、失效授权同意 {} 条", authorizations, consents);
+            }
+        });
+    }
+
+    /**
+     * @return 删除的授权记录数
+     */
+    long purgeAuthorizations() {
+        Purge purge = properties.getPurge();
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(purge.getRetention()));
+        String cursor = "";
+        long deleted = 0;
+        for (int batch = 0; batch < purge.getMaxBatches(); batch++) {
+            List<String> ids = jdbcTemplate.queryForList(SELECT_EXPIRED_IDS, String.class,
+                    cursor, cutoff, cutoff, cutoff, cutoff, cutoff, cutoff, purge.getBatchSize());
+            if (ids.isEmpty()) {
+                break;
+            }
+            cursor = ids.get(ids.size() - 1);
+            int count = deleteByIds(ids, cutoff);
+            deleted += count;
+            purgedAuthorizations.increment(count);
+            if (ids.size() < purge.getBatchSize() || !pause(purge)) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    private int deleteByIds(List<String> ids, Timestamp cutoff) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Object[] args = new Object[ids.size() + 6];
+        for (int i = 0; i < ids.size(); i++) {
+            args[i] = ids.get(i);
+        }
+        for (int i = ids.size(); i < args.length; i++) {
+            args[i] = cutoff;
+        }
+        return jdbcTemplate.update("DELETE FROM oauth2_authorization WHERE id IN (" + placeholders + ") AND " + EXPIRED, args);
+    }
+
+    /**
+     * 授权同意没有过期时间，这里只清理所属客户端已删除的记录。
+     *
+     * @return 删除的授权同意数
+     */
+    long purgeOrphanConsents() {
+        Purge purge = properties.getPurge();
+        long deleted = 0;
+        for (int batch = 0; batch < purge.getMaxBatches(); batch++) {
+            List<Object[]> keys = jdbcTemplate.query(SELECT_ORPHAN_CONSENTS,
+                    (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2)}, purge.getBatchSize());
+            if (keys.isEmpty()) {
+                break;
+            }
+            int count = 0;
+            for (int updated : jdbcTemplate.batchUpdate(DELETE_CONSENT, keys)) {
+                count += Math.max(updated, 0);
+            }
+            deleted += count;
+            purgedConsents.increment(count);
+            if (keys.size() < purge.getBatchSize() || !pause(purge)) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    private void refreshRowEstimate() {
+        try {
+            Long rows = jdbcTemplate.queryForObject(ESTIMATE_ROWS, Long.class);
+            estimatedRows.set(rows != null ? rows : 0L);
+        } catch (RuntimeException e) {
+            // 非 MySQL 或无 information_schema 权限时不影响清理
+            log.debug("读取 oauth2_authorization 行数估算失败: {}", e.getMessage());
+        }
+    }
+
+    private static boolean pause(Purge purge) {
+        try {
+            Thread.sleep(purge.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
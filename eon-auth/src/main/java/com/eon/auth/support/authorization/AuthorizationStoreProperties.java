@@ -0,0 +1,137 @@
+package com.eon.auth.support.authorization;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * OAuth2 授权记录存储配置。
+ */
+@ConfigurationProperties(prefix = "eon.auth.authorization-store")
+public class AuthorizationStoreProperties {
+
+    /**
+     * 存储类型。
+     */
+    private StoreType type = StoreType.JDBC;
+
+    /**
+     * Redis 键前缀。
+     */
+    private String keyPrefix = "eon:auth:authorization:";
+
+    /**
+     * 尚无令牌过期时间的授权记录（如授权码流程中仅有 state 的记录）在 Redis 中的存活时间。
+     */
+    private Duration defaultTtl = Duration.ofMinutes(10);
+
+    /**
+     * JDBC 存储的过期记录清理。
+     */
+    private final Purge purge = new Purge();
+
+    public StoreType getType() {
+        return type;
+    }
+
+    public void setType(StoreType type) {
+        this.type = type;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Purge getPurge() {
+        return purge;
+    }
+
+    public static class Purge {
+
+        /**
+         * 是否在本服务内定时清理（间隔见 interval，首次延迟见 initial-delay）。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 令牌全部过期后再保留的时长，便于排查问题。
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        /**
+         * 每批删除的行数，控制单个事务的锁范围与 binlog 体积。
+         */
+        private int batchSize = 500;
+
+        /**
+         * 批次之间的停顿，避免清理挤占在线读写。
+         */
+        private Duration pause = Duration.ofMillis(100);
+
+        /**
+         * 单次运行的最大批次数，剩余部分留到下次。
+         */
+        private int maxBatches = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPause() {
+            return pause;
+        }
+
+        public void setPause(Duration pause) {
+            this.pause = pause;
+        }
+
+        public int getMaxBatches() {
+            return maxBatches;
+        }
+
+        public void setMaxBatches(int maxBatches) {
+            this.maxBatches = maxBatches;
+        }
+    }
+
+    public enum StoreType {
+        /** oauth2_authorization 表，每个授权一行 */
+        JDBC,
+        /** Redis，按令牌过期时间自动清理 */
+        REDIS,
+        /** 进程内存，仅用于测试与本地开发 */
+        MEMORY
+    }
+}
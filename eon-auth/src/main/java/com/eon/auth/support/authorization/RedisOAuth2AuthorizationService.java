@@ -0,0 +1,193 @@
+package com.eon.auth.support.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Redis 版 {@link OAuth2AuthorizationService}。
+ *
+ * <p>每个授权记录一个键（{@code <prefix><id>}），值为 {@link AuthorizationCodec} 编码的二进制；
+ * 每个令牌值建一个索引键（{@code <prefix>token:<type>:<sha256>}）指向授权 ID，JWT 等长令牌只以摘要入键。
+ * 所有键的 TTL 取记录中最晚的令牌过期时间，到期由 Redis 自动清理，无需定时删除。
+ * 令牌轮换后残留的旧索引在查找时按令牌值二次校验，不会命中新记录，随 TTL 自然过期。
+ * 无法解码的记录（格式或类版本不兼容、被反序列化白名单拒绝）按不存在处理并删除，
+ * 令牌端点因此返回 invalid_grant 而不是 500。</p>
+ */
+@Slf4j
+public class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+    private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+    private static final OAuth2TokenType ID_TOKEN = new OAuth2TokenType(OidcParameterNames.ID_TOKEN);
+    private static final OAuth2TokenType USER_CODE = new OAuth2TokenType(OAuth2ParameterNames.USER_CODE);
+    private static final OAuth2TokenType DEVICE_CODE = new OAuth2TokenType(OAuth2ParameterNames.DEVICE_CODE);
+    private static final List<OAuth2TokenType> TOKEN_TYPES = List.of(OAuth2TokenType.ACCESS_TOKEN,
+            OAuth2TokenType.REFRESH_TOKEN, CODE, STATE, ID_TOKEN, USER_CODE, DEVICE_CODE);
+    private static final List<Class<? extends OAuth2Token>> TOKEN_CLASSES = List.of(OAuth2AuthorizationCode.class,
+            OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class, OAuth2UserCode.class,
+            OAuth2DeviceCode.class);
+
+    private final RedisOperations<String, byte[]> redis;
+    private final String keyPrefix;
+    private final Duration defaultTtl;
+
+    public RedisOAuth2AuthorizationService(RedisOperations<String, byte[]> redis, AuthorizationStoreProperties properties) {
+        this.redis = redis;
+        this.keyPrefix = properties.getKeyPrefix();
+        this.defaultTtl = properties.getDefaultTtl();
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put(authorizationKey(authorization.getId()), AuthorizationCodec.encode(authorization));
+        byte[] id = authorization.getId().getBytes(StandardCharsets.UTF_8);
+        tokenValues(authorization).forEach((type, value) -> entries.put(tokenKey(type, value), id));
+        Duration ttl = ttl(authorization);
+        redis.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                entries.forEach((key, value) -> ops.opsForValue().set(key, value, ttl));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        List<String> keys = new ArrayList<>();
+        keys.add(authorizationKey(authorization.getId()));
+        tokenValues(authorization).forEach((type, value) -> keys.add(tokenKey(type, value)));
+        redis.delete(keys);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        String key = authorizationKey(id);
+        try {
+            return AuthorizationCodec.decode(redis.opsForValue().get(key));
+        } catch (IllegalArgumentException e) {
+            log.warn("授权记录 {} 无法解码，按不存在处理并删除: {}", id, e.getMessage());
+            redis.delete(key);
+            return null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        List<OAuth2TokenType> types = tokenType == null ? TOKEN_TYPES : List.of(tokenType);
+        List<String> keys = types.stream().map(type -> tokenKey(type.getValue(), token)).toList();
+        // 未指定类型时一次 MGET 查全部索引
+        List<byte[]> ids = redis.opsForValue().multiGet(keys);
+        if (ids == null) {
+            return null;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] id = ids.get(i);
+            if (id == null) {
+                continue;
+            }
+            OAuth2Authorization authorization = findById(new String(id, StandardCharsets.UTF_8));
+            if (authorization != null && token.equals(tokenValues(authorization).get(types.get(i).getValue()))) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 记录中可被查找的令牌值，键为令牌类型。
+     */
+    private static Map<String, String> tokenValues(OAuth2Authorization authorization) {
+        Map<String, String> values = new LinkedHashMap<>();
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            values.put(STATE.getValue(), state);
+        }
+        putToken(values, CODE, authorization.getToken(OAuth2AuthorizationCode.class));
+        putToken(values, OAuth2TokenType.ACCESS_TOKEN, authorization.getToken(OAuth2AccessToken.class));
+        putToken(values, OAuth2TokenType.REFRESH_TOKEN, authorization.getToken(OAuth2RefreshToken.class));
+        putToken(values, ID_TOKEN, authorization.getToken(OidcIdToken.class));
+        putToken(values, USER_CODE, authorization.getToken(OAuth2UserCode.class));
+        putToken(values, DEVICE_CODE, authorization.getToken(OAuth2DeviceCode.class));
+        return values;
+    }
+
+    private static void putToken(Map<String, String> values, OAuth2TokenType type,
+                                 @Nullable OAuth2Authorization.Token<? extends OAuth2Token> token) {
+        if (token != null) {
+            values.put(type.getValue(), token.getToken().getTokenValue());
+        }
+    }
+
+    /**
+     * 取最晚的令牌过期时间；尚无带过期时间的令牌时使用默认 TTL。
+     */
+    private Duration ttl(OAuth2Authorization authorization) {
+        Instant latest = TOKEN_CLASSES.stream()
+                .map(authorization::getToken)
+                .filter(Objects::nonNull)
+                .map(token -> token.getToken().getExpiresAt())
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+        if (latest == null) {
+            return defaultTtl;
+        }
+        Duration remaining = Duration.between(Instant.now(), latest);
+        return remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining;
+    }
+
+    private String authorizationKey(String id) {
+        return keyPrefix + id;
+    }
+
+    private String tokenKey(String type, String value) {
+        return keyPrefix + "token:" + type + ":" + sha256(value);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.eon.auth.support.password;
 
+import com.eon.common.security.crypto.PasswordHashingRejectedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,6 +44,9 @@ import java.util.Set;
  *   <li><strong>令牌生成</strong>：生成访问令牌和刷新令牌</li>
  *   <li><strong>授权存储</strong>：保存授权信息以支持令牌内省和撤销</li>
  * </ol>
+ *
+ * <p>客户端启用 {@link PasswordGrantSettings#STATELESS} 时，只签发自包含 JWT 访问令牌，
+ * 跳过刷新令牌与授权记录的保存，省去令牌端点的写入开销。</p>
  * 
  * <p><strong>认证流程：</strong></p>
  * <pre>{@code
@@ -52,7 +56,7 @@ import java.util.Set;
  * 4. 解析和验证请求的授权范围
  * 5. 生成访问令牌（JWT或Reference Token）
  * 6. 根据客户端配置生成刷新令牌（可选）
- * 7. 保存授权记录到数据库
+ * 7. 保存授权记录到数据库（无状态客户端跳过）
  * 8. 返回 OAuth2AccessTokenAuthenticationToken
  * }</pre>
  * 
@@ -79,6 +83,7 @@ import java.util.Set;
  *   <li>{@code invalid_grant}：用户名密码错误或用户不存在</li>
  *   <li>{@code invalid_scope}：请求的scope超出客户端允许范围</li>
  *   <li>{@code server_error}：令牌生成失败或内部错误</li>
+ *   <li>HTTP 429：密码哈希线程池饱和，见 {@link PasswordHashingRejectedException}</li>
  * </ul>
  * 
  * @author EON Team
@@ -149,6 +154,9 @@ public class PasswordAuthenticationProvider implements AuthenticationProvider {
             usernamePasswordAuthentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(passwordAuthentication.getUsername(), passwordAuthentication.getPassword())
             );
+        } catch (PasswordHashingRejectedException ex) {
+            // 密码哈希线程池饱和，不能按凭证错误处理，交由外层过滤器返回 429
+            throw ex;
         } catch (Exception ex) {
             // 用户认证失败，可能是用户名不存在、密码错误、账户锁定等原因
             throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.INVALID_GRANT, "用户名或密码不正确", null));
@@ -181,9 +189,12 @@ public class PasswordAuthenticationProvider implements AuthenticationProvider {
                 generatedAccessToken.getExpiresAt(),
                 authorizedScopes);
 
+        // 无状态客户端：令牌自包含，不保存授权记录，也就无法支持刷新
+        boolean stateless = PasswordGrantSettings.isStateless(registeredClient);
+
         // 第五步：根据客户端配置生成刷新令牌（可选）
         OAuth2RefreshToken refreshToken = null;
-        if (registeredClient.getAuthorizationGrantTypes().stream()
+        if (!stateless && registeredClient.getAuthorizationGrantTypes().stream()
                 .anyMatch(grantType -> AuthorizationGrantType.REFRESH_TOKEN.getValue().equals(grantType.getValue()))) {
             // 客户端支持refresh_token授权类型，生成刷新令牌
             DefaultOAuth2TokenContext refreshTokenContext = DefaultOAuth2TokenContext.builder()
@@ -201,16 +212,18 @@ public class PasswordAuthenticationProvider implements AuthenticationProvider {
             }
         }
 
-        // 第六步：保存授权记录到持久化存储
+        // 第六步：保存授权记录到持久化存储（无状态客户端跳过）
         // 这些记录用于后续的令牌内省、撤销和刷新操作
-        OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(registeredClient)
-                .principalName(usernamePasswordAuthentication.getName())      // 用户身份标识
-                .authorizationGrantType(PasswordAuthenticationConverter.PASSWORD_GRANT_TYPE)  // 授权类型
-                .attribute(Principal.class.getName(), usernamePasswordAuthentication)  // 用户主体信息
-                .accessToken(accessToken)                                     // 访问令牌
-                .refreshToken(refreshToken)                                   // 刷新令牌（可选）
-                .build();
-        this.authorizationService.save(authorization);
+        if (!stateless) {
+            OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(registeredClient)
+                    .principalName(usernamePasswordAuthentication.getName())      // 用户身份标识
+                    .authorizationGrantType(PasswordAuthenticationConverter.PASSWORD_GRANT_TYPE)  // 授权类型
+                    .attribute(Principal.class.getName(), usernamePasswordAuthentication)  // 用户主体信息
+                    .accessToken(accessToken)                                     // 访问令牌
+                    .refreshToken(refreshToken)                                   // 刷新令牌（可选）
+                    .build();
+            this.authorizationService.save(authorization);
+        }
 
         // 第七步：返回包含令牌的认证结果
         Map<String, Object> additionalParameters = Collections.emptyMap();
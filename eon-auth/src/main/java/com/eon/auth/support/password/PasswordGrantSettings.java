@@ -0,0 +1,34 @@
+package com.eon.auth.support.password;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+
+/**
+ * password 授权模式的客户端级设置，存放在 {@code ClientSettings} 的自定义项中。
+ *
+ * <pre>{@code
+ * ClientSettings.builder()
+ *         .setting(PasswordGrantSettings.STATELESS, true)
+ *         .build();
+ * }</pre>
+ */
+public final class PasswordGrantSettings {
+
+    /**
+     * 无状态模式：只签发自包含的 JWT 访问令牌，不签发刷新令牌、不保存授权记录。
+     * 适用于从不刷新、不做内省的机器对机器客户端；令牌无法通过撤销端点提前失效，只能等待过期。
+     */
+    public static final String STATELESS = "settings.client.eon.password-grant.stateless";
+
+    private PasswordGrantSettings() {
+    }
+
+    /**
+     * 客户端启用了无状态模式且访问令牌为自包含格式时返回 true；
+     * 引用令牌（REFERENCE）依赖授权记录做内省，此时忽略该设置。
+     */
+    public static boolean isStateless(RegisteredClient registeredClient) {
+        return Boolean.TRUE.equals(registeredClient.getClientSettings().getSetting(STATELESS))
+                && OAuth2TokenFormat.SELF_CONTAINED.equals(registeredClient.getTokenSettings().getAccessTokenFormat());
+    }
+}
@@ -1,56 +1,66 @@
 package com.eon.auth.support.security;
 
 import com.eon.auth.support.user.UserAuthorityService;
+import com.eon.auth.support.user.UserAuthorityService.UserAccount;
 import com.eon.auth.support.user.UserAuthorityService.UserAuthoritySnapshot;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * JdbcTemplate 驱动的 UserDetailsService 实现。
+ * 账号凭证、角色与权限由 {@link UserAuthorityService#loadAccount(String)} 一次查询取得，
+ * 快照记忆在当前请求中，令牌定制阶段直接复用。
+ * 同时实现 {@link UserDetailsPasswordService}：登录成功且哈希成本低于当前配置时，
+ * 由 DaoAuthenticationProvider 以新成本重新哈希并回写。
  */
-public class JdbcUserDetailsServiceAdapter implements UserDetailsService {
+public class JdbcUserDetailsServiceAdapter implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcUserDetailsServiceAdapter.class);
 
-    private final JdbcTemplate jdbcTemplate;
     private final UserAuthorityService userAuthorityService;
 
-    public JdbcUserDetailsServiceAdapter(JdbcTemplate jdbcTemplate, UserAuthorityService userAuthorityService) {
-        this.jdbcTemplate = jdbcTemplate;
+    public JdbcUserDetailsServiceAdapter(UserAuthorityService userAuthorityService) {
         this.userAuthorityService = userAuthorityService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserRecord record = fetchUser(username);
-        UserAuthoritySnapshot snapshot = userAuthorityService.loadAuthoritySnapshot(username);
+        UserAccount account = userAuthorityService.loadAccount(username);
+        if (account == null) {
+            throw new UsernameNotFoundException("用户不存在或已被禁用");
+        }
+        if (!account.active()) {
+            throw new UsernameNotFoundException("账号已被禁用");
+        }
         return User.withUsername(username)
-                .password(record.passwordHash())
-                .authorities(toAuthorities(snapshot))
-                .accountLocked(!record.active())
-                .disabled(!record.active())
+                .password(account.passwordHash())
+                .authorities(toAuthorities(account.snapshot()))
+                .accountLocked(false)
+                .disabled(false)
                 .accountExpired(false)
                 .credentialsExpired(false)
                 .build();
     }
 
-    private UserRecord fetchUser(String username) {
-        try {
-            return jdbcTemplate.queryForObject(QUERY_USER_SQL, new UserRowMapper(), username);
-        } catch (EmptyResultDataAccessException ex) {
-            throw new UsernameNotFoundException("用户不存在或已被禁用");
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // 以旧哈希为条件更新，期间密码被修改时不覆盖
+        if (userAuthorityService.updatePasswordHash(user.getUsername(), user.getPassword(), newPassword)) {
+            log.debug("用户 [{}] 密码哈希已升级", user.getUsername());
+            return User.withUserDetails(user).password(newPassword).build();
         }
+        return user;
     }
 
     private Collection<? extends GrantedAuthority> toAuthorities(UserAuthoritySnapshot snapshot) {
@@ -64,22 +74,4 @@ public class JdbcUserDetailsServiceAdapter implements UserDetailsService {
         }
         return grantedAuthorities;
     }
-
-    private static final String QUERY_USER_SQL = "SELECT id, password_hash, is_active FROM users WHERE username = ? ORDER BY id LIMIT 1";
-
-    private record UserRecord(Long id, String passwordHash, boolean active) {
-    }
-
-    private static class UserRowMapper implements RowMapper<UserRecord> {
-        @Override
-        public UserRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Long id = rs.getLong("id");
-            String passwordHash = rs.getString("password_hash");
-            boolean active = rs.getBoolean("is_active");
-            if (!active) {
-                throw new UsernameNotFoundException("账号已被禁用");
-            }
-            return new UserRecord(id, passwordHash, active);
-        }
-    }
 }
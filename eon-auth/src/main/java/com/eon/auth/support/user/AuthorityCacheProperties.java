@@ -0,0 +1,64 @@
+package com.eon.auth.support.user;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 用户权限快照缓存配置。
+ */
+@ConfigurationProperties(prefix = "eon.auth.authority-cache")
+public class AuthorityCacheProperties {
+
+    /**
+     * 是否启用缓存。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最大缓存用户数，超出后按 W-TinyLFU 淘汰。
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * 写入后的最长存活时间。
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * 校验通过后在该时间内直接信任缓存、不再查询版本；默认 0 表示每次使用前都做一次轻量版本校验。
+     */
+    private Duration revalidateAfter = Duration.ZERO;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getRevalidateAfter() {
+        return revalidateAfter;
+    }
+
+    public void setRevalidateAfter(Duration revalidateAfter) {
+        this.revalidateAfter = revalidateAfter;
+    }
+}
@@ -0,0 +1,140 @@
+package com.eon.auth.support.user;
+
+import com.eon.auth.support.user.UserAuthorityService.UserAccount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Predicate;
+
+/**
+ * 用户账号与权限快照的本地缓存，以策略版本校验有效性。
+ *
+ * <p>缓存条目记录加载时的策略指纹（用户版本 + 角色版本向量）；使用前由调用方用一条轻量查询比对
+ * 当前版本、密码哈希与启用状态，一致才复用，否则失效重新加载。有界、写入后过期
+ * （校验通过只原地刷新校验时间、不重新写入，热点条目同样按期重新加载），
+ * 命中率等统计以 {@code eon.auth.authority-snapshot} 暴露，校验结果计入
+ * {@code eon.auth.authority-snapshot.revalidations}。</p>
+ */
+@Component
+public class AuthoritySnapshotCache {
+
+    static final String CACHE_NAME = "eon.auth.authority-snapshot";
+
+    private final boolean enabled;
+    private final long revalidateAfterNanos;
+    private final Ticker ticker;
+    private final Cache<String, Entry> cache;
+    private final Counter fresh;
+    private final Counter stale;
+    private final Counter trusted;
+
+    public AuthoritySnapshotCache(AuthorityCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    AuthoritySnapshotCache(AuthorityCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.revalidateAfterNanos = properties.getRevalidateAfter().toNanos();
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.fresh = revalidations(meterRegistry, "fresh");
+        this.stale = revalidations(meterRegistry, "stale");
+        this.trusted = revalidations(meterRegistry, "trusted");
+    }
+
+    private static Counter revalidations(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CACHE_NAME + ".revalidations")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取出仍然有效的缓存账号。
+     *
+     * @param stillValid 版本校验，返回 false 时条目失效
+     * @return 有效的账号，未命中或已过期时返回 null
+     */
+    public UserAccount get(String username, Predicate<Entry> stillValid) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(username);
+        if (entry == null) {
+            return null;
+        }
+        long now = ticker.read();
+        if (now - entry.verifiedAt() < revalidateAfterNanos) {
+            trusted.increment();
+            return entry.account();
+        }
+        if (stillValid.test(entry)) {
+            fresh.increment();
+            // 不重新 put：重写会重置 expireAfterWrite，被频繁访问的条目将永不过期
+            entry.verifiedAt = now;
+            return entry.account();
+        }
+        stale.increment();
+        cache.invalidate(username);
+        return null;
+    }
+
+    public void put(String username, UserAccount account, String policyFingerprint) {
+        if (enabled) {
+            cache.put(username, new Entry(account, policyFingerprint, ticker.read()));
+        }
+    }
+
+    /**
+     * 主动失效，供密码修改、账号停用等已知变更使用。
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存条目；账号与指纹不可变，只有校验时间随校验通过原地更新。
+     */
+    public static final class Entry {
+
+        private final UserAccount account;
+        private final String policyFingerprint;
+        private volatile long verifiedAt;
+
+        /**
+         * @param policyFingerprint 加载时的策略指纹，停用账号同样记录
+         * @param verifiedAt        最近一次加载或校验通过的时间（nanoTime）
+         */
+        Entry(UserAccount account, String policyFingerprint, long verifiedAt) {
+            this.account = account;
+            this.policyFingerprint = policyFingerprint;
+            this.verifiedAt = verifiedAt;
+        }
+
+        public UserAccount account() {
+            return account;
+        }
+
+        public String policyFingerprint() {
+            return policyFingerprint;
+        }
+
+        public long verifiedAt() {
+            return verifiedAt;
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package com.eon.auth.support.user;
 
+import com.eon.common.core.util.PolicyFingerprint;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
 
 /**
  * 用户角色与权限查询服务。
  *
  * <p>授权服务器在生成 JWT 时需要补充用户的角色与权限信息，
  * 该服务负责从业务数据库中读取最新的角色、权限快照，确保令牌中的声明字段真实可用。</p>
+ *
+ * <p>登录只有用户名，无法得知用户所在的租户分片，因此只查询单一数据源；
+ * 在支持按租户路由登录之前，数据源配置了租户分片目标时拒绝启动，避免分片上的用户静默无法登录。</p>
  */
 @Service
 public class UserAuthorityService {
@@ -22,13 +40,35 @@ public class UserAuthorityService {
     /** JDBC 模板，用于执行轻量级查询 */
     private final JdbcTemplate jdbcTemplate;
 
-    public UserAuthorityService(JdbcTemplate jdbcTemplate) {
+    /** 跨请求的快照缓存，命中后以策略版本校验有效性 */
+    private final AuthoritySnapshotCache cache;
+
+    public UserAuthorityService(JdbcTemplate jdbcTemplate, AuthoritySnapshotCache cache) {
+        requireUnsharded(jdbcTemplate.getDataSource());
         this.jdbcTemplate = jdbcTemplate;
+        this.cache = cache;
+    }
+
+    private static void requireUnsharded(DataSource dataSource) {
+        try {
+            if (dataSource == null || !dataSource.isWrapperFor(DynamicRoutingDataSource.class)) {
+                return;
+            }
+            TenantShardRouter router = dataSource.unwrap(DynamicRoutingDataSource.class).getTenantShardRouter();
+            if (router != null && !router.getShardTargets().isEmpty()) {
+                throw new IllegalStateException("登录尚不支持按租户分片查询用户，请移除 eon.datasource.tenant 的分片目标 "
+                        + router.getShardTargets());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("无法解析登录使用的数据源", e);
+        }
     }
 
     /**
      * 加载指定用户名的角色与权限快照。
      *
+     * <p>同一请求内（如一次令牌签发：登录认证、访问令牌、ID Token）按用户名记忆结果，只查询一次。</p>
+     *
      * @param username 登录用户名
      * @return 查询结果，若用户不存在或未启用则返回空快照
      */
@@ -36,83 +76,229 @@ public class UserAuthorityService {
         if (username == null || username.isBlank()) {
             return UserAuthoritySnapshot.EMPTY;
         }
+        UserAuthoritySnapshot memoized = memoized(username);
+        if (memoized != null) {
+            return memoized;
+        }
+        UserAccount account = loadAccount(username);
+        return account == null ? UserAuthoritySnapshot.EMPTY : account.snapshot();
+    }
 
-        UserIdentity identity = queryUserIdentity(username);
-        if (identity == null) {
-            log.debug("用户 [{}] 不存在或已被禁用，跳过角色权限查询", username);
-            return UserAuthoritySnapshot.EMPTY;
+    /**
+     * 一次查询加载账号凭证、角色与有效权限，并记忆到当前请求供后续令牌定制复用。
+     *
+     * <p>优先使用跨请求缓存：缓存命中时只查询用户与角色的版本号，策略指纹、密码哈希与启用状态
+     * 均未变化才复用，否则按完整查询重新加载。</p>
+     *
+     * @param username 登录用户名
+     * @return 账号信息，用户不存在时返回 null；停用账号的快照为空快照
+     */
+    public UserAccount loadAccount(String username) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        UserAccount cached = cache.get(username, this::isCurrent);
+        if (cached != null) {
+            memoize(username, cached.snapshot());
+            return cached;
         }
-        List<String> roleCodes = queryRoleCodes(identity.userId());
-        List<String> permissionCodes = queryPermissionCodes(identity.userId());
-
-        return new UserAuthoritySnapshot(
-                identity.userId(),
-                identity.tenantId(),
-                identity.policyVersion(),
-                roleCodes,
-                permissionCodes
-        );
+        AccountRows rows = new AccountRows();
+        jdbcTemplate.query(QUERY_ACCOUNT_SQL, rows, username);
+        if (rows.userId == null) {
+            log.debug("用户 [{}] 不存在，跳过角色权限查询", username);
+            return null;
+        }
+        UserAuthoritySnapshot snapshot = rows.active ? rows.toSnapshot() : UserAuthoritySnapshot.EMPTY;
+        if (!rows.active) {
+            log.debug("用户 [{}] 已被禁用，返回空快照", username);
+        }
+        memoize(username, snapshot);
+        UserAccount account = new UserAccount(rows.userId, rows.passwordHash, rows.active, snapshot);
+        cache.put(username, account, rows.policyFingerprint());
+        return account;
+    }
+
+    /**
+     * 以旧哈希为条件替换密码哈希（用于登录时透明升级哈希成本），成功后使缓存失效。
+     *
+     * @return 是否更新成功；旧哈希已被修改时返回 false
+     */
+    public boolean updatePasswordHash(String username, String currentHash, String newHash) {
+        int updated = jdbcTemplate.update(UPDATE_PASSWORD_HASH_SQL, newHash, Timestamp.from(Instant.now()), username, currentHash);
+        cache.evict(username);
+        return updated > 0;
     }
 
     /**
-     * 查询用户基础信息，过滤掉已停用账号。
+     * 使指定用户的缓存快照失效，供已知的凭证或授权变更调用。
      */
-    private UserIdentity queryUserIdentity(String username) {
-        List<UserIdentity> identities = jdbcTemplate.query(
-                """
-                        SELECT id, tenant_id, policy_version
-                        FROM users
-                        WHERE username = ? AND is_active = 1
-                        ORDER BY id
-                        LIMIT 1
-                        """,
-                (rs, rowNum) -> new UserIdentity(
-                        rs.getLong("id"),
-                        rs.getObject("tenant_id") != null ? rs.getLong("tenant_id") : null,
-                        rs.getObject("policy_version") != null ? rs.getInt("policy_version") : null
-                ),
-                username
-        );
-        return identities.isEmpty() ? null : identities.get(0);
+    public void evict(String username) {
+        cache.evict(username);
     }
 
     /**
-     * 查询用户的全部角色编码，角色编码与授权服务器的 ROLE_ 前缀保持一致。
+     * 缓存有效性校验：按用户主键读取版本号，一次往返、只走主键与关联表索引。
      */
-    private List<String> queryRoleCodes(Long userId) {
-        List<String> roles = jdbcTemplate.queryForList(
-                """
-                        SELECT DISTINCT r.code
-                        FROM user_roles ur
-                        JOIN roles r ON ur.role_id = r.id
-                        WHERE ur.user_id = ?
-                        ORDER BY r.code
-                        """,
-                String.class,
-                userId
-        );
-        return roles.isEmpty() ? Collections.emptyList() : List.copyOf(roles);
+    private boolean isCurrent(AuthoritySnapshotCache.Entry entry) {
+        VersionRows rows = new VersionRows();
+        jdbcTemplate.query(QUERY_VERSIONS_SQL, rows, entry.account().userId());
+        return rows.found
+                && rows.active == entry.account().active()
+                && Objects.equals(rows.passwordHash, entry.account().passwordHash())
+                && Objects.equals(PolicyFingerprint.of(rows.policyVersion, rows.roleVersions), entry.policyFingerprint());
     }
+
     /**
-     * 查询用户聚合后的权限编码，格式为 resource_key:ACTION。
+     * 身份、角色（含版本）与有效权限合并为一次往返：用户名只在 CTE 中解析一次（走 idx_users_username，
+     * 唯一键 uq_user_tenant_username 以 tenant_id 开头，不带租户的用户名查找无法使用），
+     * 三段 UNION ALL 均以解析出的用户主键关联。
+     * 有效权限读取用户服务维护的物化表 user_effective_permissions（已按角色继承闭包展开），
+     * 继承得到的权限不需要在 role_permissions 中重复授予；权限编码格式为 resource_key:ACTION。
      */
-    private List<String> queryPermissionCodes(Long userId) {
-        List<String> permissions = jdbcTemplate.queryForList(
-                """
-                        SELECT DISTINCT CASE p.effect
-                                WHEN 'DENY' THEN CONCAT('DENY:', p.resource_key, ':', p.action)
-                                ELSE CONCAT(p.resource_key, ':', p.action)
-                            END AS permission_code
-                        FROM user_roles ur
-                        JOIN role_permissions rp ON ur.role_id = rp.role_id
-                        JOIN permissions p ON rp.permission_id = p.id
-                        WHERE ur.user_id = ?
-                        ORDER BY permission_code
-                        """,
-                String.class,
-                userId
-        );
-        return permissions.isEmpty() ? Collections.emptyList() : List.copyOf(permissions);
+    private static final String QUERY_ACCOUNT_SQL = """
+            WITH target AS (SELECT id FROM users WHERE username = ? ORDER BY id LIMIT 1)
+            SELECT 'U' AS kind, u.id AS ref_id, u.tenant_id, u.policy_version AS version,
+                   u.password_hash AS code, u.is_active AS active
+            FROM target t
+            JOIN users u ON u.id = t.id
+            UNION ALL
+            SELECT 'R', r.id, NULL, r.policy_version, r.code, NULL
+            FROM target t
+            JOIN user_roles ur ON ur.user_id = t.id
+            JOIN roles r ON ur.role_id = r.id
+            UNION ALL
+            SELECT 'P', p.id, NULL, NULL,
+                   CASE p.effect
+                       WHEN 'DENY' THEN CONCAT('DENY:', p.resource_key, ':', p.action)
+                       ELSE CONCAT(p.resource_key, ':', p.action)
+                   END, NULL
+            FROM target t
+            JOIN user_effective_permissions uep ON uep.user_id = t.id
+            JOIN permissions p ON uep.permission_id = p.id
+            """;
+
+    private static final String QUERY_VERSIONS_SQL = """
+            SELECT u.password_hash, u.is_active, u.policy_version, r.id AS role_id, r.policy_version AS role_version
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON ur.role_id = r.id
+            WHERE u.id = ?
+            """;
+
+    private static final String UPDATE_PASSWORD_HASH_SQL =
+            "UPDATE users SET password_hash = ?, updated_at = ? WHERE username = ? AND password_hash = ?";
+
+    private static final String MEMO_ATTRIBUTE = UserAuthorityService.class.getName() + ".SNAPSHOTS";
+
+    private UserAuthoritySnapshot memoized(String username) {
+        Map<String, UserAuthoritySnapshot> memo = memo(false);
+        return memo == null ? null : memo.get(username);
+    }
+
+    private void memoize(String username, UserAuthoritySnapshot snapshot) {
+        Map<String, UserAuthoritySnapshot> memo = memo(true);
+        if (memo != null) {
+            memo.put(username, snapshot);
+        }
+    }
+
+    /**
+     * 请求级记忆表；不在请求线程中（如定时任务）时返回 null，即不做记忆。
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, UserAuthoritySnapshot> memo(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null && create) {
+            memo = new HashMap<String, UserAuthoritySnapshot>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, UserAuthoritySnapshot>) memo;
+    }
+
+    /**
+     * 按行类型聚合 UNION ALL 结果：U 为用户本身，R 为角色，P 为权限编码。
+     */
+    private static final class AccountRows implements RowCallbackHandler {
+        private Long userId;
+        private Long tenantId;
+        private Integer policyVersion;
+        private String passwordHash;
+        private boolean active;
+        private final Map<Long, Integer> roleVersions = new HashMap<>();
+        private final TreeSet<String> roleCodes = new TreeSet<>();
+        private final TreeSet<String> permissionCodes = new TreeSet<>();
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            switch (rs.getString("kind")) {
+                case "U" -> {
+                    userId = rs.getLong("ref_id");
+                    tenantId = rs.getObject("tenant_id") != null ? rs.getLong("tenant_id") : null;
+                    policyVersion = rs.getObject("version") != null ? rs.getInt("version") : null;
+                    passwordHash = rs.getString("code");
+                    active = rs.getBoolean("active");
+                }
+                case "R" -> {
+                    roleVersions.put(rs.getLong("ref_id"), rs.getObject("version") != null ? rs.getInt("version") : null);
+                    roleCodes.add(rs.getString("code"));
+                }
+                case "P" -> permissionCodes.add(rs.getString("code"));
+                default -> {
+                }
+            }
+        }
+
+        /**
+         * 策略指纹：用户自身版本 + 角色版本向量，角色权限变更只需提升角色版本。
+         */
+        String policyFingerprint() {
+            return PolicyFingerprint.of(policyVersion, roleVersions);
+        }
+
+        UserAuthoritySnapshot toSnapshot() {
+            return new UserAuthoritySnapshot(
+                    userId,
+                    tenantId,
+                    policyVersion,
+                    policyFingerprint(),
+                    List.copyOf(roleCodes),
+                    List.copyOf(permissionCodes)
+            );
+        }
+    }
+
+    /**
+     * 版本校验查询的结果：每个角色一行，无角色时角色列为 NULL。
+     */
+    private static final class VersionRows implements RowCallbackHandler {
+        private boolean found;
+        private String passwordHash;
+        private boolean active;
+        private Integer policyVersion;
+        private final Map<Long, Integer> roleVersions = new HashMap<>();
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (!found) {
+                found = true;
+                passwordHash = rs.getString("password_hash");
+                active = rs.getBoolean("is_active");
+                policyVersion = rs.getObject("policy_version") != null ? rs.getInt("policy_version") : null;
+            }
+            if (rs.getObject("role_id") != null) {
+                roleVersions.put(rs.getLong("role_id"), rs.getObject("role_version") != null ? rs.getInt("role_version") : null);
+            }
+        }
+    }
+
+    /**
+     * 登录所需的账号信息：凭证、启用状态与权限快照。
+     */
+    public record UserAccount(Long userId, String passwordHash, boolean active, UserAuthoritySnapshot snapshot) {
     }
 
     /**
@@ -121,11 +307,12 @@ public class UserAuthorityService {
     public record UserAuthoritySnapshot(Long userId,
                                         Long tenantId,
                                         Integer policyVersion,
+                                        String policyFingerprint,
                                         List<String> roles,
                                         List<String> permissions) {
 
         /** 共享的空快照常量，避免重复创建对象 */
-        public static final UserAuthoritySnapshot EMPTY = new UserAuthoritySnapshot(null, null, null, Collections.emptyList(), Collections.emptyList());
+        public static final UserAuthoritySnapshot EMPTY = new UserAuthoritySnapshot(null, null, null, null, Collections.emptyList(), Collections.emptyList());
 
         /**
          * 判断快照是否包含有效用户数据。
@@ -134,7 +321,4 @@ public class UserAuthorityService {
             return userId != null;
         }
     }
-
-    private record UserIdentity(Long userId, Long tenantId, Integer policyVersion) {
-    }
 }
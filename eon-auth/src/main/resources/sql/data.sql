@@ -75,6 +75,17 @@ SELECT r.id, p.id
 FROM roles r, permissions p
 WHERE r.code = 'USER' AND p.action = 'READ';
 
+-- 角色闭包自身行（示例角色均为顶级角色）
+INSERT IGNORE INTO role_closure (ancestor_id, descendant_id, depth)
+SELECT id, id, 0 FROM roles;
+
+-- 用户有效权限物化（经角色闭包展开）
+INSERT IGNORE INTO user_effective_permissions (user_id, permission_id)
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur
+JOIN role_closure rc ON rc.descendant_id = ur.role_id
+JOIN role_permissions rp ON rp.role_id = rc.ancestor_id;
+
 -- ===================================================================
 -- OAuth2客户端数据（由程序在启动时自动创建，这里仅作注释说明）
 -- ===================================================================
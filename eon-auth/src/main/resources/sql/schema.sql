@@ -112,7 +112,9 @@ CREATE TABLE IF NOT EXISTS users (
     -- 更新时间
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     -- 唯一约束：租户内用户名唯一
-    CONSTRAINT uq_user_tenant_username UNIQUE (tenant_id, username)
+    CONSTRAINT uq_user_tenant_username UNIQUE (tenant_id, username),
+    -- 登录按用户名查找（不带租户），唯一键以 tenant_id 开头无法使用
+    KEY idx_users_username (username, id)
 );
 
 -- 角色表
@@ -122,12 +124,16 @@ CREATE TABLE IF NOT EXISTS roles (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     -- 租户ID（多租户支持）
     tenant_id BIGINT NULL,
+    -- 父角色ID（子角色继承父角色的全部权限）
+    parent_id BIGINT NULL,
     -- 角色代码（程序中使用的标识）
     code VARCHAR(128) NOT NULL,
     -- 角色显示名称
     name VARCHAR(255) NOT NULL,
     -- 是否系统角色（1=系统角色不可删除，0=普通角色）
     is_system TINYINT(1) DEFAULT 0,
+    -- 角色策略版本（权限变更时递增，参与用户策略指纹计算）
+    policy_version INT DEFAULT 1,
     -- 创建时间
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     -- 更新时间  
@@ -173,6 +179,28 @@ CREATE TABLE IF NOT EXISTS role_permissions (
     PRIMARY KEY (role_id, permission_id)
 );
 
+-- 角色继承闭包表（由用户服务维护）
+CREATE TABLE IF NOT EXISTS role_closure (
+    -- 祖先角色ID
+    ancestor_id BIGINT NOT NULL,
+    -- 后代角色ID（含自身）
+    descendant_id BIGINT NOT NULL,
+    -- 层级距离（自身为0）
+    depth INT NOT NULL,
+    -- 复合主键：按后代角色前缀查询其全部祖先
+    PRIMARY KEY (descendant_id, ancestor_id)
+);
+
+-- 用户有效权限物化表（由用户服务按角色闭包展开维护，认证服务只读）
+CREATE TABLE IF NOT EXISTS user_effective_permissions (
+    -- 用户ID（外键关联users表）
+    user_id BIGINT NOT NULL,
+    -- 权限ID（外键关联permissions表）
+    permission_id BIGINT NOT NULL,
+    -- 复合主键：按 user_id 前缀即可命中
+    PRIMARY KEY (user_id, permission_id)
+);
+
 -- ===================================================================
 -- 索引优化
 -- ===================================================================
@@ -206,3 +234,51 @@ CREATE TABLE IF NOT EXISTS role_permissions (
 --     FOREIGN KEY (role_id) REFERENCES roles(id);
 -- ALTER TABLE role_permissions ADD CONSTRAINT fk_role_permissions_permission  
 --     FOREIGN KEY (permission_id) REFERENCES permissions(id);
+
+
+-- ---------------------------------------------------------------------------
+-- 存量库升级（幂等，可重复执行）
+-- CREATE TABLE IF NOT EXISTS 不会给已有表补列：新增列先按 information_schema 判断再 ALTER，并回填存量数据
+-- ---------------------------------------------------------------------------
+
+-- roles.policy_version：角色策略版本（参与用户策略指纹计算）
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE roles ADD COLUMN policy_version INT DEFAULT 1 AFTER is_system',
+    'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'policy_version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+-- 回填：存量角色从版本 1 起算
+UPDATE roles SET policy_version = 1 WHERE policy_version IS NULL;
+
+-- roles.parent_id：父角色（子角色继承父角色的全部权限）
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE roles ADD COLUMN parent_id BIGINT NULL AFTER tenant_id',
+    'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'parent_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+-- 回填角色闭包：每个角色的自身行及沿 parent_id 上溯的全部祖先行，已有的行忽略
+INSERT IGNORE INTO role_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+  SELECT id, id, 0 FROM roles
+  UNION ALL
+  SELECT r.parent_id, c.descendant_id, c.depth + 1
+  FROM chain c JOIN roles r ON r.id = c.ancestor_id
+  WHERE r.parent_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth FROM chain;
+
+-- users.idx_users_username：登录按用户名（不带租户）查找用户
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE users ADD KEY idx_users_username (username, id)',
+    'DO 0')
+  FROM information_schema.statistics
+  WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_username');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -34,6 +34,7 @@ class FederatedIdentityIdTokenCustomizerTest {
                 1001L,
                 2002L,
                 7,
+                "9f86d081884c7d65",
                 List.of("ADMIN", "AUDITOR"),
                 List.of("user:read", "user:export")
         );
@@ -54,6 +55,7 @@ class FederatedIdentityIdTokenCustomizerTest {
         assertEquals(Long.valueOf(1001L), claims.getClaim("uid"));
         assertEquals(Long.valueOf(2002L), claims.getClaim("tenant"));
         assertEquals(Integer.valueOf(7), claims.getClaim("pv"));
+        assertEquals("9f86d081884c7d65", claims.getClaim("pf"));
         assertEquals(List.of("ADMIN", "AUDITOR"), claims.getClaim("roles"));
         assertEquals(List.of("user:read", "user:export"), claims.getClaim("permissions"));
 
@@ -0,0 +1,82 @@
+package com.eon.auth.support.authorization;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证过期授权清理按主键游标分批删除、在末批停止并记录指标。
+ */
+class AuthorizationPurgeJobTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.getPurge().setBatchSize(2);
+        properties.getPurge().setPause(Duration.ZERO);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_should_delete_in_batches_until_short_batch() {
+        when(jdbcTemplate.queryForList(contains("SELECT id FROM oauth2_authorization"), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("a", "b"), List.of("c"));
+        when(jdbcTemplate.update(contains("DELETE FROM oauth2_authorization"), any(Object[].class))).thenReturn(2, 1);
+        when(jdbcTemplate.query(contains("oauth2_authorization_consent"), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("information_schema"), eq(Long.class))).thenReturn(42L);
+
+        new AuthorizationPurgeJob(jdbcTemplate, properties, meterRegistry).run();
+
+        verify(jdbcTemplate, times(2)).update(contains("DELETE FROM oauth2_authorization"), any(Object[].class));
+        // 第二批以上一批最后一个 ID 作为游标
+        verify(jdbcTemplate).queryForList(anyString(), eq(String.class), eq("b"), any(), any(), any(), any(), any(), any(), eq(2));
+        assertEquals(3.0, meterRegistry.get("eon.auth.authorization.purged").tag("table", "authorization").counter().count());
+        assertEquals(42.0, meterRegistry.get("eon.auth.authorization.rows").gauge().value());
+        assertEquals(1, meterRegistry.get("eon.auth.authorization.purge").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_should_delete_orphan_consents() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of());
+        when(jdbcTemplate.query(contains("oauth2_authorization_consent"), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.<Object[]>of(new Object[]{"removed-client", "alice"}));
+        when(jdbcTemplate.batchUpdate(contains("DELETE FROM oauth2_authorization_consent"), any(List.class)))
+                .thenReturn(new int[]{1});
+
+        new AuthorizationPurgeJob(jdbcTemplate, properties, meterRegistry).run();
+
+        verify(jdbcTemplate, never()).update(contains("DELETE FROM oauth2_authorization "), any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("eon.auth.authorization.purged").tag("table", "consent").counter().count());
+    }
+
+    @Test
+    void run_should_skip_when_store_is_not_jdbc() {
+        properties.setType(AuthorizationStoreProperties.StoreType.REDIS);
+
+        new AuthorizationPurgeJob(jdbcTemplate, properties, meterRegistry).run();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,183 @@
+package com.eon.auth.support.authorization;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import javax.management.BadAttributeValueExpException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证 Redis 授权存储的编解码、令牌索引查找、TTL 与删除，以及无法解码的记录按不存在处理。
+ */
+class RedisOAuth2AuthorizationServiceTest {
+
+    private final Map<String, byte[]> store = new HashMap<>();
+    private final Map<String, Duration> ttls = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final RedisOperations<String, byte[]> redis = mock(RedisOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> values = mock(ValueOperations.class);
+    private RedisOAuth2AuthorizationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        doAnswer(inv -> {
+            store.put(inv.getArgument(0), inv.getArgument(1));
+            ttls.put(inv.getArgument(0), inv.getArgument(2));
+            return null;
+        }).when(values).set(anyString(), any(byte[].class), any(Duration.class));
+        when(values.get(anyString())).thenAnswer(inv -> store.get(inv.<String>getArgument(0)));
+        when(values.multiGet(anyList())).thenAnswer(inv ->
+                inv.<List<String>>getArgument(0).stream().map(store::get).toList());
+        when(redis.executePipelined(any(SessionCallback.class))).thenAnswer(inv -> {
+            inv.<SessionCallback<Object>>getArgument(0).execute(redis);
+            return List.of();
+        });
+        when(redis.delete(anyString())).thenAnswer(inv -> store.remove(inv.<String>getArgument(0)) != null);
+        when(redis.delete(anyCollection())).thenAnswer(inv -> {
+            Collection<String> keys = inv.getArgument(0);
+            keys.forEach(store::remove);
+            return (long) keys.size();
+        });
+        service = new RedisOAuth2AuthorizationService(redis, new AuthorizationStoreProperties());
+    }
+
+    @Test
+    void save_should_index_tokens_and_expire_with_refresh_token() {
+        OAuth2Authorization authorization = authorization("access-1", "refresh-1");
+
+        service.save(authorization);
+
+        assertEquals(3, store.size());
+        assertTrue(ttls.values().stream().allMatch(ttl -> ttl.compareTo(Duration.ofMinutes(59)) > 0));
+        OAuth2Authorization found = service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN);
+        assertNotNull(found);
+        assertEquals("alice", found.getPrincipalName());
+        assertEquals("refresh-1", found.getRefreshToken().getToken().getTokenValue());
+        assertNotNull(found.getAttribute(Principal.class.getName()));
+        assertEquals(authorization.getId(), service.findByToken("refresh-1", null).getId());
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.ACCESS_TOKEN));
+    }
+
+    @Test
+    void findByToken_should_ignore_index_left_by_rotated_token() {
+        OAuth2Authorization authorization = authorization("access-1", "refresh-1");
+        service.save(authorization);
+
+        service.save(OAuth2Authorization.from(authorization)
+                .accessToken(accessToken("access-2"))
+                .refreshToken(refreshToken("refresh-2"))
+                .build());
+
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertNotNull(service.findByToken("refresh-2", OAuth2TokenType.REFRESH_TOKEN));
+    }
+
+    @Test
+    void remove_should_delete_record_and_indexes() {
+        OAuth2Authorization authorization = authorization("access-1", "refresh-1");
+        service.save(authorization);
+
+        service.remove(authorization);
+
+        assertTrue(store.isEmpty());
+        assertNull(service.findById(authorization.getId()));
+    }
+
+    @Test
+    void undecodable_record_should_be_treated_as_missing_and_deleted() {
+        OAuth2Authorization authorization = authorization("access-1", "refresh-1");
+        service.save(authorization);
+        String key = new AuthorizationStoreProperties().getKeyPrefix() + authorization.getId();
+        byte[] payload = store.get(key);
+        payload[0] = 2;
+
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertFalse(store.containsKey(key));
+    }
+
+    @Test
+    void decode_should_reject_classes_outside_allow_list() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> AuthorizationCodec.decode(payload(new ConcurrentHashMap<>())));
+        // 常见反序列化利用链的入口类型
+        assertThrows(IllegalArgumentException.class,
+                () -> AuthorizationCodec.decode(payload(new BadAttributeValueExpException("gadget"))));
+        // 白名单内但不是授权记录
+        assertThrows(IllegalArgumentException.class, () -> AuthorizationCodec.decode(payload(new HashMap<>())));
+    }
+
+    private static byte[] payload(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(1);
+        try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OAuth2Authorization authorization(String access, String refresh) {
+        RegisteredClient client = RegisteredClient.withId("client-1")
+                .clientId("eon-console")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .build();
+        return OAuth2Authorization.withRegisteredClient(client)
+                .principalName("alice")
+                .authorizationGrantType(new AuthorizationGrantType("password"))
+                .attribute(Principal.class.getName(), UsernamePasswordAuthenticationToken.authenticated(
+                        "alice", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .accessToken(accessToken(access))
+                .refreshToken(refreshToken(refresh))
+                .build();
+    }
+
+    private static OAuth2AccessToken accessToken(String value) {
+        Instant now = Instant.now();
+        return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, value, now, now.plusSeconds(300), Set.of("read"));
+    }
+
+    private static OAuth2RefreshToken refreshToken(String value) {
+        Instant now = Instant.now();
+        return new OAuth2RefreshToken(value, now, now.plus(Duration.ofHours(1)));
+    }
+}
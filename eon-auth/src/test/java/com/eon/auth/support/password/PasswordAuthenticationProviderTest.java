@@ -0,0 +1,127 @@
+package com.eon.auth.support.password;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证 password 模式按客户端设置在有状态与无状态之间切换。
+ */
+class PasswordAuthenticationProviderTest {
+
+    private final OAuth2AuthorizationService authorizationService = mock(OAuth2AuthorizationService.class);
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final OAuth2TokenGenerator<OAuth2Token> tokenGenerator = this::generate;
+    private final PasswordAuthenticationProvider provider =
+            new PasswordAuthenticationProvider(authorizationService, tokenGenerator, authenticationManager);
+
+    @BeforeEach
+    void setUp() {
+        AuthorizationServerSettings settings = AuthorizationServerSettings.builder().issuer("http://localhost:3000").build();
+        AuthorizationServerContextHolder.setContext(new AuthorizationServerContext() {
+            @Override
+            public String getIssuer() {
+                return settings.getIssuer();
+            }
+
+            @Override
+            public AuthorizationServerSettings getAuthorizationServerSettings() {
+                return settings;
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        AuthorizationServerContextHolder.resetContext();
+    }
+
+    @Test
+    void authenticate_should_persist_authorization_by_default() {
+        OAuth2AccessTokenAuthenticationToken result = authenticate(client(false, OAuth2TokenFormat.SELF_CONTAINED));
+
+        assertNotNull(result.getRefreshToken());
+        verify(authorizationService).save(any());
+    }
+
+    @Test
+    void authenticate_should_skip_persistence_and_refresh_token_for_stateless_client() {
+        OAuth2AccessTokenAuthenticationToken result = authenticate(client(true, OAuth2TokenFormat.SELF_CONTAINED));
+
+        assertEquals("access", result.getAccessToken().getTokenValue());
+        assertNull(result.getRefreshToken());
+        verify(authorizationService, never()).save(any());
+    }
+
+    @Test
+    void authenticate_should_ignore_stateless_setting_for_reference_tokens() {
+        authenticate(client(true, OAuth2TokenFormat.REFERENCE));
+
+        verify(authorizationService).save(any());
+    }
+
+    private OAuth2AccessTokenAuthenticationToken authenticate(RegisteredClient client) {
+        when(authenticationManager.authenticate(any())).thenReturn(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+        OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+                client, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, "secret");
+        PasswordAuthenticationToken request = new PasswordAuthenticationToken(
+                clientPrincipal, "alice", "secret", Set.of("read"), Map.of());
+        return (OAuth2AccessTokenAuthenticationToken) provider.authenticate(request);
+    }
+
+    private OAuth2Token generate(OAuth2TokenContext context) {
+        Instant now = Instant.now();
+        if (OAuth2TokenType.REFRESH_TOKEN.equals(context.getTokenType())) {
+            return new OAuth2RefreshToken("refresh", now, now.plusSeconds(3600));
+        }
+        return Jwt.withTokenValue("access").header("alg", "RS256").subject("alice")
+                .issuedAt(now).expiresAt(now.plusSeconds(300)).build();
+    }
+
+    private static RegisteredClient client(boolean stateless, OAuth2TokenFormat format) {
+        return RegisteredClient.withId("client-1")
+                .clientId("m2m")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(PasswordAuthenticationConverter.PASSWORD_GRANT_TYPE)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .scope("read")
+                .tokenSettings(TokenSettings.builder().accessTokenFormat(format).build())
+                .clientSettings(ClientSettings.builder().setting(PasswordGrantSettings.STATELESS, stateless).build())
+                .build();
+    }
+}
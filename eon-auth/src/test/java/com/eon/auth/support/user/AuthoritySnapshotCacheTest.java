@@ -0,0 +1,57 @@
+package com.eon.auth.support.user;
+
+import com.eon.auth.support.user.UserAuthorityService.UserAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 验证校验通过的命中只刷新校验时间，不重置写入过期：被持续访问的条目到期后同样需要重新加载。
+ */
+class AuthoritySnapshotCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthoritySnapshotCache cache =
+            new AuthoritySnapshotCache(new AuthorityCacheProperties(), meterRegistry, nanos::get);
+
+    @Test
+    void revalidated_hits_should_not_extend_expire_after_write() {
+        UserAccount account = new UserAccount(1L, "hash", true, null);
+        cache.put("alice", account, "v1");
+
+        advance(Duration.ofMinutes(6));
+        assertSame(account, cache.get("alice", entry -> true));
+
+        advance(Duration.ofMinutes(5));
+        assertNull(cache.get("alice", entry -> true));
+        assertEquals(1.0, meterRegistry.get(AuthoritySnapshotCache.CACHE_NAME + ".revalidations")
+                .tag("result", "fresh").counter().count());
+    }
+
+    @Test
+    void revalidated_hit_should_refresh_verified_time() {
+        AuthorityCacheProperties properties = new AuthorityCacheProperties();
+        properties.setRevalidateAfter(Duration.ofSeconds(30));
+        AuthoritySnapshotCache trusting = new AuthoritySnapshotCache(properties, meterRegistry, nanos::get);
+        UserAccount account = new UserAccount(1L, "hash", true, null);
+        trusting.put("alice", account, "v1");
+
+        advance(Duration.ofSeconds(40));
+        assertSame(account, trusting.get("alice", entry -> true));
+        advance(Duration.ofSeconds(10));
+        assertSame(account, trusting.get("alice", entry -> {
+            throw new AssertionError("30 秒内应直接信任缓存");
+        }));
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
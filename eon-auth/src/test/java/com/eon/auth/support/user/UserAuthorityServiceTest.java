@@ -0,0 +1,240 @@
+package com.eon.auth.support.user;
+
+import com.eon.auth.support.user.UserAuthorityService.UserAccount;
+import com.eon.auth.support.user.UserAuthorityService.UserAuthoritySnapshot;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证账号、角色与权限一次查询聚合，同一请求内的快照复用，以及按策略版本校验的跨请求缓存。
+ */
+class UserAuthorityServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserAuthorityService service = new UserAuthorityService(jdbcTemplate,
+            new AuthoritySnapshotCache(disabledCache(), meterRegistry));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void loadAccount_should_aggregate_union_rows_in_one_query() throws SQLException {
+        stubRows(
+                row("U", 1001L, 2002L, 7, "{bcrypt}hash", true),
+                row("R", 2L, null, 3, "USER", null),
+                row("R", 1L, null, 5, "ADMIN", null),
+                row("P", 11L, null, null, "user:read", null),
+                row("P", 10L, null, null, "DENY:user:delete", null));
+
+        UserAccount account = service.loadAccount("alice");
+
+        assertEquals(1001L, account.userId());
+        assertEquals("{bcrypt}hash", account.passwordHash());
+        assertTrue(account.active());
+        UserAuthoritySnapshot snapshot = account.snapshot();
+        assertEquals(2002L, snapshot.tenantId());
+        assertEquals(7, snapshot.policyVersion());
+        assertEquals(List.of("ADMIN", "USER"), snapshot.roles());
+        assertEquals(List.of("DENY:user:delete", "user:read"), snapshot.permissions());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        // 用户名只在 CTE 中解析一次，三段均按主键关联
+        verify(jdbcTemplate).query(contains("WITH target"), any(RowCallbackHandler.class), eq("alice"));
+    }
+
+    @Test
+    void loadAuthoritySnapshot_should_reuse_snapshot_within_request() throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        stubRows(row("U", 1001L, null, 1, "hash", true));
+
+        UserAccount account = service.loadAccount("alice");
+        UserAuthoritySnapshot accessToken = service.loadAuthoritySnapshot("alice");
+        UserAuthoritySnapshot idToken = service.loadAuthoritySnapshot("alice");
+
+        assertSame(account.snapshot(), accessToken);
+        assertSame(accessToken, idToken);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void loadAccount_should_return_empty_snapshot_for_disabled_user() throws SQLException {
+        stubRows(row("U", 1001L, null, 1, "hash", false), row("R", 1L, null, 1, "ADMIN", null));
+
+        UserAccount account = service.loadAccount("alice");
+
+        assertFalse(account.active());
+        assertFalse(account.snapshot().hasUser());
+        assertFalse(service.loadAuthoritySnapshot("alice").hasUser());
+    }
+
+    @Test
+    void loadAccount_should_return_null_when_user_missing() {
+        assertNull(service.loadAccount("ghost"));
+        assertSame(UserAuthoritySnapshot.EMPTY, service.loadAuthoritySnapshot("ghost"));
+    }
+
+    @Test
+    void loadAccount_should_reuse_cached_account_while_versions_unchanged() throws SQLException {
+        UserAuthorityService cached = cachedService();
+        stubRows(row("U", 1001L, null, 1, "hash", true), row("R", 1L, null, 3, "ADMIN", null));
+        stubVersions(version("hash", true, 1, 1L, 3));
+
+        UserAccount first = cached.loadAccount("alice");
+        UserAccount second = cached.loadAccount("alice");
+
+        assertSame(first, second);
+        verify(jdbcTemplate, times(1)).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("eon.auth.authority-snapshot.revalidations").tag("result", "fresh")
+                .counter().count());
+    }
+
+    @Test
+    void loadAccount_should_reload_when_role_version_bumped() throws SQLException {
+        UserAuthorityService cached = cachedService();
+        stubRows(row("U", 1001L, null, 1, "hash", true), row("R", 1L, null, 3, "ADMIN", null));
+        stubVersions(version("hash", true, 1, 1L, 4));
+
+        UserAccount first = cached.loadAccount("alice");
+        UserAccount second = cached.loadAccount("alice");
+
+        assertNotSame(first, second);
+        verify(jdbcTemplate, times(2)).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("eon.auth.authority-snapshot.revalidations").tag("result", "stale")
+                .counter().count());
+    }
+
+    @Test
+    void loadAccount_should_reload_when_password_changed() throws SQLException {
+        UserAuthorityService cached = cachedService();
+        stubRows(row("U", 1001L, null, 1, "hash", true));
+        stubVersions(version("new-hash", true, 1, null, null));
+
+        cached.loadAccount("alice");
+        cached.loadAccount("alice");
+
+        verify(jdbcTemplate, times(2)).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void updatePasswordHash_should_use_current_hash_as_guard_and_evict_cache() throws SQLException {
+        UserAuthorityService cached = cachedService();
+        stubRows(row("U", 1001L, null, 1, "old", true));
+        stubVersions(version("old", true, 1, null, null));
+        when(jdbcTemplate.update(contains("UPDATE users"), eq("new"), any(), eq("alice"), eq("old"))).thenReturn(1);
+
+        cached.loadAccount("alice");
+        assertTrue(cached.updatePasswordHash("alice", "old", "new"));
+        assertFalse(cached.updatePasswordHash("alice", "stale", "new"));
+        cached.loadAccount("alice");
+
+        verify(jdbcTemplate, times(2)).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void constructor_should_reject_datasource_with_tenant_shards() {
+        TenantRouting routing = new TenantRouting();
+        routing.setEnabled(true);
+        routing.setShards(List.of("shard1"));
+        Map<String, DataSource> targets = Map.of("master", mock(DataSource.class), "shard1", mock(DataSource.class));
+        TenantShardRouter router = new TenantShardRouter(routing, targets.keySet(), "master", () -> null);
+        JdbcTemplate sharded = new JdbcTemplate(new DynamicRoutingDataSource("master", targets,
+                new DataSourceContextHolder(), null, router));
+
+        assertThrows(IllegalStateException.class, () -> new UserAuthorityService(sharded,
+                new AuthoritySnapshotCache(disabledCache(), meterRegistry)));
+    }
+
+    private UserAuthorityService cachedService() {
+        return new UserAuthorityService(jdbcTemplate,
+                new AuthoritySnapshotCache(new AuthorityCacheProperties(), meterRegistry));
+    }
+
+    private static AuthorityCacheProperties disabledCache() {
+        AuthorityCacheProperties properties = new AuthorityCacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    private void stubRows(ResultSet... rows) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private void stubVersions(ResultSet... rows) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("LEFT JOIN"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private ResultSet version(String passwordHash, boolean active, Integer policyVersion, Long roleId,
+                              Integer roleVersion) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("password_hash")).thenReturn(passwordHash);
+        when(rs.getBoolean("is_active")).thenReturn(active);
+        when(rs.getObject("policy_version")).thenReturn(policyVersion);
+        when(rs.getInt("policy_version")).thenReturn(policyVersion == null ? 0 : policyVersion);
+        when(rs.getObject("role_id")).thenReturn(roleId);
+        when(rs.getLong("role_id")).thenReturn(roleId == null ? 0L : roleId);
+        when(rs.getObject("role_version")).thenReturn(roleVersion);
+        when(rs.getInt("role_version")).thenReturn(roleVersion == null ? 0 : roleVersion);
+        return rs;
+    }
+
+    private ResultSet row(String kind, Long refId, Long tenantId, Integer version, String code, Boolean active)
+            throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("kind")).thenReturn(kind);
+        when(rs.getLong("ref_id")).thenReturn(refId);
+        when(rs.getObject("tenant_id")).thenReturn(tenantId);
+        when(rs.getLong("tenant_id")).thenReturn(tenantId == null ? 0L : tenantId);
+        when(rs.getObject("version")).thenReturn(version);
+        when(rs.getInt("version")).thenReturn(version == null ? 0 : version);
+        when(rs.getString("code")).thenReturn(code);
+        when(rs.getBoolean("active")).thenReturn(Boolean.TRUE.equals(active));
+        return rs;
+    }
+}
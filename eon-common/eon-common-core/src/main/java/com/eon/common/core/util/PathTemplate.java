@@ -0,0 +1,271 @@
+package com.eon.common.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 路径模板：解析为分段语法树后直接逐段匹配，不经过正则。
+ * <p>
+ * 支持的分段：
+ * <ul>
+ * <li>字面量：{@code /users}</li>
+ * <li>单段变量：{@code /:id}，匹配一个非空分段</li>
+ * <li>通配：{@code /**}，匹配零个或多个分段，只能位于末尾</li>
+ * <li>剩余路径变量：{@code /:path**}，匹配一个或多个分段并整体捕获，只能位于末尾</li>
+ * </ul>
+ * 同时可生成等价的规范正则（用于持久化 / 展示），用户服务与网关共用同一套匹配语义。
+ */
+public final class PathTemplate {
+
+	private static final String REGEX_META = "\\.[]{}()<>*+-=!?^$|";
+
+	private final String template;
+
+	private final List<Segment> segments;
+
+	private final List<String> variableNames;
+
+	private PathTemplate(String template, List<Segment> segments, List<String> variableNames) {
+		this.template = template;
+		this.segments = segments;
+		this.variableNames = variableNames;
+	}
+
+	/**
+	 * 解析并校验模板。
+	 * @param template 形如 {@code /users/:id}、{@code /files/:path**}
+	 * @throws IllegalArgumentException 模板不合法时
+	 */
+	public static PathTemplate parse(String template) {
+		if (template == null || template.isEmpty() || template.charAt(0) != '/') {
+			throw new IllegalArgumentException("路径模板必须以 / 开头: " + template);
+		}
+		List<Segment> segments = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		if (template.length() > 1) {
+			String[] parts = template.substring(1).split("/", -1);
+			for (int i = 0; i < parts.length; i++) {
+				Segment segment = parseSegment(template, parts[i]);
+				boolean last = i == parts.length - 1;
+				if (!last && (segment instanceof Wildcard || segment instanceof CatchAll)) {
+					throw new IllegalArgumentException("** 只能出现在模板末尾: " + template);
+				}
+				String name = segment instanceof Param p ? p.name() : segment instanceof CatchAll c ? c.name() : null;
+				if (name != null) {
+					if (!seen.add(name)) {
+						throw new IllegalArgumentException("路径变量重复: " + name + " in " + template);
+					}
+					names.add(name);
+				}
+				segments.add(segment);
+			}
+		}
+		return new PathTemplate(template, List.copyOf(segments), List.copyOf(names));
+	}
+
+	private static Segment parseSegment(String template, String part) {
+		if (part.isEmpty()) {
+			throw new IllegalArgumentException("路径模板包含空分段: " + template);
+		}
+		if ("**".equals(part)) {
+			return Wildcard.INSTANCE;
+		}
+		if (part.charAt(0) == ':') {
+			boolean catchAll = part.endsWith("**");
+			String name = part.substring(1, catchAll ? part.length() - 2 : part.length());
+			if (!isIdentifier(name)) {
+				throw new IllegalArgumentException("非法的路径变量名: " + part + " in " + template);
+			}
+			return catchAll ? new CatchAll(name) : new Param(name);
+		}
+		if (part.indexOf('*') >= 0 || part.indexOf(':') >= 0) {
+			throw new IllegalArgumentException("字面量分段不能包含 * 或 : : " + part + " in " + template);
+		}
+		return new Literal(part);
+	}
+
+	private static boolean isIdentifier(String name) {
+		if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!(Character.isLetterOrDigit(c) || c == '_')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 逐段匹配请求路径，不分配中间对象。
+	 */
+	public boolean matches(String path) {
+		return match(path, null);
+	}
+
+	/**
+	 * 匹配并提取路径变量。
+	 * @return 未匹配时为空；匹配时按模板顺序返回变量名 -> 值
+	 */
+	public Optional<Map<String, String>> extract(String path) {
+		Map<String, String> variables = variableNames.isEmpty() ? Collections.emptyMap() : new LinkedHashMap<>();
+		return match(path, variables) ? Optional.of(variables) : Optional.empty();
+	}
+
+	private boolean match(String path, Map<String, String> variables) {
+		if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+			return false;
+		}
+		int length = path.length();
+		if (segments.isEmpty()) {
+			return length == 1;
+		}
+		int pos = 0;
+		for (Segment segment : segments) {
+			if (segment instanceof Wildcard) {
+				// 剩余部分为空或以 / 开头即可
+				return true;
+			}
+			if (pos >= length || path.charAt(pos) != '/') {
+				return false;
+			}
+			int start = pos + 1;
+			if (segment instanceof CatchAll c) {
+				if (start >= length) {
+					return false;
+				}
+				if (variables != null) {
+					variables.put(c.name(), path.substring(start));
+				}
+				return true;
+			}
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = length;
+			}
+			if (segment instanceof Literal l) {
+				String text = l.text();
+				if (end - start != text.length() || !path.regionMatches(start, text, 0, text.length())) {
+					return false;
+				}
+			}
+			else if (segment instanceof Param p) {
+				if (end == start) {
+					return false;
+				}
+				if (variables != null) {
+					variables.put(p.name(), path.substring(start, end));
+				}
+			}
+			pos = end;
+		}
+		return pos == length;
+	}
+
+	/**
+	 * 规范正则：{@code /users/:id -> ^/users/[^/]+$}，{@code /orders/** -> ^/orders(?:/.*)?$}，
+	 * {@code /files/:path** -> ^/files/.+$}。
+	 */
+	public String toRegex() {
+		StringBuilder regex = new StringBuilder("^");
+		if (segments.isEmpty()) {
+			regex.append('/');
+		}
+		for (Segment segment : segments) {
+			if (segment instanceof Literal l) {
+				regex.append('/');
+				appendEscaped(regex, l.text());
+			}
+			else if (segment instanceof Param) {
+				regex.append("/[^/]+");
+			}
+			else if (segment instanceof CatchAll) {
+				regex.append("/.+");
+			}
+			else {
+				regex.append("(?:/.*)?");
+			}
+		}
+		return regex.append('$').toString();
+	}
+
+	private static void appendEscaped(StringBuilder regex, String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (REGEX_META.indexOf(c) >= 0) {
+				regex.append('\\');
+			}
+			regex.append(c);
+		}
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	public List<Segment> getSegments() {
+		return segments;
+	}
+
+	public List<String> getVariableNames() {
+		return variableNames;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || (o instanceof PathTemplate other && template.equals(other.template));
+	}
+
+	@Override
+	public int hashCode() {
+		return template.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	/**
+	 * 模板分段。
+	 */
+	public sealed interface Segment permits Literal, Param, Wildcard, CatchAll {
+
+	}
+
+	/**
+	 * 字面量分段，按字符精确匹配。
+	 */
+	public record Literal(String text) implements Segment {
+	}
+
+	/**
+	 * 单段变量 {@code :name}。
+	 */
+	public record Param(String name) implements Segment {
+	}
+
+	/**
+	 * 剩余路径变量 {@code :name**}。
+	 */
+	public record CatchAll(String name) implements Segment {
+	}
+
+	/**
+	 * 通配 {@code **}。
+	 */
+	public enum Wildcard implements Segment {
+
+		INSTANCE
+
+	}
+
+}
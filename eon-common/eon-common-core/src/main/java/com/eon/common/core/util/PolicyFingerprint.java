@@ -0,0 +1,42 @@
+package com.eon.common.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 策略指纹：由用户自身策略版本与所持角色的版本向量派生。
+ * <p>
+ * 角色权限变更只需提升该角色的版本，持有者的指纹随之变化，无需改写用户行。
+ * 认证服务签发令牌（pf 声明）与用户服务校验策略缓存使用同一算法。
+ */
+public final class PolicyFingerprint {
+
+	private PolicyFingerprint() {
+	}
+
+	/**
+	 * @param userVersion  users.policy_version，为空按 0 处理
+	 * @param roleVersions 角色 ID -> roles.policy_version
+	 * @return 16 位十六进制指纹
+	 */
+	public static String of(Integer userVersion, Map<Long, Integer> roleVersions) {
+		StringBuilder source = new StringBuilder("u").append(userVersion == null ? 0 : userVersion);
+		if (roleVersions != null) {
+			// 按角色 ID 排序，保证与查询顺序无关
+			new TreeMap<>(roleVersions).forEach((roleId, version) ->
+					source.append(";r").append(roleId).append(':').append(version == null ? 0 : version));
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 8);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 不可用", ex);
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.eon.common.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证路径模板解析、逐段匹配、变量提取，以及与规范正则语义一致。
+ */
+class PathTemplateTest {
+
+	@Test
+	void parse_should_build_typed_segments() {
+		PathTemplate template = PathTemplate.parse("/files/:bucket/:path**");
+
+		assertEquals(List.of(new PathTemplate.Literal("files"), new PathTemplate.Param("bucket"),
+				new PathTemplate.CatchAll("path")), template.getSegments());
+		assertEquals(List.of("bucket", "path"), template.getVariableNames());
+	}
+
+	@Test
+	void matches_should_follow_segment_semantics() {
+		PathTemplate user = PathTemplate.parse("/users/:id");
+		assertTrue(user.matches("/users/42"));
+		assertFalse(user.matches("/users"));
+		assertFalse(user.matches("/users/"));
+		assertFalse(user.matches("/users/42/roles"));
+		assertFalse(user.matches("/usersx/42"));
+
+		PathTemplate orders = PathTemplate.parse("/orders/**");
+		assertTrue(orders.matches("/orders"));
+		assertTrue(orders.matches("/orders/"));
+		assertTrue(orders.matches("/orders/1/items"));
+		assertFalse(orders.matches("/ordersx"));
+
+		PathTemplate files = PathTemplate.parse("/files/:path**");
+		assertTrue(files.matches("/files/a/b.txt"));
+		assertFalse(files.matches("/files"));
+		assertFalse(files.matches("/files/"));
+
+		assertTrue(PathTemplate.parse("/").matches("/"));
+		assertFalse(PathTemplate.parse("/").matches("/a"));
+	}
+
+	@Test
+	void extract_should_return_named_variables() {
+		Map<String, String> vars = PathTemplate.parse("/tenants/:tenantId/files/:path**")
+			.extract("/tenants/7/files/docs/a.pdf")
+			.orElseThrow();
+
+		assertEquals(Map.of("tenantId", "7", "path", "docs/a.pdf"), vars);
+		assertTrue(PathTemplate.parse("/users/:id").extract("/roles/1").isEmpty());
+	}
+
+	@Test
+	void toRegex_should_agree_with_matcher() {
+		assertEquals("^/users/[^/]+$", PathTemplate.parse("/users/:id").toRegex());
+		assertEquals("^/v1\\.0/files/.+$", PathTemplate.parse("/v1.0/files/:path**").toRegex());
+
+		String[] templates = { "/users/:id", "/orders/**", "/files/:path**", "/v1.0/a+b", "/" };
+		String[] paths = { "/", "/users/1", "/users/1/x", "/orders", "/orders/1/2", "/files/a/b", "/files/",
+				"/v1.0/a+b", "/v1x0/a+b" };
+		for (String t : templates) {
+			PathTemplate template = PathTemplate.parse(t);
+			Pattern regex = Pattern.compile(template.toRegex());
+			for (String path : paths) {
+				assertEquals(regex.matcher(path).matches(), template.matches(path), t + " vs " + path);
+			}
+		}
+	}
+
+	@Test
+	void parse_should_reject_invalid_templates() {
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("users"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/users//roles"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/**/users"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/files/:path**/x"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/users/:1id"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/a/:id/b/:id"));
+		assertThrows(IllegalArgumentException.class, () -> PathTemplate.parse("/a*b"));
+	}
+
+}
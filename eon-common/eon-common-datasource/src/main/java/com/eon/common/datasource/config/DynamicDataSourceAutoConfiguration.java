@@ -1,24 +1,44 @@
 package com.eon.common.datasource.config;
 
 import com.eon.common.datasource.properties.DynamicDataSourceProperties;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.InitMode;
 import com.eon.common.datasource.properties.DynamicDataSourceProperties.TargetDataSource;
 import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DataSourceWarmUp;
 import com.eon.common.datasource.support.DynamicDataSourceAspect;
 import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.InstrumentedDataSource;
+import com.eon.common.datasource.support.LazyTargetDataSource;
+import com.eon.common.datasource.support.ReadWriteRouter;
+import com.eon.common.datasource.support.ReadWriteRoutingAspect;
+import com.eon.common.datasource.support.ReadWriteRoutingMetrics;
+import com.eon.common.datasource.support.ReadWriteStickinessFilter;
+import com.eon.common.datasource.support.ReplicaHealthMonitor;
+import com.eon.common.datasource.support.StatementInstrumentation;
+import com.eon.common.datasource.support.StatementMetrics;
+import com.eon.common.datasource.support.TenantResolver;
+import com.eon.common.datasource.support.TenantShardRouter;
+import com.eon.common.datasource.support.UserContextTenantResolver;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -40,9 +60,59 @@ public class DynamicDataSourceAutoConfiguration {
     @Bean
     @Primary
     @ConditionalOnMissingBean(name = "dataSource")
-    public DataSource dynamicDataSource(DynamicDataSourceProperties properties, DataSourceContextHolder contextHolder) {
-        Map<String, DataSource> dataSourceMap = buildDataSources(properties);
-        return new DynamicRoutingDataSource(properties.getPrimary(), dataSourceMap, contextHolder);
+    public DataSource dynamicDataSource(DynamicDataSourceProperties properties, DataSourceContextHolder contextHolder,
+            ObjectProvider<TenantResolver> tenantResolver, ObjectProvider<StatementInstrumentation> instrumentation) {
+        Map<String, DataSource> dataSourceMap = buildDataSources(properties, instrumentation.getIfAvailable());
+        ReadWriteRouter readWriteRouter = null;
+        DynamicDataSourceProperties.ReadWrite readWrite = properties.getReadWrite();
+        if (readWrite.isEnabled()) {
+            ReplicaHealthMonitor healthMonitor = null;
+            if (readWrite.getHealth().isEnabled()) {
+                Map<String, DataSource> replicas = new LinkedHashMap<>();
+                readWrite.getReplicas().forEach(key -> replicas.put(key, dataSourceMap.get(key)));
+                healthMonitor = new ReplicaHealthMonitor(replicas, readWrite.getHealth());
+            }
+            readWriteRouter = new ReadWriteRouter(readWrite.getReplicas(), dataSourceMap,
+                    readWrite.getStrategy(), readWrite.getStickyWindow(), healthMonitor);
+        }
+        TenantShardRouter tenantShardRouter = null;
+        if (properties.getTenant().isEnabled()) {
+            tenantShardRouter = new TenantShardRouter(properties.getTenant(), dataSourceMap.keySet(),
+                    properties.getPrimary(), tenantResolver.getIfAvailable());
+        }
+        return new DynamicRoutingDataSource(properties.getPrimary(), dataSourceMap, contextHolder, readWriteRouter,
+                tenantShardRouter);
+    }
+
+    /**
+     * 引入 eon-common-security 时，租户取自网关透传并由 GatewayAuthContextFilter 写入的用户上下文。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "com.eon.common.security.context.UserContextHolder")
+    @ConditionalOnProperty(prefix = "eon.datasource.tenant", name = "enabled", havingValue = "true")
+    static class TenantResolverConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantResolver tenantResolver() {
+            return new UserContextTenantResolver();
+        }
+    }
+
+    /**
+     * init=WARM_UP 的数据源在 Web 容器启动前完成预热，就绪探针因此只会在连接可用后通过。
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public DataSourceWarmUp dataSourceWarmUp(DataSource dataSource, DynamicDataSourceProperties properties)
+            throws SQLException {
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        // 自定义了 dataSource Bean 时没有可预热的动态目标
+        if (dataSource.isWrapperFor(DynamicRoutingDataSource.class)) {
+            dataSource.unwrap(DynamicRoutingDataSource.class).getResolvedDataSources()
+                    .forEach((key, value) -> targets.put(String.valueOf(key), value));
+        }
+        return new DataSourceWarmUp(targets, properties.getTargets());
     }
 
     @Bean
@@ -51,17 +121,116 @@ public class DynamicDataSourceAutoConfiguration {
         return new DynamicDataSourceAspect(contextHolder, properties.isStrict(), properties.getTargets().keySet());
     }
 
-    private Map<String, DataSource> buildDataSources(DynamicDataSourceProperties properties) {
+    /**
+     * 读写分离相关组件，路由器随动态数据源一同创建，这里只负责暴露其切面、探测生命周期与指标。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "eon.datasource.read-write", name = "enabled", havingValue = "true")
+    static class ReadWriteConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReadWriteRoutingAspect readWriteRoutingAspect(DataSourceContextHolder contextHolder, DataSource dataSource)
+                throws SQLException {
+            return new ReadWriteRoutingAspect(contextHolder, router(dataSource));
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @ConditionalOnProperty(prefix = "eon.datasource.read-write.health", name = "enabled", havingValue = "true", matchIfMissing = true)
+        public ReplicaHealthMonitor replicaHealthMonitor(DataSource dataSource) throws SQLException {
+            return router(dataSource).getHealthMonitor();
+        }
+
+        static ReadWriteRouter router(DataSource dataSource) throws SQLException {
+            ReadWriteRouter router = dataSource.unwrap(DynamicRoutingDataSource.class).getReadWriteRouter();
+            if (router == null) {
+                throw new IllegalStateException("读写分离需要由 eon-common-datasource 创建的动态数据源");
+            }
+            return router;
+        }
+
+        /**
+         * 读己之写窗口按请求与客户端划分，作用域由过滤器在请求结束时关闭。
+         */
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+        @ConditionalOnClass(name = "org.springframework.web.filter.OncePerRequestFilter")
+        static class ReadWriteStickinessConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean(name = "readWriteStickinessFilterRegistration")
+            public FilterRegistrationBean<ReadWriteStickinessFilter> readWriteStickinessFilterRegistration(
+                    DataSource dataSource, DynamicDataSourceProperties properties) throws SQLException {
+                ReadWriteStickinessFilter filter = new ReadWriteStickinessFilter(router(dataSource),
+                        properties.getReadWrite().getClientHeader());
+                FilterRegistrationBean<ReadWriteStickinessFilter> registration = new FilterRegistrationBean<>(filter);
+                registration.setName("eonReadWriteStickinessFilter");
+                registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+                registration.addUrlPatterns("/*");
+                return registration;
+            }
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+        static class ReadWriteMetricsConfiguration {
+
+            @Bean
+            public ReadWriteRoutingMetrics readWriteRoutingMetrics(DataSource dataSource,
+                    DynamicDataSourceProperties properties) throws SQLException {
+                return new ReadWriteRoutingMetrics(router(dataSource), properties.getPrimary());
+            }
+        }
+    }
+
+    /**
+     * 语句级监控：目标数据源外层包装代理，记录 SQL 形态耗时、行数与慢 SQL。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "eon.datasource.instrumentation", name = "enabled", havingValue = "true")
+    static class InstrumentationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public StatementInstrumentation statementInstrumentation(DynamicDataSourceProperties properties) {
+            return new StatementInstrumentation(properties.getInstrumentation());
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+        static class StatementMetricsConfiguration {
+
+            @Bean
+            public StatementMetrics statementMetrics(StatementInstrumentation instrumentation,
+                    DynamicDataSourceProperties properties) {
+                return new StatementMetrics(instrumentation, properties.getInstrumentation().getMaxShapes());
+            }
+        }
+    }
+
+    private Map<String, DataSource> buildDataSources(DynamicDataSourceProperties properties,
+            StatementInstrumentation instrumentation) {
         if (CollectionUtils.isEmpty(properties.getTargets())) {
             throw new IllegalStateException("未检测到 eon.datasource.targets 配置，无法初始化动态数据源");
         }
         Map<String, DataSource> result = new LinkedHashMap<>();
-        properties.getTargets().forEach((name, definition) -> result.put(name, createDataSource(name, definition)));
+        properties.getTargets().forEach((name, definition) -> {
+            DataSource dataSource = createDataSource(name, definition);
+            result.put(name, instrumentation == null ? dataSource
+                    : new InstrumentedDataSource(name, dataSource, instrumentation));
+        });
         return result;
     }
 
     private DataSource createDataSource(String name, TargetDataSource definition) {
         validateDefinition(name, definition);
+        if (definition.getInit() == InitMode.LAZY) {
+            return new LazyTargetDataSource(name, () -> createHikariDataSource(name, definition));
+        }
+        return createHikariDataSource(name, definition);
+    }
+
+    private HikariDataSource createHikariDataSource(String name, TargetDataSource definition) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(definition.getUrl());
         config.setUsername(definition.getUsername());
@@ -70,6 +239,12 @@ public class DynamicDataSourceAutoConfiguration {
             config.setDriverClassName(definition.getDriverClassName());
         }
         definition.getPool().forEach(config::addDataSourceProperty);
+        if (definition.getMinimumIdle() != null) {
+            config.setMinimumIdle(definition.getMinimumIdle());
+        }
+        if (definition.getMaximumPoolSize() != null) {
+            config.setMaximumPoolSize(definition.getMaximumPoolSize());
+        }
         config.setPoolName("eon-" + name + "-pool");
         return new HikariDataSource(config);
     }
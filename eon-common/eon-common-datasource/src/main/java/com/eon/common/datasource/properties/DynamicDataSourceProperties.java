@@ -1,6 +1,9 @@
 package com.eon.common.datasource.properties;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -30,6 +33,21 @@ public class DynamicDataSourceProperties {
      */
     private Map<String, TargetDataSource> targets = new LinkedHashMap<>();
 
+    /**
+     * 读写分离配置。
+     */
+    private ReadWrite readWrite = new ReadWrite();
+
+    /**
+     * 租户分片路由配置。
+     */
+    private TenantRouting tenant = new TenantRouting();
+
+    /**
+     * 语句级监控配置。
+     */
+    private Instrumentation instrumentation = new Instrumentation();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -62,6 +80,339 @@ public class DynamicDataSourceProperties {
         this.targets = targets;
     }
 
+    public ReadWrite getReadWrite() {
+        return readWrite;
+    }
+
+    public void setReadWrite(ReadWrite readWrite) {
+        this.readWrite = readWrite;
+    }
+
+    public TenantRouting getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(TenantRouting tenant) {
+        this.tenant = tenant;
+    }
+
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * 副本选择策略。
+     */
+    public enum LoadBalanceStrategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    /**
+     * 读写分离：只读事务路由到副本，写操作始终走主库。
+     */
+    public static class ReadWrite {
+
+        /**
+         * 是否启用（需显式开启）。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 副本数据源标识，需在 targets 中声明。
+         */
+        private List<String> replicas = new ArrayList<>();
+
+        private LoadBalanceStrategy strategy = LoadBalanceStrategy.ROUND_ROBIN;
+
+        /**
+         * 读己之写窗口：请求或同一客户端写入后，该时间内的只读事务仍走主库。
+         */
+        private Duration stickyWindow = Duration.ofSeconds(2);
+
+        /**
+         * 识别客户端的请求头（由网关根据令牌写入），为空时窗口仅限写入所在的请求。
+         */
+        private String clientHeader = "X-User-Id";
+
+        /**
+         * 副本健康与复制延迟探测。
+         */
+        private HealthCheck health = new HealthCheck();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<String> replicas) {
+            this.replicas = replicas;
+        }
+
+        public LoadBalanceStrategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(LoadBalanceStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public Duration getStickyWindow() {
+            return stickyWindow;
+        }
+
+        public void setStickyWindow(Duration stickyWindow) {
+            this.stickyWindow = stickyWindow;
+        }
+
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        public void setClientHeader(String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+
+        public HealthCheck getHealth() {
+            return health;
+        }
+
+        public void setHealth(HealthCheck health) {
+            this.health = health;
+        }
+    }
+
+    /**
+     * 副本后台探测：不可用或延迟超限的副本暂时移出路由，全部不可用时回退主库。
+     */
+    public static class HealthCheck {
+
+        /**
+         * 是否启用（开启读写分离时默认启用）。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 探测间隔。
+         */
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * 单次探测的连接校验与查询超时。
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * 允许的最大复制延迟，超过即移出路由。
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * 复制延迟查询，为空时只做连通性检查；默认适用于 MySQL 8.0.22+。
+         */
+        private String lagQuery = "SHOW REPLICA STATUS";
+
+        /**
+         * 延迟（秒）所在列，为空时取第一列；值为 NULL 表示复制已中断。
+         */
+        private String lagColumn = "Seconds_Behind_Source";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public String getLagColumn() {
+            return lagColumn;
+        }
+
+        public void setLagColumn(String lagColumn) {
+            this.lagColumn = lagColumn;
+        }
+    }
+
+    /**
+     * 租户分片：按当前用户的租户选择物理数据源，显式指定的数据源（{@code @UseDataSource}）优先。
+     * 解析顺序：显式映射 → 哈希分片 → 全局数据源。
+     */
+    public static class TenantRouting {
+
+        /**
+         * 是否启用（需显式开启）。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 无租户（tenant_id IS NULL）请求及未命中分片时使用的数据源，为空时使用主库。
+         * 全局目录（公共角色、权限、菜单等）以此数据源为准，各分片需保留副本。
+         */
+        private String globalTarget;
+
+        /**
+         * 租户到数据源的显式映射，用于独占分片的大租户。
+         */
+        private Map<Long, String> mapping = new LinkedHashMap<>();
+
+        /**
+         * 其余租户按哈希槽区间均分到这些数据源，为空时落到全局数据源。
+         */
+        private List<String> shards = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getGlobalTarget() {
+            return globalTarget;
+        }
+
+        public void setGlobalTarget(String globalTarget) {
+            this.globalTarget = globalTarget;
+        }
+
+        public Map<Long, String> getMapping() {
+            return mapping;
+        }
+
+        public void setMapping(Map<Long, String> mapping) {
+            this.mapping = mapping;
+        }
+
+        public List<String> getShards() {
+            return shards;
+        }
+
+        public void setShards(List<String> shards) {
+            this.shards = shards;
+        }
+    }
+
+    /**
+     * 语句级监控：按归一化后的 SQL 形态记录耗时与返回行数，超过阈值的语句输出慢 SQL 日志。
+     */
+    public static class Instrumentation {
+
+        /**
+         * 是否启用（需显式开启）。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 慢 SQL 阈值。
+         */
+        private Duration slowThreshold = Duration.ofMillis(500);
+
+        /**
+         * 指标中允许的 SQL 形态数量上限，超出部分归入 other，防止指标基数膨胀。
+         */
+        private int maxShapes = 100;
+
+        /**
+         * 慢 SQL 日志读取链路标识的 MDC 键名，与 eon.logging.trace.mdc-key 保持一致。
+         */
+        private String traceIdMdcKey = "traceId";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public int getMaxShapes() {
+            return maxShapes;
+        }
+
+        public void setMaxShapes(int maxShapes) {
+            this.maxShapes = maxShapes;
+        }
+
+        public String getTraceIdMdcKey() {
+            return traceIdMdcKey;
+        }
+
+        public void setTraceIdMdcKey(String traceIdMdcKey) {
+            this.traceIdMdcKey = traceIdMdcKey;
+        }
+    }
+
+    /**
+     * 连接池初始化方式。
+     */
+    public enum InitMode {
+        /**
+         * 启动时创建连接池，连接在首个请求时建立（默认）。
+         */
+        EAGER,
+        /**
+         * 首次取连接时才创建连接池，适合很少使用的数据源，加快启动。
+         */
+        LAZY,
+        /**
+         * 启动时预建 minimum-idle 个连接并执行校验查询，完成前应用不会就绪。
+         */
+        WARM_UP
+    }
+
     /**
      * 单个数据源的连接配置。
      */
@@ -73,6 +424,28 @@ public class DynamicDataSourceProperties {
         private String password;
         private Map<String, String> pool = new LinkedHashMap<>();
 
+        private InitMode init = InitMode.EAGER;
+
+        /**
+         * 连接池最小空闲连接数，为空时沿用 HikariCP 默认值。
+         */
+        private Integer minimumIdle;
+
+        /**
+         * 连接池最大连接数，为空时沿用 HikariCP 默认值。
+         */
+        private Integer maximumPoolSize;
+
+        /**
+         * 预热时执行的校验查询，为空时使用 JDBC4 {@code Connection#isValid}。
+         */
+        private String validationQuery;
+
+        /**
+         * 预热等待上限，超时后记录告警并继续启动。
+         */
+        private Duration warmUpTimeout = Duration.ofSeconds(10);
+
         public String getDriverClassName() {
             return driverClassName;
         }
@@ -112,5 +485,45 @@ public class DynamicDataSourceProperties {
         public void setPool(Map<String, String> pool) {
             this.pool = pool;
         }
+
+        public InitMode getInit() {
+            return init;
+        }
+
+        public void setInit(InitMode init) {
+            this.init = init;
+        }
+
+        public Integer getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(Integer minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public String getValidationQuery() {
+            return validationQuery;
+        }
+
+        public void setValidationQuery(String validationQuery) {
+            this.validationQuery = validationQuery;
+        }
+
+        public Duration getWarmUpTimeout() {
+            return warmUpTimeout;
+        }
+
+        public void setWarmUpTimeout(Duration warmUpTimeout) {
+            this.warmUpTimeout = warmUpTimeout;
+        }
     }
 }
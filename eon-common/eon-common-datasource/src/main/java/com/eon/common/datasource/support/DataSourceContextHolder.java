@@ -1,19 +1,18 @@
 package com.eon.common.datasource.support;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Optional;
 
 /**
  * ThreadLocal 维护当前数据源栈，支持嵌套调用。
+ * 栈以不可变链表节点表示：入栈只分配一个节点，出栈回到父节点，栈空时移除 ThreadLocal。
  */
 public class DataSourceContextHolder {
 
-    private final ThreadLocal<Deque<String>> holder = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<Frame> holder = new ThreadLocal<>();
 
     public void push(String key) {
         if (key != null) {
-            holder.get().push(key);
+            holder.set(new Frame(key, holder.get()));
         }
     }
 
@@ -21,17 +20,32 @@ public class DataSourceContextHolder {
         holder.remove();
     }
 
+    /**
+     * 热路径使用：不包装 Optional。
+     *
+     * @return 栈顶数据源标识，栈空时为 null
+     */
+    public String current() {
+        Frame frame = holder.get();
+        return frame == null ? null : frame.key;
+    }
+
     public Optional<String> peek() {
-        return Optional.ofNullable(holder.get().peek());
+        return Optional.ofNullable(current());
     }
 
     public void pop() {
-        Deque<String> deque = holder.get();
-        if (!deque.isEmpty()) {
-            deque.pop();
+        Frame frame = holder.get();
+        if (frame == null) {
+            return;
         }
-        if (deque.isEmpty()) {
+        if (frame.parent == null) {
             holder.remove();
+        } else {
+            holder.set(frame.parent);
         }
     }
+
+    private record Frame(String key, Frame parent) {
+    }
 }
@@ -0,0 +1,135 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.InitMode;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TargetDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.StringUtils;
+
+/**
+ * 连接池预热：在 Web 容器启动（及就绪探针通过）之前，为 init=WARM_UP 的数据源执行校验查询，
+ * 并等待连接池补足 minimumIdle 个连接，避免发布后的首批请求承担建连与认证开销。
+ * 各数据源并行预热，超时只记录告警，不阻止启动。
+ * 生命周期阶段低于 Web 容器的启动阶段，保证容器开始接收流量前预热已结束。
+ */
+public class DataSourceWarmUp implements SmartLifecycle {
+
+    /**
+     * Web 容器启动阶段：WebServerStartStopLifecycle 位于优雅停机阶段之前 1024。
+     */
+    static final int WEB_SERVER_START_PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+
+    /**
+     * 早于 Web 容器启动，关闭时晚于其停止。
+     */
+    public static final int PHASE = WEB_SERVER_START_PHASE - 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceWarmUp.class);
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, TargetDataSource> definitions;
+    private volatile boolean running;
+
+    public DataSourceWarmUp(Map<String, DataSource> dataSources, Map<String, TargetDataSource> definitions) {
+        this.dataSources = dataSources;
+        this.definitions = definitions;
+    }
+
+    @Override
+    public void start() {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        definitions.forEach((name, definition) -> {
+            DataSource dataSource = dataSources.get(name);
+            if (dataSource != null && definition.getInit() == InitMode.WARM_UP) {
+                tasks.add(CompletableFuture.runAsync(() -> warmUp(name, dataSource, definition)));
+            }
+        });
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        running = true;
+    }
+
+    void warmUp(String name, DataSource dataSource, TargetDataSource definition) {
+        long started = System.nanoTime();
+        long deadline = started + definition.getWarmUpTimeout().toNanos();
+        try {
+            validate(dataSource, definition);
+            int ready = awaitMinimumIdle(dataSource, deadline);
+            log.info("数据源 {} 预热完成：connections={}, elapsed={}ms", name, ready,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (SQLException | RuntimeException e) {
+            log.warn("数据源 {} 预热失败，将在首次请求时建立连接: {}", name, e.getMessage());
+        }
+    }
+
+    private void validate(DataSource dataSource, TargetDataSource definition) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            int timeoutSeconds = (int) Math.max(1, definition.getWarmUpTimeout().toSeconds());
+            if (!StringUtils.hasText(definition.getValidationQuery())) {
+                if (!connection.isValid(timeoutSeconds)) {
+                    throw new SQLException("连接校验未通过");
+                }
+                return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                statement.execute(definition.getValidationQuery());
+            }
+        }
+    }
+
+    /**
+     * HikariCP 由后台线程补足空闲连接，这里轮询等待其达到 minimumIdle。
+     *
+     * @return 结束等待时的连接总数，非 HikariCP 数据源返回 1（即校验使用的连接）
+     */
+    private int awaitMinimumIdle(DataSource dataSource, long deadline) {
+        HikariDataSource hikari = HikariDataSources.resolve(dataSource);
+        if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+            return 1;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int target = hikari.getMinimumIdle();
+        while (pool.getTotalConnections() < target && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (pool.getTotalConnections() < target) {
+            log.warn("数据源 {} 预热超时：connections={}, minimumIdle={}", hikari.getPoolName(),
+                    pool.getTotalConnections(), target);
+        }
+        return pool.getTotalConnections();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
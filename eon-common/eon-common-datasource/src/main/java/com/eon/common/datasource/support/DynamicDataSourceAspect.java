@@ -1,7 +1,10 @@
 package com.eon.common.datasource.support;
 
 import com.eon.common.datasource.annotation.UseDataSource;
+import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,12 +12,14 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 
 /**
  * 基于注解的切面，进入方法前推入目标数据源，执行完成后弹出。
+ * 注解解析结果按 (Method, targetClass) 缓存，每个方法只反射查找一次。
  */
 @Aspect
 @Order(Ordered.HIGHEST_PRECEDENCE + 100)
@@ -23,6 +28,7 @@ public class DynamicDataSourceAspect {
     private final DataSourceContextHolder contextHolder;
     private final boolean strict;
     private final Set<String> availableKeys;
+    private final Map<MethodClassKey, String> targetKeyCache = new ConcurrentHashMap<>(256);
     private final Logger log = LoggerFactory.getLogger(DynamicDataSourceAspect.class);
 
     public DynamicDataSourceAspect(DataSourceContextHolder contextHolder, boolean strict, Set<String> availableKeys) {
@@ -33,11 +39,10 @@ public class DynamicDataSourceAspect {
 
     @Around("@annotation(com.eon.common.datasource.annotation.UseDataSource) || @within(com.eon.common.datasource.annotation.UseDataSource)")
     public Object switchDataSource(ProceedingJoinPoint joinPoint) throws Throwable {
-        UseDataSource useDataSource = resolveAnnotation(joinPoint);
-        if (useDataSource == null) {
+        String targetKey = resolveTargetKey(joinPoint);
+        if (targetKey.isEmpty()) {
             return joinPoint.proceed();
         }
-        String targetKey = useDataSource.value();
         if (!availableKeys.contains(targetKey)) {
             if (strict) {
                 throw new IllegalStateException("未找到名称为 " + targetKey + " 的数据源");
@@ -53,15 +58,24 @@ public class DynamicDataSourceAspect {
         }
     }
 
-    private UseDataSource resolveAnnotation(ProceedingJoinPoint joinPoint) {
+    /**
+     * @return 目标数据源标识，未声明注解时为空串（ConcurrentHashMap 不接受 null 值）
+     */
+    private String resolveTargetKey(ProceedingJoinPoint joinPoint) {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        UseDataSource methodAnno = AnnotationUtils.findAnnotation(signature.getMethod(), UseDataSource.class);
-        if (methodAnno != null) {
-            return methodAnno;
-        }
+        Method method = signature.getMethod();
         Class<?> targetClass = joinPoint.getTarget() != null
                 ? AopProxyUtils.ultimateTargetClass(joinPoint.getTarget())
                 : signature.getDeclaringType();
-        return AnnotationUtils.findAnnotation(targetClass, UseDataSource.class);
+        return targetKeyCache.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> resolveAnnotation(method, targetClass));
+    }
+
+    private String resolveAnnotation(Method method, Class<?> targetClass) {
+        UseDataSource annotation = AnnotationUtils.findAnnotation(method, UseDataSource.class);
+        if (annotation == null) {
+            annotation = AnnotationUtils.findAnnotation(targetClass, UseDataSource.class);
+        }
+        return annotation == null ? "" : annotation.value();
     }
 }
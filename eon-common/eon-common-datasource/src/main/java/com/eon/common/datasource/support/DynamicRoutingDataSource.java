@@ -1,29 +1,51 @@
 package com.eon.common.datasource.support;
 
+import java.io.Closeable;
 import java.util.Map;
 import java.util.Objects;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 /**
  * 基于 {@link AbstractRoutingDataSource} 的简单实现，结合上下文选择数据源。
+ * 目标连接池不是独立的 Spring Bean，随本数据源关闭（容器按推断的 close 方法调用）。
  */
-public class DynamicRoutingDataSource extends AbstractRoutingDataSource {
+public class DynamicRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(DynamicRoutingDataSource.class);
 
     private final String primaryKey;
     private final DataSourceContextHolder contextHolder;
+    private final ReadWriteRouter readWriteRouter;
+    private final TenantShardRouter tenantShardRouter;
 
     public DynamicRoutingDataSource(String primaryKey, Map<String, DataSource> targetDataSources,
             DataSourceContextHolder contextHolder) {
+        this(primaryKey, targetDataSources, contextHolder, null, null);
+    }
+
+    public DynamicRoutingDataSource(String primaryKey, Map<String, DataSource> targetDataSources,
+            DataSourceContextHolder contextHolder, ReadWriteRouter readWriteRouter) {
+        this(primaryKey, targetDataSources, contextHolder, readWriteRouter, null);
+    }
+
+    /**
+     * @param readWriteRouter   读写分离路由，为空表示未启用
+     * @param tenantShardRouter 租户分片路由，为空表示未启用
+     */
+    public DynamicRoutingDataSource(String primaryKey, Map<String, DataSource> targetDataSources,
+            DataSourceContextHolder contextHolder, ReadWriteRouter readWriteRouter,
+            TenantShardRouter tenantShardRouter) {
         if (targetDataSources == null || targetDataSources.isEmpty()) {
             throw new IllegalArgumentException("targetDataSources 不能为空");
         }
         this.primaryKey = Objects.requireNonNull(primaryKey, "primaryKey");
         this.contextHolder = contextHolder;
+        this.readWriteRouter = readWriteRouter;
+        this.tenantShardRouter = tenantShardRouter;
         super.setTargetDataSources(new java.util.LinkedHashMap<>(targetDataSources));
         DataSource defaultDataSource = targetDataSources.get(primaryKey);
         if (defaultDataSource == null) {
@@ -34,8 +56,52 @@ public class DynamicRoutingDataSource extends AbstractRoutingDataSource {
         super.afterPropertiesSet();
     }
 
+    /**
+     * 显式指定的数据源优先；否则按租户分片（未启用时为主库）确定基准数据源，
+     * 只读意图仅在基准为主库时路由到副本（副本只复制主库）。
+     */
     @Override
     protected Object determineCurrentLookupKey() {
-        return contextHolder.peek().orElse(primaryKey);
+        String key = contextHolder.current();
+        if (key != null && !ReadWriteRouter.READ_INTENT.equals(key)) {
+            return key;
+        }
+        String base = tenantShardRouter != null ? tenantShardRouter.currentTarget() : primaryKey;
+        if (key != null && readWriteRouter != null && primaryKey.equals(base)) {
+            return readWriteRouter.route(primaryKey);
+        }
+        return base;
+    }
+
+    public ReadWriteRouter getReadWriteRouter() {
+        return readWriteRouter;
+    }
+
+    public TenantShardRouter getTenantShardRouter() {
+        return tenantShardRouter;
+    }
+
+    /**
+     * 关闭全部目标连接池；延迟数据源只关闭已创建的连接池，单个失败不影响其余。
+     */
+    @Override
+    public void close() {
+        getResolvedDataSources().forEach((key, dataSource) -> {
+            try {
+                close(dataSource);
+            } catch (Exception e) {
+                log.warn("关闭数据源 {} 失败: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource delegating) {
+            current = delegating.getTargetDataSource();
+        }
+        if (current instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
     }
 }
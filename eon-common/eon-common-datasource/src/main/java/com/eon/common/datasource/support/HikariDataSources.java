@@ -0,0 +1,31 @@
+package com.eon.common.datasource.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 从包装后的目标数据源中找出 HikariCP 连接池，不会触发延迟数据源的初始化。
+ */
+final class HikariDataSources {
+
+    private HikariDataSources() {
+    }
+
+    static HikariDataSource resolve(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current != null) {
+            if (current instanceof HikariDataSource hikari) {
+                return hikari;
+            }
+            if (current instanceof LazyTargetDataSource lazy) {
+                current = lazy.getTargetIfInitialized();
+            } else if (current instanceof DelegatingDataSource delegating) {
+                current = delegating.getTargetDataSource();
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.eon.common.datasource.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 语句级监控代理：以 JDK 动态代理包装 Connection / Statement / ResultSet，
+ * 记录每次 execute* 的耗时与结果集实际读取的行数，交由 {@link StatementInstrumentation} 处理。
+ * 对 JPA（PreparedStatement）与 JdbcTemplate 均透明。
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final StatementInstrumentation instrumentation;
+
+    public InstrumentedDataSource(String name, DataSource target, StatementInstrumentation instrumentation) {
+        super(target);
+        this.name = name;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * 事务同步等处会比较连接对象，equals / hashCode 保持代理自身的同一性。
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 && proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        // PreparedStatement 的 SQL 在创建时确定；普通 Statement 取 execute / addBatch 传入的 SQL
+        private String sql;
+        // 直接关闭 Statement 时结果集随之关闭，需要补报行数
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String methodName = method.getName();
+            if ("close".equals(methodName) && openResultSet != null) {
+                openResultSet.report();
+            }
+            if ("addBatch".equals(methodName) && args != null && args.length > 0 && args[0] instanceof String batchSql) {
+                sql = batchSql;
+            }
+            if (methodName.startsWith("execute")) {
+                if (args != null && args.length > 0 && args[0] instanceof String executed) {
+                    sql = executed;
+                }
+                long started = System.nanoTime();
+                boolean failed = true;
+                try {
+                    Object result = InstrumentedDataSource.invoke(target, method, args);
+                    failed = false;
+                    return result instanceof ResultSet rs ? wrapResultSet(rs) : result;
+                } finally {
+                    instrumentation.afterExecute(name, sql, System.nanoTime() - started, failed);
+                }
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if ("getResultSet".equals(methodName) && result instanceof ResultSet rs) {
+                return wrapResultSet(rs);
+            }
+            return result;
+        }
+
+        private ResultSet wrapResultSet(ResultSet rs) {
+            if (openResultSet != null) {
+                openResultSet.report();
+            }
+            openResultSet = new ResultSetHandler(rs, sql);
+            return proxy(ResultSet.class, openResultSet);
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            String methodName = method.getName();
+            if ("next".equals(methodName)) {
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                }
+            } else if ("close".equals(methodName)) {
+                report();
+            }
+            return result;
+        }
+
+        void report() {
+            if (!reported) {
+                reported = true;
+                instrumentation.afterRead(name, sql, rows);
+            }
+        }
+    }
+}
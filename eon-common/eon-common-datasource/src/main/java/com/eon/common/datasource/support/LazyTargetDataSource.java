@@ -0,0 +1,113 @@
+package com.eon.common.datasource.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * 延迟创建的数据源：首次取连接时才构建真实连接池，此前不占用线程与数据库连接。
+ * unwrap / isWrapperFor 只探查已创建的连接池，不触发初始化；关闭时只关闭已创建的连接池。
+ */
+public class LazyTargetDataSource implements DataSource, Closeable {
+
+    private final String name;
+    private final Supplier<? extends DataSource> factory;
+    private volatile DataSource target;
+
+    public LazyTargetDataSource(String name, Supplier<? extends DataSource> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * @return 真实数据源，尚未创建时为 null
+     */
+    public DataSource getTargetIfInitialized() {
+        return target;
+    }
+
+    private DataSource target() {
+        DataSource current = target;
+        if (current == null) {
+            synchronized (this) {
+                current = target;
+                if (current == null) {
+                    current = factory.get();
+                    target = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target().setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target().setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target().getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        DataSource current = target;
+        if (current == null) {
+            throw new SQLException("数据源 " + name + " 尚未初始化，无法解包为 " + iface.getName());
+        }
+        return current.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        DataSource current = target;
+        return iface.isInstance(this) || (current != null && current.isWrapperFor(iface));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (target instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazyTargetDataSource[" + name + (target == null ? ", uninitialized]" : "]");
+    }
+}
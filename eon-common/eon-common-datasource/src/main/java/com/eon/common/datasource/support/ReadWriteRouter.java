@@ -0,0 +1,235 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.LoadBalanceStrategy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+
+/**
+ * 读写分离路由：为只读事务在副本间选择目标，并维护读己之写窗口。
+ * 配置了 {@link ReplicaHealthMonitor} 时跳过不可用副本，全部不可用则回退主库。
+ * <p>
+ * 读己之写窗口按请求与客户端记录而非按线程：{@link ReadWriteStickinessFilter} 为每个请求打开 {@link Scope}，
+ * 写入同时记在请求与客户端标识上，同一客户端后续请求无论落在哪个工作线程都在窗口内走主库；
+ * 请求结束即关闭作用域，复用该线程的其他请求不受影响。未打开作用域的线程（定时任务等）不记录写入。
+ * 客户端窗口只保存在本实例内存中，多实例部署时需网关按客户端粘滞路由才能跨请求生效。
+ */
+public class ReadWriteRouter {
+
+    /**
+     * 上下文中的只读意图标记，由 {@link DynamicRoutingDataSource} 在取连接时解析为具体副本。
+     */
+    public static final String READ_INTENT = "#read";
+
+    private static final long MAXIMUM_CLIENTS = 100_000;
+
+    private final List<String> replicas;
+    private final Map<String, DataSource> dataSources;
+    private final LoadBalanceStrategy strategy;
+    private final long stickyWindowNanos;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final Ticker ticker;
+    private final Cache<String, Long> clientWrites;
+    private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+    private final ReplicaHealthMonitor healthMonitor;
+    private final Map<String, LongAdder> replicaDecisions = new LinkedHashMap<>();
+    private final LongAdder stickyDecisions = new LongAdder();
+    private final LongAdder fallbackDecisions = new LongAdder();
+
+    public ReadWriteRouter(List<String> replicas, Map<String, DataSource> dataSources,
+            LoadBalanceStrategy strategy, Duration stickyWindow) {
+        this(replicas, dataSources, strategy, stickyWindow, null);
+    }
+
+    /**
+     * @param healthMonitor 副本健康探测，为空表示所有副本始终可用
+     */
+    public ReadWriteRouter(List<String> replicas, Map<String, DataSource> dataSources,
+            LoadBalanceStrategy strategy, Duration stickyWindow, ReplicaHealthMonitor healthMonitor) {
+        this(replicas, dataSources, strategy, stickyWindow, healthMonitor, Ticker.systemTicker());
+    }
+
+    ReadWriteRouter(List<String> replicas, Map<String, DataSource> dataSources, LoadBalanceStrategy strategy,
+            Duration stickyWindow, ReplicaHealthMonitor healthMonitor, Ticker ticker) {
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalStateException("启用读写分离时 eon.datasource.read-write.replicas 不能为空");
+        }
+        for (String replica : replicas) {
+            if (!dataSources.containsKey(replica)) {
+                throw new IllegalStateException("副本 " + replica + " 未在 eon.datasource.targets 中声明");
+            }
+        }
+        this.replicas = List.copyOf(replicas);
+        this.dataSources = dataSources;
+        this.strategy = strategy == null ? LoadBalanceStrategy.ROUND_ROBIN : strategy;
+        this.stickyWindowNanos = stickyWindow == null ? 0 : stickyWindow.toNanos();
+        this.healthMonitor = healthMonitor;
+        this.ticker = ticker;
+        this.clientWrites = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_CLIENTS)
+                .expireAfterWrite(Duration.ofNanos(stickyWindowNanos))
+                .ticker(ticker)
+                .build();
+        this.replicas.forEach(replica -> replicaDecisions.put(replica, new LongAdder()));
+    }
+
+    /**
+     * 解析只读意图：处于读己之写窗口内返回主库，否则按策略选择可用副本，无可用副本时返回主库。
+     */
+    public String route(String primaryKey) {
+        if (withinStickyWindow()) {
+            stickyDecisions.increment();
+            return primaryKey;
+        }
+        String replica = strategy == LoadBalanceStrategy.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+        if (replica == null) {
+            fallbackDecisions.increment();
+            return primaryKey;
+        }
+        replicaDecisions.get(replica).increment();
+        return replica;
+    }
+
+    /**
+     * 在当前线程打开读己之写作用域，须在 finally 中关闭；已有作用域时嵌套打开，关闭后恢复外层。
+     *
+     * @param clientKey 客户端标识，为空时窗口仅限本次请求
+     */
+    public Scope openScope(String clientKey) {
+        Scope opened = new Scope(clientKey, scope.get());
+        scope.set(opened);
+        return opened;
+    }
+
+    /**
+     * 记录当前作用域的一次写入；没有作用域时忽略。
+     */
+    public void markWrite() {
+        Scope current = scope.get();
+        if (current == null || stickyWindowNanos <= 0) {
+            return;
+        }
+        long now = ticker.read();
+        current.lastWrite = now;
+        if (current.clientKey != null) {
+            clientWrites.put(current.clientKey, now);
+        }
+    }
+
+    boolean withinStickyWindow() {
+        Scope current = scope.get();
+        if (current == null || stickyWindowNanos <= 0) {
+            return false;
+        }
+        long now = ticker.read();
+        if (current.lastWrite != Long.MIN_VALUE && now - current.lastWrite < stickyWindowNanos) {
+            return true;
+        }
+        Long clientWrite = current.clientKey == null ? null : clientWrites.getIfPresent(current.clientKey);
+        return clientWrite != null && now - clientWrite < stickyWindowNanos;
+    }
+
+    public List<String> getReplicas() {
+        return replicas;
+    }
+
+    public ReplicaHealthMonitor getHealthMonitor() {
+        return healthMonitor;
+    }
+
+    /**
+     * @return 路由到指定副本的累计次数
+     */
+    public long getReplicaDecisions(String replica) {
+        LongAdder adder = replicaDecisions.get(replica);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * @return 因读己之写窗口留在主库的累计次数
+     */
+    public long getStickyDecisions() {
+        return stickyDecisions.sum();
+    }
+
+    /**
+     * @return 因无可用副本回退主库的累计次数
+     */
+    public long getFallbackDecisions() {
+        return fallbackDecisions.sum();
+    }
+
+    private boolean isAvailable(String replica) {
+        return healthMonitor == null || healthMonitor.isAvailable(replica);
+    }
+
+    private String roundRobin() {
+        int offset = cursor.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = replicas.get(Math.floorMod(offset + i, replicas.size()));
+            if (isAvailable(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private String leastConnections() {
+        String best = null;
+        int bestActive = Integer.MAX_VALUE;
+        // 从轮询位置开始比较，活跃连接数相同时仍能均匀分布
+        int offset = cursor.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = replicas.get(Math.floorMod(offset + i, replicas.size()));
+            if (!isAvailable(key)) {
+                continue;
+            }
+            int active = activeConnections(dataSources.get(key));
+            if (active < bestActive) {
+                best = key;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private int activeConnections(DataSource dataSource) {
+        HikariDataSource hikari = HikariDataSources.resolve(dataSource);
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        // 尚未初始化的连接池视为空闲
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    /**
+     * 一次请求的读己之写作用域。
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final String clientKey;
+        private final Scope outer;
+        private long lastWrite = Long.MIN_VALUE;
+
+        private Scope(String clientKey, Scope outer) {
+            this.clientKey = clientKey;
+            this.outer = outer;
+        }
+
+        @Override
+        public void close() {
+            if (outer == null) {
+                scope.remove();
+            } else {
+                scope.set(outer);
+            }
+        }
+    }
+}
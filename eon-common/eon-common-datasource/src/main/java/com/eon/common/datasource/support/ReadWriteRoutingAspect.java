@@ -0,0 +1,66 @@
+package com.eon.common.datasource.support;
+
+import java.lang.reflect.Method;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离切面：在事务拦截器之前执行（事务开启时即获取连接，此时只读标记尚未写入同步管理器），
+ * 最外层只读事务推入只读意图，写事务结束后记录写入时间供读己之写使用。
+ * 已显式指定数据源或已处于事务中时不做处理。
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 200)
+public class ReadWriteRoutingAspect {
+
+    private final DataSourceContextHolder contextHolder;
+    private final ReadWriteRouter router;
+    private final TransactionAttributeSource attributeSource = new AnnotationTransactionAttributeSource();
+
+    public ReadWriteRoutingAspect(DataSourceContextHolder contextHolder, ReadWriteRouter router) {
+        this.contextHolder = contextHolder;
+        this.router = router;
+    }
+
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional) || @within(org.springframework.transaction.annotation.Transactional)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || contextHolder.current() != null) {
+            return joinPoint.proceed();
+        }
+        TransactionAttribute attribute = resolveAttribute(joinPoint);
+        if (attribute == null) {
+            return joinPoint.proceed();
+        }
+        if (attribute.isReadOnly()) {
+            contextHolder.push(ReadWriteRouter.READ_INTENT);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                contextHolder.pop();
+            }
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            router.markWrite();
+        }
+    }
+
+    private TransactionAttribute resolveAttribute(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() != null
+                ? AopProxyUtils.ultimateTargetClass(joinPoint.getTarget())
+                : method.getDeclaringClass();
+        // AnnotationTransactionAttributeSource 内部按 (Method, targetClass) 缓存解析结果
+        return attributeSource.getTransactionAttribute(method, targetClass);
+    }
+}
@@ -0,0 +1,58 @@
+package com.eon.common.datasource.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 读写分离指标：
+ * <ul>
+ *     <li>{@code eon.datasource.routing}：只读意图的路由结果，按 target / reason（replica、sticky、fallback）区分</li>
+ *     <li>{@code eon.datasource.replica.available}：副本当前是否参与路由（1/0）</li>
+ *     <li>{@code eon.datasource.replica.exclusions}：副本被移出路由的次数</li>
+ *     <li>{@code eon.datasource.replica.lag}：最近一次探测到的复制延迟（秒）</li>
+ * </ul>
+ */
+public class ReadWriteRoutingMetrics implements MeterBinder {
+
+    private final ReadWriteRouter router;
+    private final String primaryKey;
+
+    public ReadWriteRoutingMetrics(ReadWriteRouter router, String primaryKey) {
+        this.router = router;
+        this.primaryKey = primaryKey;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        routingCounter(registry, primaryKey, "sticky", ReadWriteRouter::getStickyDecisions);
+        routingCounter(registry, primaryKey, "fallback", ReadWriteRouter::getFallbackDecisions);
+        ReplicaHealthMonitor monitor = router.getHealthMonitor();
+        for (String replica : router.getReplicas()) {
+            routingCounter(registry, replica, "replica", r -> r.getReplicaDecisions(replica));
+            if (monitor == null) {
+                continue;
+            }
+            Gauge.builder("eon.datasource.replica.available", monitor, m -> m.isAvailable(replica) ? 1 : 0)
+                    .tag("target", replica)
+                    .register(registry);
+            FunctionCounter.builder("eon.datasource.replica.exclusions", monitor, m -> m.getExclusions(replica))
+                    .tag("target", replica)
+                    .register(registry);
+            Gauge.builder("eon.datasource.replica.lag", monitor, m -> m.getLagSeconds(replica))
+                    .tag("target", replica)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    private void routingCounter(MeterRegistry registry, String target, String reason,
+            ToDoubleFunction<ReadWriteRouter> count) {
+        FunctionCounter.builder("eon.datasource.routing", router, count)
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
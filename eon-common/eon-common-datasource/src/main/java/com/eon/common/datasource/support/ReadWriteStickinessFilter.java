@@ -0,0 +1,35 @@
+package com.eon.common.datasource.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 为每个请求打开读己之写作用域，客户端标识取自网关透传的请求头，请求结束时关闭。
+ */
+public class ReadWriteStickinessFilter extends OncePerRequestFilter {
+
+    private final ReadWriteRouter router;
+    private final String clientHeader;
+
+    public ReadWriteStickinessFilter(ReadWriteRouter router, String clientHeader) {
+        this.router = router;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientKey = StringUtils.hasText(clientHeader) ? request.getHeader(clientHeader) : null;
+        ReadWriteRouter.Scope scope = router.openScope(StringUtils.hasText(clientKey) ? clientKey : null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.HealthCheck;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+/**
+ * 副本后台探测：定期校验连通性并查询复制延迟，不可用或延迟超限的副本由 {@link ReadWriteRouter} 跳过。
+ * 探测结果超过三个周期未刷新（探测本身卡住）同样视为不可用。
+ */
+public class ReplicaHealthMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+    private static final int STALE_AFTER_INTERVALS = 3;
+
+    private final Map<String, DataSource> replicas;
+    private final HealthCheck config;
+    private final long staleAfterNanos;
+    private final Map<String, ReplicaState> states = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> exclusions = new LinkedHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public ReplicaHealthMonitor(Map<String, DataSource> replicas, HealthCheck config) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.config = config;
+        this.staleAfterNanos = config.getInterval().toNanos() * STALE_AFTER_INTERVALS;
+        long now = System.nanoTime();
+        // 首次探测完成前乐观地视为可用，避免启动期间全部回退主库
+        replicas.keySet().forEach(key -> {
+            states.put(key, new ReplicaState(true, Double.NaN, now));
+            exclusions.put(key, new LongAdder());
+        });
+    }
+
+    /**
+     * 每个副本独立调度，单个副本连接超时不影响其他副本的探测节奏。
+     */
+    public synchronized void start() {
+        if (scheduler != null || replicas.isEmpty()) {
+            return;
+        }
+        AtomicInteger seq = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(Math.min(replicas.size(), 4), r -> {
+            Thread t = new Thread(r, "eon-replica-probe-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = config.getInterval().toMillis();
+        replicas.keySet().forEach(key ->
+                scheduler.scheduleWithFixedDelay(() -> probe(key), 0, interval, TimeUnit.MILLISECONDS));
+        log.info("副本健康探测已启动：replicas={}, interval={}, maxLag={}", replicas.keySet(),
+                config.getInterval(), config.getMaxLag());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 探测单个副本并更新状态。
+     */
+    public void probe(String key) {
+        DataSource dataSource = replicas.get(key);
+        if (dataSource == null) {
+            return;
+        }
+        boolean available;
+        double lag = Double.NaN;
+        try {
+            lag = measureLag(dataSource);
+            available = !Double.isNaN(lag) && lag * 1000 <= config.getMaxLag().toMillis();
+            if (!available) {
+                log.warn("副本 {} 复制延迟 {}s 超过阈值 {}，暂时移出路由", key,
+                        Double.isNaN(lag) ? "未知（复制已中断）" : lag, config.getMaxLag());
+            }
+        } catch (SQLException | RuntimeException e) {
+            available = false;
+            log.warn("副本 {} 健康探测失败，暂时移出路由: {}", key, e.getMessage());
+        }
+        ReplicaState previous = states.put(key, new ReplicaState(available, lag, System.nanoTime()));
+        if (previous != null && previous.available() && !available) {
+            exclusions.get(key).increment();
+        } else if (previous != null && !previous.available() && available) {
+            log.info("副本 {} 已恢复，重新加入路由（lag={}s）", key, lag);
+        }
+    }
+
+    /**
+     * @return 延迟秒数；非副本（复制状态为空）视为 0，复制中断返回 NaN
+     */
+    private double measureLag(DataSource dataSource) throws SQLException {
+        int timeoutSeconds = (int) Math.max(1, config.getTimeout().toSeconds());
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(timeoutSeconds)) {
+                throw new SQLException("连接校验未通过");
+            }
+            if (!StringUtils.hasText(config.getLagQuery())) {
+                return 0;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet rs = statement.executeQuery(config.getLagQuery())) {
+                    if (!rs.next()) {
+                        return 0;
+                    }
+                    long seconds = StringUtils.hasText(config.getLagColumn())
+                            ? rs.getLong(config.getLagColumn()) : rs.getLong(1);
+                    return rs.wasNull() ? Double.NaN : seconds;
+                }
+            }
+        }
+    }
+
+    public boolean isAvailable(String key) {
+        ReplicaState state = states.get(key);
+        if (state == null) {
+            return false;
+        }
+        if (System.nanoTime() - state.checkedAt() > staleAfterNanos) {
+            // 探测卡住时状态不再可信
+            return false;
+        }
+        return state.available();
+    }
+
+    /**
+     * @return 最近一次探测到的复制延迟（秒），未知时为 NaN
+     */
+    public double getLagSeconds(String key) {
+        ReplicaState state = states.get(key);
+        return state == null ? Double.NaN : state.lagSeconds();
+    }
+
+    /**
+     * @return 副本由可用变为不可用的累计次数
+     */
+    public long getExclusions(String key) {
+        LongAdder adder = exclusions.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private record ReplicaState(boolean available, double lagSeconds, long checkedAt) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.eon.common.datasource.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 形态归一化：去掉注释与字面量、折叠 IN 列表与空白，使同一语句模板得到相同的形态。
+ * ORM 生成的 SQL 文本基本固定，归一化结果按原文缓存。
+ */
+public final class SqlShapes {
+
+    private static final int CACHE_LIMIT = 2048;
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern LINE_COMMENT = Pattern.compile("--[^\\n]*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ROW_LIST = Pattern.compile("\\(\\?\\)(?:\\s*,\\s*\\(\\?\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlShapes() {
+    }
+
+    /**
+     * @return 形态的短标识（8 位十六进制），用作指标标签以避免把 SQL 全文写入标签
+     */
+    public static String id(String shape) {
+        return String.format("%08x", shape.hashCode());
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String shape = doNormalize(sql);
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.putIfAbsent(sql, shape);
+        }
+        return shape;
+    }
+
+    private static String doNormalize(String sql) {
+        String s = BLOCK_COMMENT.matcher(sql).replaceAll(" ");
+        s = LINE_COMMENT.matcher(s).replaceAll(" ");
+        s = STRING_LITERAL.matcher(s).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = WHITESPACE.matcher(s).replaceAll(" ").trim();
+        s = PLACEHOLDER_LIST.matcher(s).replaceAll("(?)");
+        s = ROW_LIST.matcher(s).replaceAll("(?)");
+        return s;
+    }
+}
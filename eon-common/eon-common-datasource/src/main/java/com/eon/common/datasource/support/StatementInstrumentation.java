@@ -0,0 +1,51 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.Instrumentation;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * 语句级监控入口：归一化 SQL、输出慢 SQL 日志（带链路标识）并分发给监听器（如 Micrometer 指标）。
+ */
+public class StatementInstrumentation {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementInstrumentation.class);
+
+    private final long slowThresholdNanos;
+    private final String traceIdMdcKey;
+    private final List<StatementListener> listeners = new CopyOnWriteArrayList<>();
+
+    public StatementInstrumentation(Instrumentation config) {
+        this.slowThresholdNanos = config.getSlowThreshold().toNanos();
+        this.traceIdMdcKey = config.getTraceIdMdcKey();
+    }
+
+    public void addListener(StatementListener listener) {
+        listeners.add(listener);
+    }
+
+    void afterExecute(String target, String sql, long elapsedNanos, boolean failed) {
+        String shape = SqlShapes.normalize(sql);
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("慢 SQL：target={}, elapsed={}ms, failed={}, traceId={}, statement={}, sql={}", target,
+                    Duration.ofNanos(elapsedNanos).toMillis(), failed, MDC.get(traceIdMdcKey), SqlShapes.id(shape), shape);
+        }
+        for (StatementListener listener : listeners) {
+            listener.onExecute(target, shape, elapsedNanos, failed);
+        }
+    }
+
+    void afterRead(String target, String sql, long rows) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        String shape = SqlShapes.normalize(sql);
+        for (StatementListener listener : listeners) {
+            listener.onResultSetClosed(target, shape, rows);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.eon.common.datasource.support;
+
+/**
+ * 语句执行事件监听，由 {@link StatementInstrumentation} 分发。
+ */
+public interface StatementListener {
+
+    /**
+     * 一次语句执行结束。
+     *
+     * @param target 数据源标识
+     * @param shape  归一化后的 SQL 形态
+     */
+    void onExecute(String target, String shape, long elapsedNanos, boolean failed);
+
+    /**
+     * 查询结果集关闭，rows 为实际读取的行数。
+     */
+    default void onResultSetClosed(String target, String shape, long rows) {
+    }
+}
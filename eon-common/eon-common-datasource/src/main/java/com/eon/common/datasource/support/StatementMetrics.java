@@ -0,0 +1,103 @@
+package com.eon.common.datasource.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 语句级指标：
+ * <ul>
+ *     <li>{@code eon.datasource.statement}：按 target / statement / outcome 的耗时，只发布少量 SLO 桶</li>
+ *     <li>{@code eon.datasource.statement.rows}：按 target / statement 的结果集行数分布</li>
+ * </ul>
+ * statement 为归一化形态的短标识（{@link SqlShapes#id}），不把 SQL 全文写入标签；
+ * 形态首次登记时在日志中输出标识与 SQL 的对应关系，慢 SQL 日志同样带有该标识。
+ * 链路标识只写入慢 SQL 日志，不作为指标标签。
+ */
+public class StatementMetrics implements StatementListener, MeterBinder {
+
+    static final String OTHER_SHAPE = "other";
+
+    /**
+     * 以少量固定桶替代百分位直方图，每个时间序列只多出 4 个桶。
+     */
+    static final Duration[] SLO_BUCKETS = {
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(200), Duration.ofSeconds(1)};
+
+    private static final Logger log = LoggerFactory.getLogger(StatementMetrics.class);
+
+    private final int maxShapes;
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public StatementMetrics(StatementInstrumentation instrumentation, int maxShapes) {
+        this.maxShapes = maxShapes;
+        instrumentation.addListener(this);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onExecute(String target, String shape, long elapsedNanos, boolean failed) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        MeterKey key = new MeterKey(target, statementId(shape), failed ? "error" : "success");
+        timers.computeIfAbsent(key, k -> Timer.builder("eon.datasource.statement")
+                        .tag("target", k.target())
+                        .tag("statement", k.statement())
+                        .tag("outcome", k.outcome())
+                        .serviceLevelObjectives(SLO_BUCKETS)
+                        .register(current))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onResultSetClosed(String target, String shape, long rows) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        MeterKey key = new MeterKey(target, statementId(shape), "");
+        rowSummaries.computeIfAbsent(key, k -> DistributionSummary.builder("eon.datasource.statement.rows")
+                        .tag("target", k.target())
+                        .tag("statement", k.statement())
+                        .baseUnit("rows")
+                        .register(current))
+                .record(rows);
+    }
+
+    /**
+     * @return 形态的短标识，超过上限的新形态归入 other
+     */
+    private String statementId(String shape) {
+        String id = SqlShapes.id(shape);
+        if (shapes.contains(id)) {
+            return id;
+        }
+        if (shapes.size() >= maxShapes) {
+            return OTHER_SHAPE;
+        }
+        if (shapes.add(id)) {
+            log.info("SQL 形态登记：statement={}, sql={}", id, shape);
+        }
+        return id;
+    }
+
+    private record MeterKey(String target, String statement, String outcome) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.eon.common.datasource.support;
+
+/**
+ * 当前租户解析，供租户分片路由使用；引入 eon-common-security 时默认读取网关注入的用户上下文。
+ */
+@FunctionalInterface
+public interface TenantResolver {
+
+    /**
+     * @return 当前租户，无租户（全局数据）时为 null
+     */
+    Long currentTenantId();
+}
@@ -0,0 +1,88 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.util.StringUtils;
+
+/**
+ * 租户分片路由：显式映射优先，其余租户按哈希槽区间落到分片，无租户请求走全局数据源。
+ * 槽数固定，分片按区间均分槽位，同一租户始终落在同一分片。
+ * <p>
+ * 路由只看当前租户，不看表：租户请求内读取的全局目录行（无 tenant_id 的表、tenant_id IS NULL 的公共角色等）
+ * 同样落到租户分片，且这些行常与租户表连接查询、被分片内外键引用，无法单独路由到全局数据源。
+ * 因此全局目录需在每个分片上保留副本，以全局数据源为准复制（见 {@link #getShardTargets()}），
+ * 全局目录的写入应在无租户上下文中执行。
+ */
+public class TenantShardRouter {
+
+    static final int SLOTS = 1024;
+
+    private final TenantResolver tenantResolver;
+    private final String globalTarget;
+    private final Map<Long, String> mapping;
+    private final List<String> shards;
+
+    public TenantShardRouter(TenantRouting config, Set<String> availableKeys, String primaryKey,
+            TenantResolver tenantResolver) {
+        if (tenantResolver == null) {
+            throw new IllegalStateException("启用租户分片时需要提供 TenantResolver（引入 eon-common-security 或自行声明）");
+        }
+        this.tenantResolver = tenantResolver;
+        this.globalTarget = StringUtils.hasText(config.getGlobalTarget()) ? config.getGlobalTarget() : primaryKey;
+        this.mapping = Map.copyOf(config.getMapping());
+        this.shards = List.copyOf(config.getShards());
+        requireDeclared(availableKeys, globalTarget);
+        mapping.values().forEach(key -> requireDeclared(availableKeys, key));
+        shards.forEach(key -> requireDeclared(availableKeys, key));
+    }
+
+    private static void requireDeclared(Set<String> availableKeys, String key) {
+        if (!availableKeys.contains(key)) {
+            throw new IllegalStateException("租户分片目标 " + key + " 未在 eon.datasource.targets 中声明");
+        }
+    }
+
+    /**
+     * @return 当前租户对应的数据源标识
+     */
+    public String currentTarget() {
+        return resolve(tenantResolver.currentTenantId());
+    }
+
+    public String resolve(Long tenantId) {
+        if (tenantId == null) {
+            return globalTarget;
+        }
+        String mapped = mapping.get(tenantId);
+        if (mapped != null) {
+            return mapped;
+        }
+        if (shards.isEmpty()) {
+            return globalTarget;
+        }
+        return shards.get(slot(tenantId) * shards.size() / SLOTS);
+    }
+
+    public String getGlobalTarget() {
+        return globalTarget;
+    }
+
+    /**
+     * @return 除全局数据源外的全部分片目标（显式映射与哈希分片，去重），即需要复制全局目录的数据源
+     */
+    public Set<String> getShardTargets() {
+        Set<String> targets = new LinkedHashSet<>(mapping.values());
+        targets.addAll(shards);
+        targets.remove(globalTarget);
+        return targets;
+    }
+
+    static int slot(long tenantId) {
+        // 打散连续自增的租户 ID，避免相邻租户集中在同一区间
+        long h = tenantId * 0x9E3779B97F4A7C15L;
+        return (int) ((h ^ (h >>> 32)) & (SLOTS - 1));
+    }
+}
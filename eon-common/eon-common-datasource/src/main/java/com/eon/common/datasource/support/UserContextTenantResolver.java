@@ -0,0 +1,16 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.security.context.AuthenticatedUser;
+import com.eon.common.security.context.UserContextHolder;
+
+/**
+ * 从 {@link UserContextHolder} 读取租户，即网关透传的 X-Tenant-Id。
+ */
+public class UserContextTenantResolver implements TenantResolver {
+
+    @Override
+    public Long currentTenantId() {
+        AuthenticatedUser user = UserContextHolder.get();
+        return user == null ? null : user.tenantId();
+    }
+}
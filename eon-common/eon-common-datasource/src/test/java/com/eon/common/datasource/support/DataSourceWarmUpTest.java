@@ -0,0 +1,193 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.InitMode;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TargetDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class DataSourceWarmUpTest {
+
+    @Test
+    void shouldValidateOnlyWarmUpTargets() throws SQLException {
+        Statement statement = mock(Statement.class);
+        DataSource warm = dataSource(statement);
+        DataSource eager = mock(DataSource.class);
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("master", warm);
+        dataSources.put("report", eager);
+        Map<String, TargetDataSource> definitions = new LinkedHashMap<>();
+        definitions.put("master", definition(InitMode.WARM_UP, "SELECT 1"));
+        definitions.put("report", definition(InitMode.EAGER, null));
+
+        DataSourceWarmUp warmUp = new DataSourceWarmUp(dataSources, definitions);
+        warmUp.start();
+
+        verify(statement).execute("SELECT 1");
+        verify(eager, never()).getConnection();
+        assertThat(warmUp.isRunning()).isTrue();
+    }
+
+    @Test
+    void shouldNotFailStartupWhenWarmUpFails() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        DataSourceWarmUp warmUp = new DataSourceWarmUp(Map.of("master", down),
+                Map.of("master", definition(InitMode.WARM_UP, null)));
+        warmUp.start();
+
+        assertThat(warmUp.isRunning()).isTrue();
+    }
+
+    @Test
+    void shouldCreateLazyTargetOnFirstConnection() throws SQLException {
+        AtomicInteger created = new AtomicInteger();
+        DataSource target = dataSource(mock(Statement.class));
+        LazyTargetDataSource lazy = new LazyTargetDataSource("report", () -> {
+            created.incrementAndGet();
+            return target;
+        });
+
+        assertThat(created).hasValue(0);
+        assertThat(lazy.getTargetIfInitialized()).isNull();
+
+        lazy.getConnection();
+        lazy.getConnection();
+
+        assertThat(created).hasValue(1);
+        assertThat(lazy.getTargetIfInitialized()).isSameAs(target);
+    }
+
+    @Test
+    void shouldFinishWarmUpBeforeWebServerStarts() throws SQLException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        Statement statement = mock(Statement.class);
+        when(statement.execute("SELECT 1")).then(invocation -> started.add("warm-up"));
+        DataSourceWarmUp warmUp = new DataSourceWarmUp(Map.of("master", dataSource(statement)),
+                Map.of("master", definition(InitMode.WARM_UP, "SELECT 1")));
+
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean("webServer", SmartLifecycle.class, () -> new WebServerLifecycle(started));
+            context.registerBean("dataSourceWarmUp", DataSourceWarmUp.class, () -> warmUp);
+            context.refresh();
+        }
+
+        assertThat(warmUp.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+        assertThat(started).containsExactly("warm-up", "web-server");
+    }
+
+    @Test
+    void shouldNotCreateLazyTargetWhenUnwrapping() {
+        AtomicInteger created = new AtomicInteger();
+        LazyTargetDataSource lazy = new LazyTargetDataSource("report", () -> {
+            created.incrementAndGet();
+            return mock(HikariDataSource.class);
+        });
+
+        assertThat(catchSql(() -> lazy.isWrapperFor(HikariDataSource.class))).isFalse();
+        assertThat(catchSql(() -> lazy.isWrapperFor(LazyTargetDataSource.class))).isTrue();
+        assertThatThrownBy(() -> lazy.unwrap(HikariDataSource.class)).isInstanceOf(SQLException.class);
+        assertThat(created).hasValue(0);
+    }
+
+    @Test
+    void shouldCloseCreatedPoolsOnlyWhenRoutingDataSourceCloses() throws IOException {
+        AtomicInteger created = new AtomicInteger();
+        DataSource eager = mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+        LazyTargetDataSource lazy = new LazyTargetDataSource("report", () -> {
+            created.incrementAndGet();
+            return mock(DataSource.class);
+        });
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        targets.put("master", eager);
+        targets.put("report", lazy);
+
+        new DynamicRoutingDataSource("master", targets, new DataSourceContextHolder()).close();
+
+        verify((Closeable) eager).close();
+        assertThat(created).hasValue(0);
+    }
+
+    private static boolean catchSql(SqlCheck check) {
+        try {
+            return check.test();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface SqlCheck {
+        boolean test() throws SQLException;
+    }
+
+    private static final class WebServerLifecycle implements SmartLifecycle {
+
+        private final List<String> started;
+        private volatile boolean running;
+
+        private WebServerLifecycle(List<String> started) {
+            this.started = started;
+        }
+
+        @Override
+        public void start() {
+            started.add("web-server");
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            // 与 WebServerStartStopLifecycle 相同
+            return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+        }
+    }
+
+    private DataSource dataSource(Statement statement) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        return dataSource;
+    }
+
+    private TargetDataSource definition(InitMode init, String validationQuery) {
+        TargetDataSource definition = new TargetDataSource();
+        definition.setInit(init);
+        definition.setValidationQuery(validationQuery);
+        return definition;
+    }
+}
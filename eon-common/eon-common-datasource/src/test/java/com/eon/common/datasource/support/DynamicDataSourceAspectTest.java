@@ -48,7 +48,34 @@ class DynamicDataSourceAspectTest {
         assertThatThrownBy(proxy::updateOnUnknown).isInstanceOf(IllegalStateException.class);
     }
 
-    private TestService createProxy(TestService target, DynamicDataSourceAspect aspect) {
+    @Test
+    void shouldKeepRoutingStableAcrossCachedCalls() {
+        DynamicDataSourceAspect aspect = new DynamicDataSourceAspect(contextHolder, true, Set.of("report"));
+        ReportService report = createProxy(new ReportService(contextHolder), aspect);
+
+        // 第二次起命中 (Method, targetClass) 缓存，结果与首次解析一致
+        report.query();
+        assertThat(report.getCapturedKey()).isEqualTo("report");
+        report.query();
+        assertThat(report.getCapturedKey()).isEqualTo("report");
+        assertThat(contextHolder.peek()).isEmpty();
+    }
+
+    @Test
+    void shouldRestoreOuterKeyAfterNestedPop() {
+        contextHolder.push("master");
+        contextHolder.push("slave");
+        assertThat(contextHolder.current()).isEqualTo("slave");
+
+        contextHolder.pop();
+        assertThat(contextHolder.current()).isEqualTo("master");
+
+        contextHolder.pop();
+        contextHolder.pop();
+        assertThat(contextHolder.peek()).isEmpty();
+    }
+
+    private <T> T createProxy(T target, DynamicDataSourceAspect aspect) {
         AspectJProxyFactory factory = new AspectJProxyFactory(target);
         factory.addAspect(aspect);
         return factory.getProxy();
@@ -76,4 +103,22 @@ class DynamicDataSourceAspectTest {
             return capturedKey;
         }
     }
+
+    @UseDataSource("report")
+    static class ReportService {
+        private final DataSourceContextHolder holder;
+        private String capturedKey;
+
+        ReportService(DataSourceContextHolder holder) {
+            this.holder = holder;
+        }
+
+        public void query() {
+            capturedKey = holder.current();
+        }
+
+        String getCapturedKey() {
+            return capturedKey;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.Instrumentation;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentedDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldNormalizeStatementShapes() {
+        assertThat(SqlShapes.normalize("select u1_0.id from users u1_0 where u1_0.id in (?, ?,?) and name = 'a''b' /* hint */"))
+                .isEqualTo("select u1_0.id from users u1_0 where u1_0.id in (?) and name = ?");
+        assertThat(SqlShapes.normalize("SELECT * FROM t WHERE id = 42\n  LIMIT 10"))
+                .isEqualTo("SELECT * FROM t WHERE id = ? LIMIT ?");
+        assertThat(SqlShapes.normalize("INSERT INTO t (a, b) VALUES (?, ?), (?, ?)"))
+                .isEqualTo("INSERT INTO t (a, b) VALUES (?)");
+    }
+
+    @Test
+    void shouldRecordTimingAndRowsPerShape() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, true, false);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        DataSource dataSource = instrumented(ps, Duration.ofSeconds(1));
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select id from users where id in (?, ?, ?)");
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                // 读取全部行
+            }
+        }
+
+        String statementId = SqlShapes.id("select id from users where id in (?)");
+        Timer timer = registry.get("eon.datasource.statement").tag("target", "master").tag("statement", statementId)
+                .tag("outcome", "success").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.takeSnapshot().histogramCounts()).hasSize(StatementMetrics.SLO_BUCKETS.length);
+        assertThat(registry.get("eon.datasource.statement.rows").tag("statement", statementId)
+                .summary().totalAmount()).isEqualTo(3.0);
+        assertThat(registry.getMeters()).allSatisfy(meter -> assertThat(meter.getId().getTag("sql")).isNull());
+    }
+
+    @Test
+    void shouldRecordFailedStatementsAndCapShapes() throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeUpdate()).thenThrow(new SQLException("Deadlock found"));
+        Instrumentation config = new Instrumentation();
+        config.setMaxShapes(1);
+        StatementInstrumentation instrumentation = new StatementInstrumentation(config);
+        new StatementMetrics(instrumentation, config.getMaxShapes()).bindTo(registry);
+        DataSource dataSource = new InstrumentedDataSource("master", connectionReturning(ps), instrumentation);
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertThatThrownBy(() -> connection.prepareStatement("update a set x = ?").executeUpdate())
+                    .isInstanceOf(SQLException.class);
+            assertThatThrownBy(() -> connection.prepareStatement("update b set y = ?").executeUpdate())
+                    .isInstanceOf(SQLException.class);
+        }
+
+        assertThat(registry.get("eon.datasource.statement").tag("statement", SqlShapes.id("update a set x = ?"))
+                .tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("eon.datasource.statement").tag("statement", StatementMetrics.OTHER_SHAPE)
+                .timer().count()).isEqualTo(1);
+    }
+
+    private DataSource instrumented(PreparedStatement ps, Duration slowThreshold) throws SQLException {
+        Instrumentation config = new Instrumentation();
+        config.setSlowThreshold(slowThreshold);
+        StatementInstrumentation instrumentation = new StatementInstrumentation(config);
+        new StatementMetrics(instrumentation, config.getMaxShapes()).bindTo(registry);
+        return new InstrumentedDataSource("master", connectionReturning(ps), instrumentation);
+    }
+
+    private DataSource connectionReturning(PreparedStatement ps) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(ps);
+        return dataSource;
+    }
+}
@@ -0,0 +1,178 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.LoadBalanceStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingAspectTest {
+
+    private final DataSourceContextHolder contextHolder = new DataSourceContextHolder();
+    // 代理实例上的字段不可见，经目标对象读取记录的路由键
+    private final List<Object> keys = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void shouldRouteReadOnlyTransactionsAcrossReplicas() {
+        RoutingService service = proxy(router(LoadBalanceStrategy.ROUND_ROBIN, Duration.ZERO, dataSources()));
+
+        service.read();
+        service.read();
+        service.read();
+
+        assertThat(keys).containsExactly("replica1", "replica2", "replica1");
+        assertThat(contextHolder.peek()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepReadsOnPrimaryWithinStickyWindowAfterWrite() {
+        ReadWriteRouter router = router(LoadBalanceStrategy.ROUND_ROBIN, Duration.ofMinutes(1), dataSources());
+        RoutingService service = proxy(router);
+
+        try (ReadWriteRouter.Scope ignored = router.openScope(null)) {
+            service.read();
+            service.write();
+            service.read();
+        }
+
+        assertThat(keys).containsExactly("replica1", "master", "master");
+    }
+
+    @Test
+    void shouldKeepClientStickyAcrossThreadsWithoutPinningTheWritingThread() throws Exception {
+        ReadWriteRouter router = new ReadWriteRouter(List.of("replica1", "replica2"), dataSources(),
+                LoadBalanceStrategy.ROUND_ROBIN, Duration.ofSeconds(2), null, nanos::get);
+        RoutingService service = proxy(router);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture.runAsync(() -> inScope(router, "alice", service::write), writer).get();
+            // 同一客户端的后续请求落在另一工作线程
+            CompletableFuture.runAsync(() -> inScope(router, "alice", service::read), reader).get();
+            // 复用写入线程的其他客户端请求不受影响
+            CompletableFuture.runAsync(() -> inScope(router, "bob", service::read), writer).get();
+            CompletableFuture.runAsync(service::read, writer).get();
+            nanos.addAndGet(Duration.ofSeconds(3).toNanos());
+            CompletableFuture.runAsync(() -> inScope(router, "alice", service::read), reader).get();
+        } finally {
+            writer.shutdownNow();
+            reader.shutdownNow();
+        }
+
+        assertThat(keys).containsExactly("master", "master", "replica1", "replica2", "replica1");
+    }
+
+    @Test
+    void shouldRestoreOuterScopeWhenNestedScopeCloses() {
+        ReadWriteRouter router = router(LoadBalanceStrategy.ROUND_ROBIN, Duration.ofMinutes(1), dataSources());
+        RoutingService service = proxy(router);
+
+        try (ReadWriteRouter.Scope ignored = router.openScope(null)) {
+            service.write();
+            inScope(router, null, service::read);
+            service.read();
+        }
+        service.read();
+
+        assertThat(keys).containsExactly("master", "replica1", "master", "replica2");
+    }
+
+    @Test
+    void shouldPreferExplicitDataSource() {
+        RoutingService service = proxy(router(LoadBalanceStrategy.ROUND_ROBIN, Duration.ZERO, dataSources()));
+        contextHolder.push("report");
+        try {
+            service.read();
+        } finally {
+            contextHolder.pop();
+        }
+
+        assertThat(keys).containsExactly("report");
+    }
+
+    @Test
+    void shouldPickReplicaWithFewestActiveConnections() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("master", mock(DataSource.class));
+        dataSources.put("replica1", hikari(5));
+        dataSources.put("replica2", hikari(1));
+        RoutingService service = proxy(router(LoadBalanceStrategy.LEAST_CONNECTIONS, Duration.ZERO, dataSources));
+
+        service.read();
+        service.read();
+
+        assertThat(keys).containsExactly("replica2", "replica2");
+    }
+
+    private void inScope(ReadWriteRouter router, String clientKey, Runnable work) {
+        try (ReadWriteRouter.Scope ignored = router.openScope(clientKey)) {
+            work.run();
+        }
+    }
+
+    private ReadWriteRouter router(LoadBalanceStrategy strategy, Duration stickyWindow, Map<String, DataSource> dataSources) {
+        return new ReadWriteRouter(List.of("replica1", "replica2"), dataSources, strategy, stickyWindow);
+    }
+
+    private Map<String, DataSource> dataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (String key : Set.of("master", "replica1", "replica2", "report")) {
+            dataSources.put(key, mock(DataSource.class));
+        }
+        return dataSources;
+    }
+
+    private HikariDataSource hikari(int active) {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getActiveConnections()).thenReturn(active);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        return dataSource;
+    }
+
+    private RoutingService proxy(ReadWriteRouter router) {
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        targets.put("master", mock(DataSource.class));
+        DynamicRoutingDataSource routing = new DynamicRoutingDataSource("master", targets, contextHolder, router);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new RoutingService(routing, keys));
+        factory.addAspect(new ReadWriteRoutingAspect(contextHolder, router));
+        return factory.getProxy();
+    }
+
+    static class RoutingService {
+        private final DynamicRoutingDataSource routing;
+        private final List<Object> keys;
+
+        RoutingService(DynamicRoutingDataSource routing, List<Object> keys) {
+            this.routing = routing;
+            this.keys = keys;
+        }
+
+        @Transactional(readOnly = true)
+        public void read() {
+            keys.add(routing.determineCurrentLookupKey());
+        }
+
+        @Transactional
+        public void write() {
+            keys.add(routing.determineCurrentLookupKey());
+        }
+    }
+}
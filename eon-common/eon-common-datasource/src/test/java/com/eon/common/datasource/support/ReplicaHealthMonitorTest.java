@@ -0,0 +1,115 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.HealthCheck;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.LoadBalanceStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaHealthMonitorTest {
+
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+
+    @Test
+    void shouldExcludeLaggingReplicaAndRecover() throws SQLException {
+        ResultSet lagging = lag(30L);
+        replicas.put("replica1", replica(lagging));
+        replicas.put("replica2", replica(lag(0L)));
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, new HealthCheck());
+        ReadWriteRouter router = router(monitor);
+
+        monitor.probe("replica1");
+        monitor.probe("replica2");
+
+        assertThat(monitor.isAvailable("replica1")).isFalse();
+        assertThat(monitor.getLagSeconds("replica1")).isEqualTo(30.0);
+        assertThat(monitor.getExclusions("replica1")).isEqualTo(1);
+        assertThat(List.of(router.route("master"), router.route("master"))).containsOnly("replica2");
+
+        when(lagging.getLong("Seconds_Behind_Source")).thenReturn(1L);
+        monitor.probe("replica1");
+
+        assertThat(monitor.isAvailable("replica1")).isTrue();
+        assertThat(List.of(router.route("master"), router.route("master"))).contains("replica1", "replica2");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsHealthy() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        replicas.put("replica1", down);
+        // 复制线程中断时延迟列为 NULL
+        replicas.put("replica2", replica(lag(null)));
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, new HealthCheck());
+        ReadWriteRouter router = router(monitor);
+
+        monitor.probe("replica1");
+        monitor.probe("replica2");
+
+        assertThat(router.route("master")).isEqualTo("master");
+        assertThat(router.getFallbackDecisions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeRoutingMetrics() throws SQLException {
+        replicas.put("replica1", replica(lag(30L)));
+        replicas.put("replica2", replica(lag(2L)));
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, new HealthCheck());
+        ReadWriteRouter router = router(monitor);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ReadWriteRoutingMetrics(router, "master").bindTo(registry);
+
+        monitor.probe("replica1");
+        monitor.probe("replica2");
+        router.route("master");
+
+        assertThat(registry.get("eon.datasource.routing").tag("target", "replica2").tag("reason", "replica")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("eon.datasource.replica.exclusions").tag("target", "replica1")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("eon.datasource.replica.available").tag("target", "replica1")
+                .gauge().value()).isZero();
+        assertThat(registry.get("eon.datasource.replica.lag").tag("target", "replica2")
+                .gauge().value()).isEqualTo(2.0);
+    }
+
+    private ReadWriteRouter router(ReplicaHealthMonitor monitor) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>(replicas);
+        dataSources.put("master", mock(DataSource.class));
+        return new ReadWriteRouter(List.copyOf(replicas.keySet()), dataSources, LoadBalanceStrategy.ROUND_ROBIN,
+                Duration.ZERO, monitor);
+    }
+
+    private DataSource replica(ResultSet status) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(status);
+        return dataSource;
+    }
+
+    private ResultSet lag(Long seconds) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong("Seconds_Behind_Source")).thenReturn(seconds == null ? 0L : seconds);
+        when(rs.wasNull()).thenReturn(seconds == null);
+        return rs;
+    }
+}
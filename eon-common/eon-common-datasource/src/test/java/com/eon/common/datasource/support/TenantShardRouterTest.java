@@ -0,0 +1,115 @@
+package com.eon.common.datasource.support;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.LoadBalanceStrategy;
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TenantShardRouterTest {
+
+    private static final Set<String> KEYS = Set.of("master", "global", "shard1", "shard2", "vip", "replica1");
+
+    private final AtomicReference<Long> tenant = new AtomicReference<>();
+    private final DataSourceContextHolder contextHolder = new DataSourceContextHolder();
+
+    @Test
+    void shouldResolveMappingThenShardsThenGlobal() {
+        TenantShardRouter router = new TenantShardRouter(config(), KEYS, "master", tenant::get);
+
+        assertThat(router.resolve(null)).isEqualTo("global");
+        assertThat(router.resolve(42L)).isEqualTo("vip");
+        assertThat(router.resolve(7L)).isIn("shard1", "shard2").isEqualTo(router.resolve(7L));
+
+        Set<String> used = new HashSet<>();
+        LongStream.rangeClosed(1, 200).forEach(id -> used.add(router.resolve(id)));
+        assertThat(used).contains("shard1", "shard2");
+    }
+
+    @Test
+    void shouldListShardTargetsExcludingGlobal() {
+        TenantRouting config = config();
+        config.getMapping().put(43L, "global");
+        config.getMapping().put(44L, "shard1");
+        TenantShardRouter router = new TenantShardRouter(config, KEYS, "master", tenant::get);
+
+        assertThat(router.getShardTargets()).containsExactlyInAnyOrder("vip", "shard1", "shard2");
+    }
+
+    @Test
+    void shouldRejectUndeclaredTargets() {
+        TenantRouting config = config();
+        config.getShards().add("missing");
+
+        assertThatThrownBy(() -> new TenantShardRouter(config, KEYS, "master", tenant::get))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRouteByCurrentTenantUnlessExplicitKeyPresent() {
+        DynamicRoutingDataSource routing = routing(null);
+
+        tenant.set(42L);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("vip");
+        contextHolder.push("master");
+        try {
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo("master");
+        } finally {
+            contextHolder.pop();
+        }
+        tenant.set(null);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("global");
+    }
+
+    @Test
+    void shouldSendReadsToReplicasOnlyForPrimaryTenants() {
+        ReadWriteRouter readWrite = new ReadWriteRouter(List.of("replica1"), dataSources(),
+                LoadBalanceStrategy.ROUND_ROBIN, Duration.ZERO);
+        TenantRouting config = new TenantRouting();
+        config.setEnabled(true);
+        config.getMapping().put(42L, "vip");
+        DynamicRoutingDataSource routing = new DynamicRoutingDataSource("master", dataSources(), contextHolder,
+                readWrite, new TenantShardRouter(config, KEYS, "master", tenant::get));
+
+        contextHolder.push(ReadWriteRouter.READ_INTENT);
+        try {
+            tenant.set(1L);
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo("replica1");
+            tenant.set(42L);
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo("vip");
+        } finally {
+            contextHolder.pop();
+        }
+    }
+
+    private DynamicRoutingDataSource routing(ReadWriteRouter readWrite) {
+        return new DynamicRoutingDataSource("master", dataSources(), contextHolder, readWrite,
+                new TenantShardRouter(config(), KEYS, "master", tenant::get));
+    }
+
+    private TenantRouting config() {
+        TenantRouting config = new TenantRouting();
+        config.setEnabled(true);
+        config.setGlobalTarget("global");
+        config.getMapping().put(42L, "vip");
+        config.getShards().addAll(List.of("shard1", "shard2"));
+        return config;
+    }
+
+    private Map<String, DataSource> dataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        KEYS.forEach(key -> dataSources.put(key, mock(DataSource.class)));
+        return dataSources;
+    }
+}
@@ -33,6 +33,7 @@ public class EonFeignProperties {
             AuthHeaderConstants.HDR_X_USER_ID,
             AuthHeaderConstants.HDR_X_TENANT_ID,
                                                                                                                                         AuthHeaderConstants.HDR_X_POLICY_VERSION,
+            AuthHeaderConstants.HDR_X_POLICY_FINGERPRINT,
             AuthHeaderConstants.HDR_X_ROLES,
             AuthHeaderConstants.HDR_X_USER_ROLES,
             AuthHeaderConstants.HDR_X_PERMISSIONS,
@@ -9,6 +9,7 @@ public interface AuthHeaderConstants {
     String HDR_X_USER_ID = "X-User-Id";
     String HDR_X_TENANT_ID = "X-Tenant-Id";
     String HDR_X_POLICY_VERSION = "X-Policy-Version";
+    String HDR_X_POLICY_FINGERPRINT = "X-Policy-Fingerprint";
     String HDR_X_ROLES = "X-Roles";
     String HDR_X_USER_ROLES = "X-User-Roles";
     String HDR_X_PERMISSIONS = "X-Permissions";
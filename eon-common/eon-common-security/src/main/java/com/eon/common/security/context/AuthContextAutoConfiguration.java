@@ -1,12 +1,16 @@
 package com.eon.common.security.context;
 
+import com.eon.common.security.crypto.BCryptCostCalibrator;
+import com.eon.common.security.crypto.BoundedPasswordEncoder;
+import com.eon.common.security.crypto.PasswordEncoderProperties;
+import com.eon.common.security.crypto.PasswordHashingExecutor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.Ordered;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -72,8 +76,11 @@ public class AuthContextAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean(PasswordEncoder.class)
-    public PasswordEncoder passwordEncoder() {
-        // 提供默认的 BCrypt 实现，业务如需替换可自定义 Bean 覆盖
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordEncoderProperties encoderProperties,
+                                           ObjectProvider<PasswordHashingExecutor> hashingExecutor) {
+        // 提供默认的 BCrypt 实现（成本因子按主机标定），业务如需替换可自定义 Bean 覆盖；启用哈希线程池时移出请求线程执行
+        PasswordEncoder encoder = BCryptCostCalibrator.encoder(encoderProperties);
+        PasswordHashingExecutor executor = hashingExecutor.getIfAvailable();
+        return executor != null ? new BoundedPasswordEncoder(encoder, executor) : encoder;
     }
 }
@@ -14,6 +14,7 @@ public record AuthenticatedUser(
         Long userId,
         Long tenantId,
         Integer policyVersion,
+        String policyFingerprint,
         Set<String> roles,
         Set<String> permissions,
         String traceId
@@ -27,6 +28,14 @@ public record AuthenticatedUser(
         permissions = normalise(permissions);
     }
 
+    /**
+     * 兼容未携带策略指纹的调用方。
+     */
+    public AuthenticatedUser(Long userId, Long tenantId, Integer policyVersion,
+                             Set<String> roles, Set<String> permissions, String traceId) {
+        this(userId, tenantId, policyVersion, null, roles, permissions, traceId);
+    }
+
     private static Set<String> normalise(Set<String> source) {
         if (source == null || source.isEmpty()) {
             return Collections.emptySet();
@@ -30,6 +30,7 @@ public final class GatewayAuthContextExtractor {
         }
         Long tenantId = parseLong(request.getHeader(AuthHeaderConstants.HDR_X_TENANT_ID));
         Integer policyVersion = parseInteger(request.getHeader(AuthHeaderConstants.HDR_X_POLICY_VERSION));
+        String policyFingerprint = request.getHeader(AuthHeaderConstants.HDR_X_POLICY_FINGERPRINT);
         String traceId = request.getHeader(AuthHeaderConstants.HDR_X_TRACE_ID);
 
         Set<String> roles = mergeMultiValueHeaders(request,
@@ -43,6 +44,7 @@ public final class GatewayAuthContextExtractor {
                 userId,
                 tenantId,
                 policyVersion,
+                StringUtils.hasText(policyFingerprint) ? policyFingerprint.trim() : null,
                 roles,
                 permissions,
                 StringUtils.hasText(traceId) ? traceId : null
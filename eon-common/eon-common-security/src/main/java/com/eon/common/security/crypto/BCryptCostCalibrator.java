@@ -0,0 +1,56 @@
+package com.eon.common.security.crypto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * 按主机实测性能选择 BCrypt 成本因子。
+ *
+ * <p>成本因子每加 1 耗时翻倍：在下限成本上实测一次校验耗时，据此推算不超过目标耗时的最大成本，
+ * 结果限制在 [minCost, maxCost]。哈希串自带 {@code $2a$<cost>$} 前缀，调整成本不影响既有哈希的校验，
+ * 低于当前成本的哈希会在登录成功后由 {@code UserDetailsPasswordService} 透明升级。</p>
+ */
+public final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final int MIN_LOG_ROUNDS = 4;
+    private static final int MAX_LOG_ROUNDS = 31;
+    private static final String SAMPLE = "eon-bcrypt-calibration";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * 按配置创建编码器：配置了固定成本时直接使用，否则实测标定。
+     */
+    public static BCryptPasswordEncoder encoder(PasswordEncoderProperties properties) {
+        int cost = properties.getCost() > 0 ? properties.getCost() : calibrate(properties);
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    public static int calibrate(PasswordEncoderProperties properties) {
+        int min = Math.max(MIN_LOG_ROUNDS, properties.getMinCost());
+        int max = Math.min(MAX_LOG_ROUNDS, Math.max(min, properties.getMaxCost()));
+        long targetNanos = properties.getTargetDuration().toNanos();
+        String hash = BCrypt.hashpw(SAMPLE, BCrypt.gensalt(min));
+        // 第一次运行包含类加载与 JIT 预热，取第二次的耗时
+        BCrypt.checkpw(SAMPLE, hash);
+        long started = System.nanoTime();
+        BCrypt.checkpw(SAMPLE, hash);
+        long measured = Math.max(1, System.nanoTime() - started);
+        int cost = min;
+        long estimated = measured;
+        while (cost < max && estimated * 2 <= targetNanos) {
+            cost++;
+            estimated *= 2;
+        }
+        log.info("BCrypt 成本因子标定完成：cost={}, 实测 cost {} 耗时 {}ms，预计单次校验 {}ms（目标 {}ms）",
+                cost, min, Duration.ofNanos(measured).toMillis(), Duration.ofNanos(estimated).toMillis(),
+                properties.getTargetDuration().toMillis());
+        return cost;
+    }
+}
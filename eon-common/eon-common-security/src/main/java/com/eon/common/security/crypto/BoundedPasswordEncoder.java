@@ -0,0 +1,42 @@
+package com.eon.common.security.crypto;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 将 encode / matches 移交 {@link PasswordHashingExecutor} 执行的密码编码器装饰。
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    static final String ENCODE = "encode";
+    static final String MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * 取出被装饰的编码器，供已自带有界线程池的批量任务（如批量导入）直接使用，避免与在线请求争抢队列。
+     */
+    public static PasswordEncoder unwrap(PasswordEncoder encoder) {
+        return encoder instanceof BoundedPasswordEncoder bounded ? bounded.delegate : encoder;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
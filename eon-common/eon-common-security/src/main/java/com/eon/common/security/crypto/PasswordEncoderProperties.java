@@ -0,0 +1,64 @@
+package com.eon.common.security.crypto;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * BCrypt 成本因子配置。
+ */
+@ConfigurationProperties(prefix = "eon.security.password-encoder")
+public class PasswordEncoderProperties {
+
+    /**
+     * 固定成本因子（4~31），0 表示启动时按 targetDuration 自动标定。
+     */
+    private int cost = 0;
+
+    /**
+     * 自动标定时单次校验的目标耗时。
+     */
+    private Duration targetDuration = Duration.ofMillis(250);
+
+    /**
+     * 自动标定的下限，低于此值的结果不被采用（Spring Security 默认值为 10）。
+     */
+    private int minCost = 10;
+
+    /**
+     * 自动标定的上限，防止在高性能机器上得出过高的值拖慢登录。
+     */
+    private int maxCost = 14;
+
+    public int getCost() {
+        return cost;
+    }
+
+    public void setCost(int cost) {
+        this.cost = cost;
+    }
+
+    public Duration getTargetDuration() {
+        return targetDuration;
+    }
+
+    public void setTargetDuration(Duration targetDuration) {
+        this.targetDuration = targetDuration;
+    }
+
+    public int getMinCost() {
+        return minCost;
+    }
+
+    public void setMinCost(int minCost) {
+        this.minCost = minCost;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+}
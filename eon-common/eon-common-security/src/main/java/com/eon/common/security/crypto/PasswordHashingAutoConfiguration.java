@@ -0,0 +1,52 @@
+package com.eon.common.security.crypto;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 自动装配：密码哈希有界线程池、429 转换过滤器及指标，以及 BCrypt 成本配置。
+ *
+ * <p>线程池只提供执行能力，由各服务的 {@code PasswordEncoder} Bean 通过 {@link BoundedPasswordEncoder} 接入；
+ * 成本因子由 {@link BCryptCostCalibrator} 按 {@link PasswordEncoderProperties} 确定。</p>
+ */
+@AutoConfiguration
+@EnableConfigurationProperties({PasswordHashingProperties.class, PasswordEncoderProperties.class})
+public class PasswordHashingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "eon.security.password-hashing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public PasswordHashingExecutor passwordHashingExecutor(PasswordHashingProperties properties) {
+        return new PasswordHashingExecutor(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "eon.security.password-hashing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnMissingBean(name = "passwordHashingRejectionFilterRegistration")
+    public FilterRegistrationBean<PasswordHashingRejectionFilter> passwordHashingRejectionFilterRegistration() {
+        FilterRegistrationBean<PasswordHashingRejectionFilter> bean = new FilterRegistrationBean<>(new PasswordHashingRejectionFilter());
+        // 需包在 Spring Security 过滤器链（-100）之外
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE + 40);
+        return bean;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "eon.security.password-hashing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class PasswordHashingMetricsConfiguration {
+
+        @Bean
+        public PasswordHashingMetrics passwordHashingMetrics(PasswordHashingExecutor executor) {
+            return new PasswordHashingMetrics(executor);
+        }
+    }
+}
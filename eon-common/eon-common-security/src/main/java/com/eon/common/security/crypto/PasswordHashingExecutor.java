@@ -0,0 +1,100 @@
+package com.eon.common.security.crypto;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希专用的有界线程池。
+ *
+ * <p>BCrypt 单次耗时在数十到数百毫秒，若直接在 Tomcat 工作线程上执行，登录洪峰会占满全部工作线程，
+ * 连 JWKS、发现端点等轻量请求也无法响应。这里将哈希计算收敛到核数大小的线程池：队列满或等待超时
+ * 立即抛出 {@link PasswordHashingRejectedException}，由调用方以 429 返回，而不是无限堆积。</p>
+ */
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor pool;
+    private final long maxWaitNanos;
+    private volatile PasswordHashingListener listener = PasswordHashingListener.NONE;
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties) {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+    }
+
+    void setListener(PasswordHashingListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 在线程池中执行一次哈希运算并等待结果。
+     *
+     * @param operation 操作名（encode / matches），用于指标标签
+     */
+    public <T> T execute(String operation, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                long started = System.nanoTime();
+                listener.onQueued(operation, started - submitted);
+                try {
+                    return task.call();
+                } finally {
+                    listener.onHashed(operation, System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            listener.onRejected(operation);
+            throw new PasswordHashingRejectedException("密码校验繁忙，请稍后重试");
+        }
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            listener.onRejected(operation);
+            throw new PasswordHashingRejectedException("密码校验等待超时，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("密码校验被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
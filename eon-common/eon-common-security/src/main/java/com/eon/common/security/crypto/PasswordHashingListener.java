@@ -0,0 +1,19 @@
+package com.eon.common.security.crypto;
+
+/**
+ * 密码哈希执行事件回调，耗时单位均为纳秒。
+ */
+public interface PasswordHashingListener {
+
+    PasswordHashingListener NONE = new PasswordHashingListener() {
+    };
+
+    default void onQueued(String operation, long nanos) {
+    }
+
+    default void onHashed(String operation, long nanos) {
+    }
+
+    default void onRejected(String operation) {
+    }
+}
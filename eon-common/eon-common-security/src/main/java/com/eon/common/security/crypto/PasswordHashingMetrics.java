@@ -0,0 +1,73 @@
+package com.eon.common.security.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希线程池指标：
+ * {@code eon.security.password.queue}（排队耗时）、{@code eon.security.password.hash}（哈希耗时）、
+ * {@code eon.security.password.rejected}（拒绝次数），以 operation 区分 encode / matches；
+ * 另有活跃线程与队列长度两个 Gauge。
+ *
+ * <p>各 operation 的计时器与计数器在绑定时预先注册，登录热路径上只做一次 Map 查找，
+ * 不再每次构建 Builder 并查询注册表。</p>
+ */
+public class PasswordHashingMetrics implements MeterBinder {
+
+    static final List<String> OPERATIONS = List.of(BoundedPasswordEncoder.ENCODE, BoundedPasswordEncoder.MATCHES);
+
+    private final PasswordHashingExecutor executor;
+
+    public PasswordHashingMetrics(PasswordHashingExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("eon.security.password.active", executor, PasswordHashingExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("eon.security.password.queued", executor, PasswordHashingExecutor::getQueueSize)
+                .register(registry);
+        Map<String, OperationMeters> meters = new ConcurrentHashMap<>();
+        OPERATIONS.forEach(operation -> meters.put(operation, OperationMeters.register(registry, operation)));
+        executor.setListener(new PasswordHashingListener() {
+            @Override
+            public void onQueued(String operation, long nanos) {
+                meters(operation).queue().record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void onHashed(String operation, long nanos) {
+                meters(operation).hash().record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void onRejected(String operation) {
+                meters(operation).rejected().increment();
+            }
+
+            private OperationMeters meters(String operation) {
+                // 预注册之外的操作名（自定义调用方）按需注册一次
+                return meters.computeIfAbsent(operation, op -> OperationMeters.register(registry, op));
+            }
+        });
+    }
+
+    private record OperationMeters(Timer queue, Timer hash, Counter rejected) {
+
+        static OperationMeters register(MeterRegistry registry, String operation) {
+            return new OperationMeters(
+                    Timer.builder("eon.security.password.queue").tag("operation", operation).register(registry),
+                    Timer.builder("eon.security.password.hash").tag("operation", operation).register(registry),
+                    Counter.builder("eon.security.password.rejected").tag("operation", operation).register(registry));
+        }
+    }
+}
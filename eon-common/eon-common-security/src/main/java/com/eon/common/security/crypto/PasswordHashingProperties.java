@@ -0,0 +1,64 @@
+package com.eon.common.security.crypto;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 密码哈希线程池配置。
+ */
+@ConfigurationProperties(prefix = "eon.security.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * 是否将密码哈希 / 校验移交专用线程池执行。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 线程数，0 表示取 CPU 核数；BCrypt 为 CPU 密集型，超过核数只会互相争抢。
+     */
+    private int threads = 0;
+
+    /**
+     * 等待队列长度，队列满时立即拒绝（HTTP 429）。
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 调用方等待结果的最长时间（含排队），超时同样按拒绝处理。
+     */
+    private Duration maxWait = Duration.ofSeconds(3);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
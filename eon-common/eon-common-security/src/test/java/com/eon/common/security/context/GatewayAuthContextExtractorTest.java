@@ -16,6 +16,7 @@ class GatewayAuthContextExtractorTest {
         request.addHeader(AuthHeaderConstants.HDR_X_USER_ID, "1001");
         request.addHeader(AuthHeaderConstants.HDR_X_TENANT_ID, "2001");
         request.addHeader(AuthHeaderConstants.HDR_X_POLICY_VERSION, "3");
+        request.addHeader(AuthHeaderConstants.HDR_X_POLICY_FINGERPRINT, "9f86d081884c7d65");
         request.addHeader(AuthHeaderConstants.HDR_X_ROLES, "ADMIN,USER");
         request.addHeader(AuthHeaderConstants.HDR_X_USER_PERMISSIONS, "user:read,user:update");
         request.addHeader(AuthHeaderConstants.HDR_X_TRACE_ID, "trace-123");
@@ -25,6 +26,7 @@ class GatewayAuthContextExtractorTest {
         assertEquals(1001L, user.userId());
         assertEquals(2001L, user.tenantId());
         assertEquals(3, user.policyVersion());
+        assertEquals("9f86d081884c7d65", user.policyFingerprint());
         assertEquals(Set.of("ADMIN", "USER"), user.roles());
         assertEquals(Set.of("user:read", "user:update"), user.permissions());
         assertEquals("trace-123", user.traceId());
@@ -0,0 +1,39 @@
+package com.eon.common.security.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCostCalibratorTest {
+
+    @Test
+    void calibrate_should_stay_within_bounds() {
+        PasswordEncoderProperties properties = new PasswordEncoderProperties();
+        properties.setMinCost(4);
+        properties.setMaxCost(6);
+
+        properties.setTargetDuration(Duration.ofMinutes(1));
+        assertEquals(6, BCryptCostCalibrator.calibrate(properties));
+
+        properties.setTargetDuration(Duration.ofNanos(1));
+        assertEquals(4, BCryptCostCalibrator.calibrate(properties));
+    }
+
+    @Test
+    void encoder_should_flag_hashes_below_current_cost_for_upgrade() {
+        PasswordEncoderProperties properties = new PasswordEncoderProperties();
+        properties.setCost(5);
+        BCryptPasswordEncoder encoder = BCryptCostCalibrator.encoder(properties);
+
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        String current = encoder.encode("secret");
+
+        assertTrue(current.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+}
@@ -0,0 +1,93 @@
+package com.eon.common.security.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void encoder_should_delegate_and_record_metrics() {
+        executor = executor(1, 4, Duration.ofSeconds(1));
+        new PasswordHashingMetrics(executor).bindTo(registry);
+        PasswordEncoder delegate = NoOpPasswordEncoder.getInstance();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, executor);
+
+        assertEquals("secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "secret"));
+        assertSame(delegate, BoundedPasswordEncoder.unwrap(encoder));
+        assertEquals(1, registry.get("eon.security.password.hash").tag("operation", "matches").timer().count());
+        assertEquals(1, registry.get("eon.security.password.queue").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void metrics_should_be_registered_before_first_hash() {
+        executor = executor(1, 4, Duration.ofSeconds(1));
+        new PasswordHashingMetrics(executor).bindTo(registry);
+
+        for (String operation : PasswordHashingMetrics.OPERATIONS) {
+            assertEquals(0, registry.get("eon.security.password.queue").tag("operation", operation).timer().count());
+            assertEquals(0, registry.get("eon.security.password.hash").tag("operation", operation).timer().count());
+            assertEquals(0.0, registry.get("eon.security.password.rejected").tag("operation", operation).counter().count());
+        }
+    }
+
+    @Test
+    void execute_should_reject_fast_when_queue_full() throws Exception {
+        executor = executor(1, 1, Duration.ofSeconds(5));
+        new PasswordHashingMetrics(executor).bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> true));
+        while (executor.getQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute("matches", () -> true));
+        assertEquals(1.0, registry.get("eon.security.password.rejected").tag("operation", "matches").counter().count());
+
+        release.countDown();
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_should_reject_when_wait_exceeds_limit() {
+        executor = executor(1, 1, Duration.ofMillis(50));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute("encode", () -> {
+            Thread.sleep(1000);
+            return "late";
+        }));
+    }
+
+    private static PasswordHashingExecutor executor(int threads, int queueCapacity, Duration maxWait) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setMaxWait(maxWait);
+        return new PasswordHashingExecutor(properties);
+    }
+}
@@ -74,6 +74,7 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             AuthConstants.HDR_X_USER_ID,
             AuthConstants.HDR_X_TENANT_ID,
             AuthConstants.HDR_X_POLICY_VERSION,
+            AuthConstants.HDR_X_POLICY_FINGERPRINT,
             AuthConstants.HDR_X_ROLES,
             AuthConstants.HDR_X_USER_ROLES,
             AuthConstants.HDR_X_PERMISSIONS,
@@ -156,6 +157,8 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String tenant = stringClaim(jwt, "tenant");
         String policyVersion = stringClaim(jwt, "pv");
+        // 策略指纹：用户版本 + 角色版本向量派生，下游据此判断策略缓存是否过期
+        String policyFingerprint = stringClaim(jwt, "pf");
         List<String> roles = rolesClaim(jwt);
         List<String> permissions = permissionsClaim(jwt);
 
@@ -178,6 +181,9 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
                     if (StringUtils.hasText(policyVersion)) {
                         headers.set(AuthConstants.HDR_X_POLICY_VERSION, policyVersion);
                     }
+                    if (StringUtils.hasText(policyFingerprint)) {
+                        headers.set(AuthConstants.HDR_X_POLICY_FINGERPRINT, policyFingerprint);
+                    }
                     if (!roles.isEmpty()) {
                         String joinedRoles = String.join(",", roles);
                         headers.set(AuthConstants.HDR_X_ROLES, joinedRoles);
@@ -18,6 +18,7 @@ public interface AuthConstants {
     String HDR_X_USER_PERMISSIONS = "X-User-Permissions"; // 兼容旧版本
     String HDR_X_TENANT_ID = "X-Tenant-Id";
     String HDR_X_POLICY_VERSION = "X-Policy-Version";
+    String HDR_X_POLICY_FINGERPRINT = "X-Policy-Fingerprint";
     String HDR_X_TRACE_ID = "X-Trace-Id";
 }
 
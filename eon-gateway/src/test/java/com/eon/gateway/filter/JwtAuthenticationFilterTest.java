@@ -30,6 +30,7 @@ class JwtAuthenticationFilterTest {
                 .claim("uid", "1001")
                 .claim("tenant", "tenant-a")
                 .claim("pv", "p1")
+                .claim("pf", "9f86d081884c7d65")
                 .claim("roles", List.of("ADMIN", "USER"))
                 .claim("permissions", List.of("user:read", "user:write"))
                 .build();
@@ -45,6 +46,7 @@ class JwtAuthenticationFilterTest {
                 .header("X-Permissions", "spoof")
                 .header("X-Tenant-Id", "spoof-tenant")
                 .header("X-Policy-Version", "spoof-policy")
+                .header("X-Policy-Fingerprint", "spoof-fingerprint")
                 .build();
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
         CapturingChain chain = new CapturingChain();
@@ -68,6 +70,7 @@ class JwtAuthenticationFilterTest {
         assertEquals(1, mutated.getHeaders().get("X-User-Id").size());
         assertEquals("tenant-a", mutated.getHeaders().getFirst("X-Tenant-Id"));
         assertEquals("p1", mutated.getHeaders().getFirst("X-Policy-Version"));
+        assertEquals("9f86d081884c7d65", mutated.getHeaders().getFirst("X-Policy-Fingerprint"));
     }
 
     /**
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * EON 用户服务启动类
@@ -16,6 +17,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
  */
 @EnableDiscoveryClient  // 启用Nacos服务发现
 @EnableFeignClients(basePackages = "com.eon.user.remote.feign")
+@EnableScheduling  // 有效权限物化表定期校验
 @SpringBootApplication
 public class EonUserApplication {
     
@@ -3,6 +3,8 @@ package com.eon.user.controller;
 import com.eon.user.dto.AssignPermissionsRequest;
 import com.eon.user.dto.CreateRoleRequest;
 import com.eon.user.dto.RoleResponse;
+import com.eon.user.dto.UpdateRoleParentRequest;
+import com.eon.user.service.TenantDataSourceRouting;
 import com.eon.user.service.UserApplicationService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
@@ -14,19 +16,24 @@ import java.util.List;
 public class RoleController {
 
     private final UserApplicationService userApplicationService;
+    private final TenantDataSourceRouting tenantRouting;
 
-    public RoleController(UserApplicationService userApplicationService) {
+    public RoleController(UserApplicationService userApplicationService, TenantDataSourceRouting tenantRouting) {
         this.userApplicationService = userApplicationService;
+        this.tenantRouting = tenantRouting;
     }
 
     @GetMapping
     public List<RoleResponse> list(@RequestParam(value = "tenantId", required = false) Long tenantId) {
-        return userApplicationService.listRoles(tenantId);
+        return tenantRouting.call(tenantId, () -> userApplicationService.listRoles(tenantId));
     }
 
+    /**
+     * 公共角色（tenantId 为空）写入全局数据源，由 GlobalCatalogReplicator 复制到各分片。
+     */
     @PostMapping
     public RoleResponse create(@RequestBody @Valid CreateRoleRequest request) {
-        return userApplicationService.createRole(request);
+        return tenantRouting.call(request.getTenantId(), () -> userApplicationService.createRole(request));
     }
 
     @PostMapping("/{id}/permissions")
@@ -34,4 +41,10 @@ public class RoleController {
                                           @RequestBody @Valid AssignPermissionsRequest request) {
         return userApplicationService.assignPermissions(roleId, request);
     }
+
+    @PutMapping("/{id}/parent")
+    public RoleResponse changeParent(@PathVariable("id") Long roleId,
+                                     @RequestBody UpdateRoleParentRequest request) {
+        return userApplicationService.changeRoleParent(roleId, request);
+    }
 }
@@ -2,18 +2,34 @@ package com.eon.user.controller;
 
 import com.eon.common.security.context.AuthenticatedUser;
 import com.eon.common.security.context.CurrentUser;
+import com.eon.user.dto.AuthorizeBatchRequest;
+import com.eon.user.dto.BulkImportUsersRequest;
+import com.eon.user.dto.BulkImportUsersResponse;
 import com.eon.user.dto.CreateUserRequest;
 import com.eon.user.dto.UpdateUserRequest;
 import com.eon.user.dto.UserMeResponse;
+import com.eon.user.dto.UserPageResponse;
 import com.eon.user.dto.UserResponse;
+import com.eon.user.dto.UserSearchRequest;
 import com.eon.user.policy.CompiledPolicy;
 import com.eon.user.service.MenuService;
 import com.eon.user.service.PolicyService;
+import com.eon.user.service.TenantDataSourceRouting;
 import com.eon.user.service.UserApplicationService;
+import com.eon.user.service.UserExportService;
+import com.eon.user.service.UserImportService;
+import com.eon.user.service.UserMeCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,17 +41,36 @@ public class UserController {
     private final UserApplicationService userApplicationService;
     private final PolicyService policyService;
     private final MenuService menuService;
+    private final UserMeCache userMeCache;
+    private final ObjectMapper objectMapper;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final TenantDataSourceRouting tenantRouting;
 
     public UserController(UserApplicationService userApplicationService,
                           PolicyService policyService,
-                          MenuService menuService) {
+                          MenuService menuService,
+                          UserMeCache userMeCache,
+                          ObjectMapper objectMapper,
+                          UserExportService userExportService,
+                          UserImportService userImportService,
+                          TenantDataSourceRouting tenantRouting) {
         this.userApplicationService = userApplicationService;
         this.policyService = policyService;
         this.menuService = menuService;
+        this.userMeCache = userMeCache;
+        this.objectMapper = objectMapper;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
+        this.tenantRouting = tenantRouting;
     }
 
+    /**
+     * 当前用户信息：命中序列化缓存时直接返回字节数组，If-None-Match 与 ETag 一致时返回 304。
+     */
     @GetMapping("/me")
-    public ResponseEntity<UserMeResponse> me(@CurrentUser AuthenticatedUser currentUser) {
+    public ResponseEntity<byte[]> me(@CurrentUser AuthenticatedUser currentUser,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             // 验证用户信息是否有效
             if (currentUser == null || currentUser.userId() == null) {
@@ -44,31 +79,27 @@ public class UserController {
             }
             
             Long userId = currentUser.userId();
-            log.debug("获取用户信息，用户ID: {}", userId);
-            
-            // 获取用户基础信息
-            UserResponse profile = userApplicationService.getUserProfile(userId);
-            if (profile == null) {
-                log.warn("用户不存在，用户ID: {}", userId);
-                return ResponseEntity.notFound().build();
+            UserMeCache.Entry cached = userMeCache.get(userId, currentUser.policyFingerprint());
+            if (cached == null) {
+                log.debug("获取用户信息，用户ID: {}", userId);
+                cached = buildMe(currentUser);
+                if (cached == null) {
+                    log.warn("用户不存在，用户ID: {}", userId);
+                    return ResponseEntity.notFound().build();
+                }
             }
-            
-            // 确定策略版本：优先使用用户上下文中的版本，否则使用用户档案中的版本
-            int policyVersion = currentUser.policyVersion() != null
-                    ? currentUser.policyVersion()
-                    : profile.getPolicyVersion();
-            
-            // 获取权限策略和菜单
-            CompiledPolicy policy = policyService.getPolicy(userId, policyVersion);
-            List<MenuService.MenuNode> menus = menuService.userMenus(userId, currentUser.tenantId(), policy);
-            
-            // 构建响应对象
-            UserMeResponse response = new UserMeResponse();
-            response.setProfile(profile);
-            response.setMenus(menus);
-            
-            log.debug("用户信息获取成功，用户ID: {}", userId);
-            return ResponseEntity.ok(response);
+
+            if (UserMeCache.matches(ifNoneMatch, cached.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(cached.etag())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(cached.etag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached.body());
             
         } catch (Exception e) {
             log.error("获取用户信息失败", e);
@@ -76,6 +107,84 @@ public class UserController {
         }
     }
 
+    private UserMeCache.Entry buildMe(AuthenticatedUser currentUser) throws Exception {
+        Long userId = currentUser.userId();
+
+        // 获取用户基础信息
+        UserResponse profile = userApplicationService.getUserProfile(userId);
+        if (profile == null) {
+            return null;
+        }
+
+        // 获取权限策略和菜单（策略按库中指纹校验）
+        CompiledPolicy policy = policyService.getPolicy(userId);
+        List<MenuService.MenuNode> menus = menuService.userMenus(userId, currentUser.tenantId(), policy);
+
+        // 构建响应对象
+        UserMeResponse response = new UserMeResponse();
+        response.setProfile(profile);
+        response.setMenus(menus);
+
+        // 以库中指纹入缓存，令牌刷新到该指纹后即可命中
+        return userMeCache.put(userId, policy.getPolicyFingerprint(), objectMapper.writeValueAsBytes(response));
+    }
+
+    /**
+     * 批量权限判定：一次往返返回多项 (method, path) / 权限键的判定结果。
+     * 基于缓存的 CompiledPolicy 求值，结果逐项流式写出，避免大批量时整体物化响应。
+     */
+    @PostMapping("/me/authorize")
+    public ResponseEntity<StreamingResponseBody> authorize(@CurrentUser AuthenticatedUser currentUser,
+                                                           @RequestBody @Valid AuthorizeBatchRequest request) {
+        if (currentUser == null || currentUser.userId() == null) {
+            log.warn("用户认证信息缺失");
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId = currentUser.userId();
+        CompiledPolicy policy = policyService.getPolicy(userId);
+        List<AuthorizeBatchRequest.Item> items = request.getItems();
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeNumberField("userId", userId);
+                gen.writeObjectField("policyVersion", policy.getPolicyVersion());
+                gen.writeArrayFieldStart("decisions");
+                for (int i = 0; i < items.size(); i++) {
+                    objectMapper.writeValue(gen, policyService.decide(policy, i, items.get(i)));
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * 用户列表：?tenantId=&username=&email=&active=&cursor=&limit=&count=NONE|ESTIMATE|EXACT，
+     * 下一页以响应中的 nextCursor 作为 cursor。按 tenantId 所在分片查询，而非调用方租户。
+     */
+    @GetMapping
+    public UserPageResponse list(UserSearchRequest request) {
+        return tenantRouting.call(request.getTenantId(), () -> userApplicationService.listUsers(request));
+    }
+
+    /**
+     * 租户用户全量导出（NDJSON / CSV），结果边查边写，不在内存中累积。
+     * 写出在 MVC 异步线程执行，目标分片在该线程上按 tenantId 显式路由。
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "tenantId", required = false) Long tenantId,
+            @RequestParam(value = "format", defaultValue = "NDJSON") UserExportService.Format format) {
+        String filename = "users-" + (tenantId == null ? "global" : tenantId) + "." + format.getExtension();
+        StreamingResponseBody body = out -> tenantRouting.run(tenantId, () -> userExportService.export(tenantId, format, out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public UserResponse getById(@PathVariable("id") Long userId) {
         return userApplicationService.getUserDetail(userId);
@@ -83,7 +192,15 @@ public class UserController {
 
     @PostMapping
     public UserResponse create(@RequestBody @Valid CreateUserRequest request) {
-        return userApplicationService.createUser(request);
+        return tenantRouting.call(request.getTenantId(), () -> userApplicationService.createUser(request));
+    }
+
+    /**
+     * 批量导入：逐行返回结果，单行失败不影响其他行。
+     */
+    @PostMapping("/import")
+    public BulkImportUsersResponse importUsers(@RequestBody @Valid BulkImportUsersRequest request) {
+        return tenantRouting.call(request.getTenantId(), () -> userImportService.importUsers(request));
     }
 
     @PatchMapping("/{id}")
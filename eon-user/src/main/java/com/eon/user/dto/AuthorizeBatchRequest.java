@@ -0,0 +1,71 @@
+package com.eon.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class AuthorizeBatchRequest {
+
+    @Valid
+    @NotEmpty(message = "待判定项不能为空")
+    @Size(max = 5000, message = "单次最多判定 5000 项")
+    private List<@NotNull(message = "判定项不能为空") Item> items;
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * 单个判定项：传 permission（权限键）或 method + path 二选一。
+     */
+    public static class Item {
+        private String permission;
+        private String method;
+        private String path;
+
+        public String getPermission() {
+            return permission;
+        }
+
+        public void setPermission(String permission) {
+            this.permission = permission;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        /**
+         * 判定目标互斥且完整：只传 permission，或同时传 method 与 path。
+         */
+        @JsonIgnore
+        @AssertTrue(message = "判定项需传 permission 或 method + path 二选一")
+        public boolean isTargetValid() {
+            boolean byPermission = permission != null && !permission.isBlank();
+            boolean hasMethod = method != null && !method.isBlank();
+            boolean hasPath = path != null && !path.isBlank();
+            return byPermission ? !hasMethod && !hasPath : hasMethod && hasPath;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.eon.user.dto;
+
+public class AuthorizeDecision {
+    private int index;
+    private String permission;
+    private String method;
+    private String path;
+    private boolean allowed;
+    private String matchedKey;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getPermission() {
+        return permission;
+    }
+
+    public void setPermission(String permission) {
+        this.permission = permission;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public void setAllowed(boolean allowed) {
+        this.allowed = allowed;
+    }
+
+    public String getMatchedKey() {
+        return matchedKey;
+    }
+
+    public void setMatchedKey(String matchedKey) {
+        this.matchedKey = matchedKey;
+    }
+}
@@ -0,0 +1,85 @@
+package com.eon.user.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkImportUsersRequest {
+
+    private Long tenantId;
+
+    /**
+     * 行级字段在服务端逐行校验，单行不合法不影响其他行。
+     */
+    @NotEmpty(message = "导入用户不能为空")
+    @Size(max = 50000, message = "单次最多导入 50000 个用户")
+    private List<Item> users;
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public List<Item> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<Item> users) {
+        this.users = users;
+    }
+
+    public static class Item {
+
+        @NotBlank(message = "用户名不能为空")
+        @Size(max = 64, message = "用户名长度不能超过64位")
+        private String username;
+
+        @NotBlank(message = "初始密码不能为空")
+        @Size(min = 8, max = 64, message = "密码长度需在8~64位之间")
+        private String password;
+
+        @Email(message = "邮箱格式不正确")
+        private String email;
+
+        private List<@NotNull(message = "角色 ID 不能为空") Long> roleIds;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public List<Long> getRoleIds() {
+            return roleIds;
+        }
+
+        public void setRoleIds(List<Long> roleIds) {
+            this.roleIds = roleIds;
+        }
+    }
+}
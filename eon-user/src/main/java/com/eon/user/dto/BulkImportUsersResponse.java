@@ -0,0 +1,102 @@
+package com.eon.user.dto;
+
+import java.util.List;
+
+public class BulkImportUsersResponse {
+    private int created;
+    private int failed;
+    private List<RowResult> results;
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<RowResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<RowResult> results) {
+        this.results = results;
+    }
+
+    public enum Status {
+        CREATED,
+        /** 用户名已存在或在本批次中重复 */
+        DUPLICATE,
+        /** 字段校验失败或角色不存在 */
+        INVALID,
+        /** 写库失败（如并发导入导致唯一键冲突） */
+        FAILED
+    }
+
+    public static class RowResult {
+        private int index;
+        private String username;
+        private Status status;
+        private Long userId;
+        private String message;
+
+        public RowResult() {
+        }
+
+        public RowResult(int index, String username, Status status, Long userId, String message) {
+            this.index = index;
+            this.username = username;
+            this.status = status;
+            this.userId = userId;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
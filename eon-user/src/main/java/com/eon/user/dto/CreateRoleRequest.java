@@ -14,6 +14,8 @@ public class CreateRoleRequest {
     @NotBlank(message = "角色名称不能为空")
     private String name;
 
+    private Long parentId;
+
     private Boolean system;
 
     private List<Long> permissionIds;
@@ -42,6 +44,14 @@ public class CreateRoleRequest {
         this.name = name;
     }
 
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
     public Boolean getSystem() {
         return system;
     }
@@ -7,6 +7,7 @@ public class RoleResponse {
     private Long tenantId;
     private String code;
     private String name;
+    private Long parentId;
     private Boolean system;
     private List<String> permissions;
 
@@ -42,6 +43,14 @@ public class RoleResponse {
         this.name = name;
     }
 
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
     public Boolean getSystem() {
         return system;
     }
@@ -0,0 +1,17 @@
+package com.eon.user.dto;
+
+public class UpdateRoleParentRequest {
+
+    /**
+     * 新的父角色 ID，为空表示移为顶级角色。
+     */
+    private Long parentId;
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
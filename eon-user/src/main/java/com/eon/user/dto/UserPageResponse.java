@@ -0,0 +1,54 @@
+package com.eon.user.dto;
+
+import java.util.List;
+
+public class UserPageResponse {
+    private List<UserResponse> items;
+    /** 下一页游标（本页最后一条 ID），没有更多数据时为空 */
+    private Long nextCursor;
+    private boolean hasMore;
+    /** 总数，未请求统计时为空 */
+    private Long total;
+    /** total 是否为精确值；封顶计数触顶时为 false */
+    private Boolean totalExact;
+
+    public List<UserResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserResponse> items) {
+        this.items = items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Boolean getTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(Boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+}
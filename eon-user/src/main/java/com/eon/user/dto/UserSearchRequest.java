@@ -0,0 +1,89 @@
+package com.eon.user.dto;
+
+/**
+ * 用户列表查询条件（查询参数绑定）。
+ */
+public class UserSearchRequest {
+
+    public enum CountMode {
+        /** 不统计总数 */
+        NONE,
+        /** 封顶计数：超过上限时只返回上限值 */
+        ESTIMATE,
+        /** 精确计数 */
+        EXACT
+    }
+
+    private Long tenantId;
+
+    /** 用户名前缀 */
+    private String username;
+
+    /** 邮箱前缀 */
+    private String email;
+
+    private Boolean active;
+
+    /** 上一页最后一条记录的 ID，为空表示第一页 */
+    private Long cursor;
+
+    private Integer limit;
+
+    private CountMode count = CountMode.NONE;
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public CountMode getCount() {
+        return count;
+    }
+
+    public void setCount(CountMode count) {
+        this.count = count;
+    }
+}
@@ -1,5 +1,6 @@
 package com.eon.user.entity;
 
+import com.eon.common.core.util.PathTemplate;
 import jakarta.persistence.*;
 
 @Entity
@@ -19,6 +20,7 @@ public class ApiResource {
     @Column(name = "path_template")
     private String pathTemplate;
     
+    // 由 path_template 派生的规范正则，仅用于展示与外部系统；运行时匹配使用 PathTemplate
     @Column(name = "path_regex")
     private String pathRegex;
     
@@ -30,6 +32,17 @@ public class ApiResource {
     
     private String description;
 
+    /**
+     * 写入前校验模板并派生规范正则，避免手写正则与模板不一致。
+     */
+    @PrePersist
+    @PreUpdate
+    void deriveRegex() {
+        if (pathTemplate != null) {
+            pathRegex = PathTemplate.parse(pathTemplate).toRegex();
+        }
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -19,9 +19,15 @@ public class Role {
     @Column(nullable = false)
     private String name;
     
+    @Column(name = "parent_id")
+    private Long parentId;
+
     @Column(name = "is_system")
     private Boolean isSystem;
 
+    @Column(name = "policy_version")
+    private Integer policyVersion;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -34,6 +40,12 @@ public class Role {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+
     public Boolean getIsSystem() { return isSystem; }
     public void setIsSystem(Boolean isSystem) { this.isSystem = isSystem; }
+
+    public Integer getPolicyVersion() { return policyVersion; }
+    public void setPolicyVersion(Integer policyVersion) { this.policyVersion = policyVersion; }
 }
\ No newline at end of file
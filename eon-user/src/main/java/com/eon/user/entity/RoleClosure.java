@@ -0,0 +1,32 @@
+package com.eon.user.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 角色继承的传递闭包：每个角色对自身有一行 depth=0，对每个祖先各有一行。
+ * 子角色继承祖先角色的全部权限，有效权限经 descendant_id -> ancestor_id 一次索引连接得到。
+ */
+@Entity
+@Table(name = "role_closure")
+@IdClass(RoleClosureKey.class)
+public class RoleClosure {
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    public Long getAncestorId() { return ancestorId; }
+    public void setAncestorId(Long ancestorId) { this.ancestorId = ancestorId; }
+
+    public Long getDescendantId() { return descendantId; }
+    public void setDescendantId(Long descendantId) { this.descendantId = descendantId; }
+
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+}
@@ -0,0 +1,35 @@
+package com.eon.user.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class RoleClosureKey implements Serializable {
+    private Long ancestorId;
+    private Long descendantId;
+
+    public RoleClosureKey() {}
+
+    public RoleClosureKey(Long ancestorId, Long descendantId) {
+        this.ancestorId = ancestorId;
+        this.descendantId = descendantId;
+    }
+
+    public Long getAncestorId() { return ancestorId; }
+    public void setAncestorId(Long ancestorId) { this.ancestorId = ancestorId; }
+
+    public Long getDescendantId() { return descendantId; }
+    public void setDescendantId(Long descendantId) { this.descendantId = descendantId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RoleClosureKey that = (RoleClosureKey) o;
+        return Objects.equals(ancestorId, that.ancestorId) && Objects.equals(descendantId, that.descendantId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ancestorId, descendantId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.eon.user.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 用户有效权限物化表：user_roles × role_permissions 的展开结果，
+ * 在角色分配与角色权限变更时增量维护，读取时按 user_id 一次索引查询。
+ */
+@Entity
+@Table(name = "user_effective_permissions")
+@IdClass(UserEffectivePermissionKey.class)
+public class UserEffectivePermission {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "permission_id")
+    private Long permissionId;
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPermissionId() { return permissionId; }
+    public void setPermissionId(Long permissionId) { this.permissionId = permissionId; }
+}
@@ -0,0 +1,35 @@
+package com.eon.user.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class UserEffectivePermissionKey implements Serializable {
+    private Long userId;
+    private Long permissionId;
+
+    public UserEffectivePermissionKey() {}
+
+    public UserEffectivePermissionKey(Long userId, Long permissionId) {
+        this.userId = userId;
+        this.permissionId = permissionId;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPermissionId() { return permissionId; }
+    public void setPermissionId(Long permissionId) { this.permissionId = permissionId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserEffectivePermissionKey that = (UserEffectivePermissionKey) o;
+        return Objects.equals(userId, that.userId) && Objects.equals(permissionId, that.permissionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, permissionId);
+    }
+}
@@ -1,20 +1,25 @@
 package com.eon.user.policy;
 
+import com.eon.common.core.util.PathTemplate;
+
 import java.util.*;
-import java.util.regex.Pattern;
 
 public class CompiledPolicy {
     private Long userId;
     private Integer policyVersion;
+    // 策略指纹：用户版本 + 角色版本向量
+    private String policyFingerprint;
     // 菜单权限：permission_key -> ALLOW/DENY
     private Map<String, String> menuEffects;
     // API 规则
     private List<ApiRule> apiRules;
+    // 权限键 -> ALLOW/DENY 索引（惰性构建）
+    private volatile Map<String, String> keyEffects;
 
     public static class ApiRule {
         private String key;              // api:GET:/users/:id
         private String method;           // GET/* ...
-        private Pattern regex;           // 已编译
+        private PathTemplate template;   // 已解析的路径模板
         private String effect;           // ALLOW/DENY
 
         public String getKey() { return key; }
@@ -23,22 +28,84 @@ public class CompiledPolicy {
         public String getMethod() { return method; }
         public void setMethod(String method) { this.method = method; }
 
-        public Pattern getRegex() { return regex; }
-        public void setRegex(Pattern regex) { this.regex = regex; }
+        public PathTemplate getTemplate() { return template; }
+        public void setTemplate(PathTemplate template) { this.template = template; }
 
         public String getEffect() { return effect; }
         public void setEffect(String effect) { this.effect = effect; }
     }
 
+    public static final String ALLOW = "ALLOW";
+    public static final String DENY = "DENY";
+
+    /**
+     * 按 method + path 判定 API 访问：命中 DENY 优先，其次 ALLOW，未命中默认 DENY。
+     * 返回命中的规则键，未命中返回 null。
+     */
+    public ApiRule matchApi(String method, String path) {
+        if (apiRules == null || method == null || path == null) {
+            return null;
+        }
+        String m = method.toUpperCase();
+        ApiRule allowed = null;
+        for (ApiRule rule : apiRules) {
+            if (!"*".equals(rule.getMethod()) && !rule.getMethod().equals(m)) {
+                continue;
+            }
+            if (!rule.getTemplate().matches(path)) {
+                continue;
+            }
+            if (DENY.equals(rule.getEffect())) {
+                return rule;
+            }
+            if (allowed == null) {
+                allowed = rule;
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * 按权限键（menu:xxx / api:METHOD:/path）判定，未声明的键默认 DENY。
+     */
+    public String effectOf(String permissionKey) {
+        if (permissionKey == null) {
+            return DENY;
+        }
+        return keyEffects().getOrDefault(permissionKey, DENY);
+    }
+
+    // 权限键 -> 效果的索引，首次判定时构建；策略对象随缓存复用，批量判定无需反复遍历规则
+    private Map<String, String> keyEffects() {
+        Map<String, String> index = keyEffects;
+        if (index == null) {
+            index = new HashMap<>();
+            if (menuEffects != null) {
+                index.putAll(menuEffects);
+            }
+            if (apiRules != null) {
+                for (ApiRule rule : apiRules) {
+                    index.merge(rule.getKey(), rule.getEffect(),
+                            (a, b) -> DENY.equals(a) || DENY.equals(b) ? DENY : a);
+                }
+            }
+            keyEffects = index;
+        }
+        return index;
+    }
+
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
 
     public Integer getPolicyVersion() { return policyVersion; }
     public void setPolicyVersion(Integer policyVersion) { this.policyVersion = policyVersion; }
 
+    public String getPolicyFingerprint() { return policyFingerprint; }
+    public void setPolicyFingerprint(String policyFingerprint) { this.policyFingerprint = policyFingerprint; }
+
     public Map<String, String> getMenuEffects() { return menuEffects; }
-    public void setMenuEffects(Map<String, String> menuEffects) { this.menuEffects = menuEffects; }
+    public void setMenuEffects(Map<String, String> menuEffects) { this.menuEffects = menuEffects; this.keyEffects = null; }
 
     public List<ApiRule> getApiRules() { return apiRules; }
-    public void setApiRules(List<ApiRule> apiRules) { this.apiRules = apiRules; }
+    public void setApiRules(List<ApiRule> apiRules) { this.apiRules = apiRules; this.keyEffects = null; }
 }
\ No newline at end of file
@@ -2,8 +2,25 @@ package com.eon.user.repository;
 
 import com.eon.user.entity.Permission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
-}
\ No newline at end of file
+
+    /**
+     * 用户的有效权限键（读取物化表，按 user_id 索引查询）。
+     */
+    @Query("select distinct p.resourceKey from Permission p, UserEffectivePermission e " +
+            "where e.permissionId = p.id and e.userId = :userId")
+    List<String> findResourceKeysByUserId(@Param("userId") Long userId);
+
+    /**
+     * 用户的有效权限（读取物化表），用于编译策略。
+     */
+    @Query("select p from Permission p, UserEffectivePermission e where e.permissionId = p.id and e.userId = :userId")
+    List<Permission> findEffectiveByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,64 @@
+package com.eon.user.repository;
+
+import com.eon.user.entity.RoleClosure;
+import com.eon.user.entity.RoleClosureKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 角色闭包表的集合式维护语句。
+ */
+@Repository
+public interface RoleClosureRepository extends JpaRepository<RoleClosure, RoleClosureKey> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    /**
+     * 以 roleId 为根的子树（含自身）。
+     */
+    @Query("select c.descendantId from RoleClosure c where c.ancestorId = :roleId")
+    List<Long> findSubtreeIds(@Param("roleId") Long roleId);
+
+    /**
+     * 为新角色写入自身行及其相对父角色所有祖先的行。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO role_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT :roleId, :roleId, 0 UNION ALL " +
+            "SELECT c.ancestor_id, :roleId, c.depth + 1 FROM role_closure c WHERE c.descendant_id = :parentId",
+            nativeQuery = true)
+    int insertLinks(@Param("roleId") Long roleId, @Param("parentId") Long parentId);
+
+    /**
+     * 断开子树与其外部祖先的连接（子树内部的行保持不变）。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from RoleClosure c where c.descendantId in :subtree and c.ancestorId not in :subtree")
+    int detachSubtree(@Param("subtree") Collection<Long> subtree);
+
+    /**
+     * 将子树挂到新父角色下：新父角色的每个祖先 × 子树中的每个节点。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO role_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+            "FROM role_closure p CROSS JOIN role_closure s " +
+            "WHERE p.descendant_id = :parentId AND s.ancestor_id = :roleId", nativeQuery = true)
+    int attachSubtree(@Param("roleId") Long roleId, @Param("parentId") Long parentId);
+
+    /**
+     * 补齐缺失的自身行（存量角色在引入闭包表前创建时没有这一行）；与创建角色并发时重复行忽略。
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO role_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT r.id, r.id, 0 FROM roles r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM role_closure c WHERE c.ancestor_id = r.id AND c.descendant_id = r.id)",
+            nativeQuery = true)
+    int insertMissingSelfLinks();
+}
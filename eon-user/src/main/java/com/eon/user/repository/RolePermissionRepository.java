@@ -3,8 +3,11 @@ package com.eon.user.repository;
 import com.eon.user.entity.RolePermission;
 import com.eon.user.entity.RolePermissionKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,17 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     List<RolePermission> findByRoleIdIn(Iterable<Long> roleIds);
     List<RolePermission> findByRoleId(Long roleId);
     void deleteByRoleId(Long roleId);
+
+    /**
+     * 批量加载多个角色的权限键，避免逐个角色查询。
+     */
+    @Query("select rp.roleId as roleId, p.resourceKey as resourceKey from RolePermission rp, Permission p " +
+            "where rp.permissionId = p.id and rp.roleId in :roleIds")
+    List<RolePermissionKeyView> findPermissionKeysByRoleIdIn(@Param("roleIds") Collection<Long> roleIds);
+
+    interface RolePermissionKeyView {
+        Long getRoleId();
+
+        String getResourceKey();
+    }
 }
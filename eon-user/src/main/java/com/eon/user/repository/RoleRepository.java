@@ -2,11 +2,43 @@ package com.eon.user.repository;
 
 import com.eon.user.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     List<Role> findByTenantIdOrTenantIdIsNull(Long tenantId);
+
+    /**
+     * 用户已分配角色的编码（单条连接查询）。
+     */
+    @Query("select r.code from Role r, UserRole ur where ur.roleId = r.id and ur.userId = :userId")
+    List<String> findCodesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 一批用户的角色编码（列表页批量加载）。
+     */
+    @Query("select ur.userId as userId, r.code as code from Role r, UserRole ur " +
+            "where ur.roleId = r.id and ur.userId in :userIds")
+    List<UserRoleCodeView> findCodesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 提升角色及其所有子角色的策略版本：子角色继承该角色的权限，
+     * 持有者的策略指纹随之变化，无需改写用户行。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Role r set r.policyVersion = coalesce(r.policyVersion, 0) + 1 " +
+            "where r.id = :roleId or r.id in (select c.descendantId from RoleClosure c where c.ancestorId = :roleId)")
+    int bumpPolicyVersion(@Param("roleId") Long roleId);
+
+    interface UserRoleCodeView {
+        Long getUserId();
+
+        String getCode();
+    }
 }
@@ -0,0 +1,123 @@
+package com.eon.user.repository;
+
+import com.eon.user.entity.UserEffectivePermission;
+import com.eon.user.entity.UserEffectivePermissionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户有效权限物化表的集合式维护语句，均不加载实体。
+ * 推导经角色闭包展开：用户角色 -> 该角色的所有祖先（含自身）-> 祖先角色的权限。
+ */
+@Repository
+public interface UserEffectivePermissionRepository extends JpaRepository<UserEffectivePermission, UserEffectivePermissionKey> {
+
+    String DERIVED_FROM = "FROM user_roles ur " +
+            "JOIN role_closure rc ON rc.descendant_id = ur.role_id " +
+            "JOIN role_permissions rp ON rp.role_id = rc.ancestor_id ";
+
+    /**
+     * 持有 roleId 或其任一子角色的用户。
+     */
+    String ROLE_HOLDERS = "SELECT h.user_id FROM user_roles h " +
+            "JOIN role_closure hc ON hc.descendant_id = h.role_id WHERE hc.ancestor_id = :roleId";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_effective_permissions WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_effective_permissions (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id " + DERIVED_FROM +
+            "WHERE ur.user_id = :userId", nativeQuery = true)
+    int insertForUser(@Param("userId") Long userId);
+
+    /**
+     * 为一批（尚无物化行的）新用户写入有效权限。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_effective_permissions (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id " + DERIVED_FROM +
+            "WHERE ur.user_id IN (:userIds)", nativeQuery = true)
+    int insertForUsers(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 角色新增授权：为该角色及其子角色的持有者补写新增的权限，已有的行忽略。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO user_effective_permissions (user_id, permission_id) " +
+            "SELECT DISTINCT h.user_id, p.id FROM user_roles h " +
+            "JOIN role_closure hc ON hc.descendant_id = h.role_id " +
+            "JOIN permissions p ON p.id IN (:permissionIds) " +
+            "WHERE hc.ancestor_id = :roleId", nativeQuery = true)
+    int insertGrantedForRoleHolders(@Param("roleId") Long roleId,
+                                    @Param("permissionIds") Collection<Long> permissionIds);
+
+    /**
+     * 角色撤销授权：删除持有者的这些权限行，仍可经其他角色（或祖先角色）推导出的保留。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_effective_permissions " +
+            "WHERE permission_id IN (:permissionIds) AND user_id IN (" + ROLE_HOLDERS + ") " +
+            "AND NOT EXISTS (SELECT 1 " + DERIVED_FROM +
+            "WHERE ur.user_id = user_effective_permissions.user_id " +
+            "AND rp.permission_id = user_effective_permissions.permission_id)", nativeQuery = true)
+    int deleteRevokedForRoleHolders(@Param("roleId") Long roleId,
+                                    @Param("permissionIds") Collection<Long> permissionIds);
+
+    /**
+     * 角色继承关系变化：只补写持有者缺失的行。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO user_effective_permissions (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id " + DERIVED_FROM +
+            "WHERE ur.user_id IN (" + ROLE_HOLDERS + ") " +
+            "AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e " +
+            "WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)", nativeQuery = true)
+    int insertMissingForRoleHolders(@Param("roleId") Long roleId);
+
+    /**
+     * 角色继承关系变化：只删除持有者已无来源的行。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_effective_permissions " +
+            "WHERE user_id IN (" + ROLE_HOLDERS + ") " +
+            "AND NOT EXISTS (SELECT 1 " + DERIVED_FROM +
+            "WHERE ur.user_id = user_effective_permissions.user_id " +
+            "AND rp.permission_id = user_effective_permissions.permission_id)", nativeQuery = true)
+    int deleteStaleForRoleHolders(@Param("roleId") Long roleId);
+
+    /**
+     * 校验任务按用户 ID 分片的游标：(afterUserId, ...] 内的下一批用户 ID。
+     */
+    @Query(value = "SELECT id FROM users WHERE id > :afterUserId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findUserIdsAfter(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+
+    /**
+     * 补写用户 ID 区间 (fromUserId, toUserId] 内缺失的行；与在线维护并发时重复行忽略。
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_effective_permissions (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id " + DERIVED_FROM +
+            "WHERE ur.user_id > :fromUserId AND ur.user_id <= :toUserId " +
+            "AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e " +
+            "WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)", nativeQuery = true)
+    int insertMissing(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+
+    /**
+     * 删除用户 ID 区间 (fromUserId, toUserId] 内已无角色来源的行。
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_effective_permissions " +
+            "WHERE user_id > :fromUserId AND user_id <= :toUserId " +
+            "AND NOT EXISTS (SELECT 1 " + DERIVED_FROM +
+            "WHERE ur.user_id = user_effective_permissions.user_id " +
+            "AND rp.permission_id = user_effective_permissions.permission_id)", nativeQuery = true)
+    int deleteStale(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+}
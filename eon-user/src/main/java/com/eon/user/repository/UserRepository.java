@@ -1,13 +1,83 @@
 package com.eon.user.repository;
 
 import com.eon.user.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * 列表查询的公共过滤条件：租户（为空表示全局用户）、用户名/邮箱前缀、启用状态。
+     */
+    String SEARCH_FILTER = "(u.tenantId = :tenantId or (:tenantId is null and u.tenantId is null)) " +
+            "and (:username is null or u.username like :username escape '!') " +
+            "and (:email is null or u.email like :email escape '!') " +
+            "and (:active is null or u.isActive = :active)";
+
     Optional<User> findByUsernameAndTenantId(String username, Long tenantId);
     Optional<User> findByUsername(String username);
+
+    /**
+     * 批量唯一性检查：返回给定用户名中在该租户下已存在的部分。
+     */
+    @Query("select u.username from User u where (u.tenantId = :tenantId or (:tenantId is null and u.tenantId is null)) " +
+            "and u.username in :usernames")
+    List<String> findExistingUsernames(@Param("tenantId") Long tenantId,
+                                       @Param("usernames") Collection<String> usernames);
+
+    /**
+     * 策略版本向量：用户自身版本与所持角色版本（左连接，无角色时返回一行且角色列为空）。
+     */
+    @Query("select u.policyVersion as userVersion, r.id as roleId, r.policyVersion as roleVersion " +
+            "from User u left join UserRole ur on ur.userId = u.id left join Role r on r.id = ur.roleId " +
+            "where u.id = :userId")
+    List<PolicyVersionView> findPolicyVersionVector(@Param("userId") Long userId);
+
+    /**
+     * 键集分页：按 (tenant_id, id) 定位，游标之后取 limit 条，翻页成本与页码无关。
+     * 用户名 / 邮箱为前缀匹配（调用方负责以 ! 转义通配符）。
+     */
+    @Query("select u from User u where " + SEARCH_FILTER + " and (:afterId is null or u.id > :afterId) order by u.id")
+    List<User> findPage(@Param("tenantId") Long tenantId,
+                        @Param("username") String usernamePrefix,
+                        @Param("email") String emailPrefix,
+                        @Param("active") Boolean active,
+                        @Param("afterId") Long afterId,
+                        Limit limit);
+
+    @Query("select count(u) from User u where " + SEARCH_FILTER)
+    long countMatching(@Param("tenantId") Long tenantId,
+                       @Param("username") String usernamePrefix,
+                       @Param("email") String emailPrefix,
+                       @Param("active") Boolean active);
+
+    /**
+     * 封顶计数：最多扫描 cap 行，大租户下也保持廉价。
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM users u WHERE " +
+            "(u.tenant_id = :tenantId OR (:tenantId IS NULL AND u.tenant_id IS NULL)) " +
+            "AND (:username IS NULL OR u.username LIKE :username ESCAPE '!') " +
+            "AND (:email IS NULL OR u.email LIKE :email ESCAPE '!') " +
+            "AND (:active IS NULL OR u.is_active = :active) LIMIT :cap) t", nativeQuery = true)
+    long countMatchingCapped(@Param("tenantId") Long tenantId,
+                             @Param("username") String usernamePrefix,
+                             @Param("email") String emailPrefix,
+                             @Param("active") Boolean active,
+                             @Param("cap") int cap);
+
+    interface PolicyVersionView {
+        Integer getUserVersion();
+
+        Long getRoleId();
+
+        Integer getRoleVersion();
+    }
 }
\ No newline at end of file
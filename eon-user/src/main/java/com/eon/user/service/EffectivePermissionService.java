@@ -0,0 +1,186 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import com.eon.user.repository.RoleClosureRepository;
+import com.eon.user.repository.UserEffectivePermissionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 用户有效权限物化表维护：
+ * 角色分配变化时重算单个用户；角色授权变化时只为持有者写入新增 / 撤销的权限差量，
+ * 继承关系变化时只补写缺失行、删除无来源行；
+ * 后台任务按用户 ID 分片比对物化表与 user_roles × role_closure × role_permissions 的推导结果并修复漂移，
+ * 每片一个短事务，写入幂等（INSERT IGNORE），多实例同时运行只是重复扫描。
+ * 启用租户分片时后台任务逐个校验全局库与各分片：公共角色的授权在全局库变更，
+ * 分片上的持有者只能由 {@link GlobalCatalogReplicator} 复制后按分片修复。
+ */
+@Slf4j
+@Service
+public class EffectivePermissionService {
+
+    static final int VERIFY_CHUNK_SIZE = 1000;
+
+    private final UserEffectivePermissionRepository repository;
+    private final RoleClosureRepository closureRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSourceContextHolder contextHolder;
+    private final TenantShardRouter router;
+
+    public EffectivePermissionService(UserEffectivePermissionRepository repository,
+                                      RoleClosureRepository closureRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      DataSource dataSource,
+                                      ObjectProvider<DataSourceContextHolder> contextHolder) throws SQLException {
+        this(repository, closureRepository, transactionManager, contextHolder.getIfAvailable(),
+                dataSource.isWrapperFor(DynamicRoutingDataSource.class)
+                        ? dataSource.unwrap(DynamicRoutingDataSource.class).getTenantShardRouter() : null);
+    }
+
+    /**
+     * @param router 租户分片路由，为空表示未启用分片，只校验当前数据源
+     */
+    EffectivePermissionService(UserEffectivePermissionRepository repository,
+                               RoleClosureRepository closureRepository,
+                               PlatformTransactionManager transactionManager,
+                               DataSourceContextHolder contextHolder,
+                               TenantShardRouter router) {
+        this.repository = repository;
+        this.closureRepository = closureRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contextHolder = contextHolder;
+        this.router = router;
+    }
+
+    /**
+     * 用户角色分配变化后调用（需处于调用方事务中）。
+     */
+    @Transactional
+    public void refreshUser(Long userId) {
+        repository.deleteByUserId(userId);
+        repository.insertForUser(userId);
+    }
+
+    /**
+     * 批量导入的新用户：一条集合语句写入整批用户的有效权限。
+     */
+    @Transactional
+    public void initUsers(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            repository.insertForUsers(userIds);
+        }
+    }
+
+    /**
+     * 角色授权变化后调用：只为该角色及其子角色的持有者写入差量，不重写未变化的行。
+     *
+     * @param granted 新增的权限 ID
+     * @param revoked 撤销的权限 ID
+     */
+    @Transactional
+    public void applyRoleGrants(Long roleId, Collection<Long> granted, Collection<Long> revoked) {
+        int inserted = granted.isEmpty() ? 0 : repository.insertGrantedForRoleHolders(roleId, granted);
+        int removed = revoked.isEmpty() ? 0 : repository.deleteRevokedForRoleHolders(roleId, revoked);
+        log.debug("角色 {} 授权变更，有效权限差量：写入 {} 行，删除 {} 行", roleId, inserted, removed);
+    }
+
+    /**
+     * 角色继承关系变化后调用：持有者继承到的权限集合无法直接得到差量，按推导结果只补缺、删多余。
+     */
+    @Transactional
+    public void refreshRoleHolders(Long roleId) {
+        int inserted = repository.insertMissingForRoleHolders(roleId);
+        int removed = repository.deleteStaleForRoleHolders(roleId);
+        log.debug("角色 {} 继承关系变更，有效权限差量：写入 {} 行，删除 {} 行", roleId, inserted, removed);
+    }
+
+    /**
+     * 校验并修复物化表；启动后首次执行即完成初始化回填。不在单个大事务中执行，每个用户分片独立提交。
+     * 启用租户分片时依次校验全局库与每个分片，单个目标失败不影响其余目标。
+     *
+     * @return 修复的行数
+     */
+    @Scheduled(initialDelayString = "${eon.user.effective-permissions.verify-initial-delay:PT30S}",
+            fixedDelayString = "${eon.user.effective-permissions.verify-interval:PT15M}")
+    public long verifyAndRepair() {
+        if (router == null) {
+            return verify();
+        }
+        Set<String> targets = new LinkedHashSet<>();
+        targets.add(router.getGlobalTarget());
+        targets.addAll(router.getShardTargets());
+        long repaired = 0;
+        for (String target : targets) {
+            try {
+                repaired += verifyTarget(target);
+            } catch (RuntimeException e) {
+                log.warn("数据源 {} 有效权限物化表校验失败，下次校验重试", target, e);
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * 校验并修复指定数据源的物化表；须在事务之外调用，否则沿用事务已绑定的连接。
+     *
+     * @return 修复的行数
+     */
+    public long verifyTarget(String target) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("按数据源校验有效权限不能在事务中执行");
+        }
+        contextHolder.push(target);
+        try {
+            log.debug("校验数据源 {} 的有效权限物化表", target);
+            return verify();
+        } finally {
+            contextHolder.pop();
+        }
+    }
+
+    private long verify() {
+        // 推导依赖闭包自身行，先补齐存量角色
+        Integer selfLinks = transactionTemplate.execute(status -> closureRepository.insertMissingSelfLinks());
+        if (selfLinks != null && selfLinks > 0) {
+            log.info("角色闭包表补齐自身行 {} 条", selfLinks);
+        }
+        long repaired = 0;
+        Long after = 0L;
+        while (true) {
+            List<Long> userIds = repository.findUserIdsAfter(after, VERIFY_CHUNK_SIZE);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            Long from = after;
+            Long to = userIds.get(userIds.size() - 1);
+            Integer fixed = transactionTemplate.execute(status ->
+                    repository.insertMissing(from, to) + repository.deleteStale(from, to));
+            repaired += fixed != null ? fixed : 0;
+            if (userIds.size() < VERIFY_CHUNK_SIZE) {
+                break;
+            }
+            after = to;
+        }
+        if (repaired > 0) {
+            log.warn("有效权限物化表存在漂移，已修复 {} 行", repaired);
+        } else {
+            log.debug("有效权限物化表校验通过");
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,306 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 租户分片下的全局目录复制：
+ * 租户请求的所有 SQL 都路由到租户分片，公共角色（tenant_id IS NULL）、权限、菜单等全局行
+ * 既被租户查询连接读取，又被分片内 user_roles / user_effective_permissions 外键引用，
+ * 因此以全局数据源为准，在每个分片上保留一份副本。
+ * <p>
+ * 启动就绪后与定时任务各执行一次全量同步：按主键 upsert，删除全局已不存在的行（级联清理分片内引用），
+ * 公共角色的授权与闭包行整体替换。全局目录的变更应在无租户上下文中写入全局数据源，
+ * 分片在下一次同步后可见。
+ * <p>
+ * 公共角色的授权或闭包与上次写入该分片时不同（含本实例首次同步）时，随即按分片校验修复
+ * user_effective_permissions：全局库上的差量维护只覆盖全局库内的持有者，分片内持有者的物化行只能在此重算。
+ * <p>
+ * 复制保留全局主键，分片与全局库的自增区间必须互不重叠（如各库设置不同的 auto_increment_offset），
+ * 发现主键已被分片内租户行占用时放弃该分片的本次同步并报错，不覆盖租户数据。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "eon.datasource.tenant", name = "enabled", havingValue = "true")
+public class GlobalCatalogReplicator {
+
+    private static final String GLOBAL_ROLES = "role_id IN (SELECT id FROM roles WHERE tenant_id IS NULL)";
+
+    /**
+     * 复制顺序即外键依赖顺序；删除阶段逆序执行。
+     */
+    static final List<CatalogTable> TABLES = List.of(
+            new CatalogTable("tenants", null, Mode.UPSERT),
+            new CatalogTable("permissions", "tenant_id IS NULL", Mode.MIRROR),
+            new CatalogTable("roles", "tenant_id IS NULL", Mode.MIRROR),
+            new CatalogTable("menus", "tenant_id IS NULL", Mode.MIRROR),
+            new CatalogTable("apis", "tenant_id IS NULL", Mode.MIRROR),
+            new CatalogTable("role_permissions", GLOBAL_ROLES, Mode.REPLACE),
+            new CatalogTable("role_closure", GLOBAL_ROLES.replace("role_id", "descendant_id"), Mode.REPLACE));
+
+    private final DataSource dataSource;
+    private final DataSourceContextHolder contextHolder;
+    private final TenantShardRouter router;
+    private final EffectivePermissionService effectivePermissionService;
+    /** 每个分片上次成功修复物化表时的公共角色授权与闭包 */
+    private final Map<String, Map<String, Set<List<Object>>>> appliedGrants = new ConcurrentHashMap<>();
+
+    public GlobalCatalogReplicator(DataSource dataSource, DataSourceContextHolder contextHolder,
+                                   EffectivePermissionService effectivePermissionService) throws SQLException {
+        this.dataSource = dataSource;
+        this.contextHolder = contextHolder;
+        this.router = dataSource.unwrap(DynamicRoutingDataSource.class).getTenantShardRouter();
+        this.effectivePermissionService = effectivePermissionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replicateOnStartup() {
+        replicate();
+    }
+
+    /**
+     * 全量同步到每个分片；单个分片失败只记录日志，不影响其他分片，下次同步重试。
+     * 使用独立连接且不参与调用方事务，避免复用线程上已绑定的全局连接。
+     */
+    @Scheduled(initialDelayString = "${eon.user.catalog-replication.interval:PT5M}",
+            fixedDelayString = "${eon.user.catalog-replication.interval:PT5M}")
+    public void replicate() {
+        Set<String> shards = router.getShardTargets();
+        if (shards.isEmpty()) {
+            return;
+        }
+        List<Snapshot> snapshots;
+        try {
+            snapshots = withTarget(router.getGlobalTarget(), this::readSnapshots);
+        } catch (SQLException e) {
+            log.warn("读取全局目录失败，跳过本次分片复制", e);
+            return;
+        }
+        Map<String, Set<List<Object>>> grants = grants(snapshots);
+        for (String shard : shards) {
+            try {
+                withTarget(shard, connection -> {
+                    apply(connection, snapshots);
+                    return null;
+                });
+                log.debug("全局目录已复制到分片 {}", shard);
+                if (!grants.equals(appliedGrants.get(shard))) {
+                    long repaired = effectivePermissionService.verifyTarget(shard);
+                    log.info("公共角色授权已变更，分片 {} 有效权限修复 {} 行", shard, repaired);
+                    appliedGrants.put(shard, grants);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("全局目录复制到分片 {} 失败，下次同步重试", shard, e);
+            }
+        }
+    }
+
+    private <T> T withTarget(String target, SqlWork<T> work) throws SQLException {
+        contextHolder.push(target);
+        try (Connection connection = dataSource.getConnection()) {
+            return work.run(connection);
+        } finally {
+            contextHolder.pop();
+        }
+    }
+
+    private List<Snapshot> readSnapshots(Connection connection) throws SQLException {
+        List<Snapshot> snapshots = new ArrayList<>(TABLES.size());
+        for (CatalogTable table : TABLES) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT * FROM " + table.name() + table.where())) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> columns = new ArrayList<>(meta.getColumnCount());
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add(meta.getColumnName(i));
+                }
+                List<Object[]> rows = new ArrayList<>();
+                while (rs.next()) {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+                snapshots.add(new Snapshot(table, columns, rows));
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * 整体替换的授权与闭包行，按行内容比较（与查询返回顺序无关）。
+     */
+    private static Map<String, Set<List<Object>>> grants(List<Snapshot> snapshots) {
+        Map<String, Set<List<Object>>> grants = new LinkedHashMap<>();
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.table().mode() == Mode.REPLACE) {
+                Set<List<Object>> rows = new HashSet<>();
+                snapshot.rows().forEach(row -> rows.add(Arrays.asList(row)));
+                grants.put(snapshot.table().name(), rows);
+            }
+        }
+        return grants;
+    }
+
+    private void apply(Connection connection, List<Snapshot> snapshots) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // 写入阶段关闭外键检查：快照来自同一全局库，整体一致，但菜单等自引用行无法保证插入顺序
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (Snapshot snapshot : snapshots) {
+                    write(connection, snapshot);
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+            // 删除阶段开启外键检查，使分片内 user_roles 等引用随之级联清理；子行先删
+            List<Snapshot> reversed = new ArrayList<>(snapshots);
+            Collections.reverse(reversed);
+            for (Snapshot snapshot : reversed) {
+                if (snapshot.table().mode() == Mode.MIRROR) {
+                    deleteMissing(connection, snapshot);
+                }
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void write(Connection connection, Snapshot snapshot) throws SQLException {
+        CatalogTable table = snapshot.table();
+        if (table.mode() == Mode.REPLACE) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM " + table.name() + table.where());
+            }
+        }
+        if (snapshot.rows().isEmpty()) {
+            return;
+        }
+        if (table.mode() == Mode.MIRROR) {
+            requireNoTenantCollision(connection, snapshot);
+        }
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        StringJoiner updates = new StringJoiner(", ");
+        for (String column : snapshot.columns()) {
+            columns.add(column);
+            values.add("?");
+            updates.add(column + " = VALUES(" + column + ")");
+        }
+        String sql = "INSERT INTO " + table.name() + " (" + columns + ") VALUES (" + values + ")"
+                + " ON DUPLICATE KEY UPDATE " + updates;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Object[] row : snapshot.rows()) {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void requireNoTenantCollision(Connection connection, Snapshot snapshot) throws SQLException {
+        int idIndex = snapshot.columns().indexOf("id");
+        StringJoiner ids = new StringJoiner(", ", " AND id IN (", ")");
+        snapshot.rows().forEach(row -> ids.add("?"));
+        String sql = "SELECT id FROM " + snapshot.table().name() + " WHERE tenant_id IS NOT NULL" + ids + " LIMIT 1";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < snapshot.rows().size(); i++) {
+                ps.setObject(i + 1, snapshot.rows().get(i)[idIndex]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    throw new IllegalStateException("分片 " + snapshot.table().name() + " 主键 " + rs.getLong(1)
+                            + " 已被租户数据占用，分片与全局库的自增区间重叠");
+                }
+            }
+        }
+    }
+
+    private void deleteMissing(Connection connection, Snapshot snapshot) throws SQLException {
+        int idIndex = snapshot.columns().indexOf("id");
+        StringJoiner ids = new StringJoiner(", ", " AND id NOT IN (", ")").setEmptyValue("");
+        snapshot.rows().forEach(row -> ids.add("?"));
+        List<Long> missing = new ArrayList<>();
+        String sql = "SELECT id FROM " + snapshot.table().name() + snapshot.table().where() + ids + " ORDER BY id DESC";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < snapshot.rows().size(); i++) {
+                ps.setObject(i + 1, snapshot.rows().get(i)[idIndex]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    missing.add(rs.getLong(1));
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        // 子行 ID 通常大于父行，倒序逐行删除满足自引用外键
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM " + snapshot.table().name() + " WHERE id = ?")) {
+            for (Long id : missing) {
+                ps.setLong(1, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        log.info("分片全局目录 {} 删除全局已不存在的行 {} 条", snapshot.table().name(), missing.size());
+    }
+
+    enum Mode {
+        /** 按主键 upsert，不删除 */
+        UPSERT,
+        /** 按主键 upsert，并删除全局已不存在的行 */
+        MIRROR,
+        /** 范围内整体替换（无主键 ID 的关系表） */
+        REPLACE
+    }
+
+    record CatalogTable(String name, String scope, Mode mode) {
+
+        String where() {
+            return scope == null ? "" : " WHERE " + scope;
+        }
+    }
+
+    private record Snapshot(CatalogTable table, List<String> columns, List<Object[]> rows) {
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+}
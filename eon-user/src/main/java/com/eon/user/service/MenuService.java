@@ -3,18 +3,44 @@ package com.eon.user.service;
 import com.eon.user.entity.Menu;
 import com.eon.user.policy.CompiledPolicy;
 import com.eon.user.repository.MenuRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 public class MenuService {
 
+    // 公共菜单（tenant_id 为空）的缓存键
+    private static final Long GLOBAL_TENANT = -1L;
+    // 单租户最多记忆的视图数量，超出后整体清空重建
+    private static final int MAX_VIEWS_PER_TENANT = 1024;
+    // 缓存的租户菜单森林数量上限
+    static final long MAXIMUM_TENANTS = 1_000;
+    // 本服务没有菜单写入接口，菜单由 SQL 或管理工具维护，按写入后过期保证变更在有限时间内可见
+    static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
     private final MenuRepository menuRepo;
+    private final UserMeCache userMeCache;
+    private final Cache<Long, TenantMenus> forests;
+
+    public MenuService(MenuRepository menuRepo, UserMeCache userMeCache) {
+        this(menuRepo, userMeCache, Ticker.systemTicker());
+    }
 
-    public MenuService(MenuRepository menuRepo) {
+    MenuService(MenuRepository menuRepo, UserMeCache userMeCache, Ticker ticker) {
         this.menuRepo = menuRepo;
+        this.userMeCache = userMeCache;
+        this.forests = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_TENANTS)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .ticker(ticker)
+                .build();
     }
 
     public static class MenuNode {
@@ -52,46 +78,122 @@ public class MenuService {
         public void setChildren(List<MenuNode> children) { this.children = children; }
     }
 
+    /**
+     * 用户菜单树：租户的完整菜单森林预排序后缓存，按策略的菜单效果过滤出用户视图；
+     * 同一租户下菜单效果相同（如角色集合相同）的用户共享同一棵树实例，调用方不得修改返回结果。
+     */
     public List<MenuNode> userMenus(Long userId, Long tenantId, CompiledPolicy policy) {
-        List<Menu> all = menuRepo.findByTenantIdOrTenantIdIsNull(tenantId);
-        // 过滤：visible && 有 view=ALLOW
-        List<Menu> allowed = all.stream()
-                .filter(m -> (m.getVisible() == null || m.getVisible())
-                        && "ALLOW".equals(policy.getMenuEffects().getOrDefault(m.getPermissionKey(), "DENY")))
-                .sorted(Comparator.comparing(Menu::getSortWeight, Comparator.nullsLast(Integer::compareTo)))
+        TenantMenus tenantMenus = forests.get(tenantKey(tenantId), k -> load(tenantId));
+        BitSet fingerprint = tenantMenus.fingerprint(policy.getMenuEffects());
+        List<MenuNode> view = tenantMenus.views.get(fingerprint);
+        if (view == null) {
+            if (tenantMenus.views.size() >= MAX_VIEWS_PER_TENANT) {
+                tenantMenus.views.clear();
+            }
+            view = tenantMenus.views.computeIfAbsent(fingerprint, tenantMenus::build);
+        }
+        return view;
+    }
+
+    /**
+     * 菜单变更后调用（未调用时由写入后过期兜底）：tenantId 为空表示公共菜单变化，需清空全部租户缓存。
+     */
+    public void evictTenant(Long tenantId) {
+        if (tenantId == null) {
+            forests.invalidateAll();
+        } else {
+            forests.invalidate(tenantId);
+        }
+        // 已序列化的 /users/me 响应包含菜单树，一并失效
+        userMeCache.clear();
+    }
+
+    private TenantMenus load(Long tenantId) {
+        // 仅保留可见菜单，按 sortWeight（空值置后）+ id 全局排序，构建视图时按序挂载即可保证各层有序
+        List<MenuEntry> entries = menuRepo.findByTenantIdOrTenantIdIsNull(tenantId).stream()
+                .filter(m -> m.getVisible() == null || m.getVisible())
+                .sorted(Comparator.comparing(Menu::getSortWeight, Comparator.nullsLast(Integer::compareTo))
+                        .thenComparing(Menu::getId))
+                .map(m -> new MenuEntry(m.getId(), m.getParentId(), m.getTitle(), m.getRoutePath(),
+                        m.getIcon(), m.getSortWeight(), m.getPermissionKey()))
                 .collect(Collectors.toList());
+        return new TenantMenus(entries);
+    }
 
-        Map<Long, MenuNode> map = new HashMap<>();
-        for (Menu m : allowed) {
-            MenuNode n = new MenuNode();
-            n.setId(m.getId());
-            n.setParentId(m.getParentId());
-            n.setTitle(m.getTitle());
-            n.setRoutePath(m.getRoutePath());
-            n.setIcon(m.getIcon());
-            n.setSortWeight(m.getSortWeight());
-            n.setPermissionKey(m.getPermissionKey());
-            map.put(m.getId(), n);
+    private static Long tenantKey(Long tenantId) {
+        return tenantId == null ? GLOBAL_TENANT : tenantId;
+    }
+
+    private record MenuEntry(Long id, Long parentId, String title, String routePath,
+                             String icon, Integer sortWeight, String permissionKey) {
+    }
+
+    /**
+     * 单个租户的不可变菜单快照及其按策略指纹记忆的视图。
+     */
+    private static final class TenantMenus {
+        private final List<MenuEntry> entries;
+        // 去重后的权限键，下标即指纹中的位
+        private final Map<String, Integer> keyIndex = new HashMap<>();
+        private final Map<BitSet, List<MenuNode>> views = new ConcurrentHashMap<>();
+
+        private TenantMenus(List<MenuEntry> entries) {
+            this.entries = List.copyOf(entries);
+            for (MenuEntry e : entries) {
+                if (e.permissionKey() != null) {
+                    keyIndex.putIfAbsent(e.permissionKey(), keyIndex.size());
+                }
+            }
         }
-        
-        // 组装树
-        List<MenuNode> roots = new ArrayList<>();
-        for (MenuNode n : map.values()) {
-            if (n.getParentId() == null || !map.containsKey(n.getParentId())) {
-                roots.add(n);
-            } else {
-                map.get(n.getParentId()).getChildren().add(n);
+
+        private BitSet fingerprint(Map<String, String> menuEffects) {
+            BitSet bits = new BitSet(keyIndex.size());
+            if (menuEffects != null) {
+                keyIndex.forEach((key, i) -> {
+                    if ("ALLOW".equals(menuEffects.get(key))) {
+                        bits.set(i);
+                    }
+                });
             }
+            return bits;
         }
-        
-        // 子项排序
-        roots.forEach(this::sortRecursively);
-        roots.sort(Comparator.comparing(MenuNode::getSortWeight, Comparator.nullsLast(Integer::compareTo)));
-        return roots;
-    }
 
-    private void sortRecursively(MenuNode node) {
-        node.getChildren().sort(Comparator.comparing(MenuNode::getSortWeight, Comparator.nullsLast(Integer::compareTo)));
-        node.getChildren().forEach(this::sortRecursively);
+        private boolean allowed(MenuEntry e, BitSet fingerprint) {
+            Integer i = e.permissionKey() == null ? null : keyIndex.get(e.permissionKey());
+            return i != null && fingerprint.get(i);
+        }
+
+        private List<MenuNode> build(BitSet fingerprint) {
+            Map<Long, MenuNode> map = new HashMap<>();
+            List<MenuNode> roots = new ArrayList<>();
+            for (MenuEntry e : entries) {
+                if (allowed(e, fingerprint)) {
+                    MenuNode n = new MenuNode();
+                    n.setId(e.id());
+                    n.setParentId(e.parentId());
+                    n.setTitle(e.title());
+                    n.setRoutePath(e.routePath());
+                    n.setIcon(e.icon());
+                    n.setSortWeight(e.sortWeight());
+                    n.setPermissionKey(e.permissionKey());
+                    map.put(e.id(), n);
+                }
+            }
+            // entries 已全局有序，按序挂载后父节点不可见的节点提升为根
+            for (MenuEntry e : entries) {
+                MenuNode n = map.get(e.id());
+                if (n == null) {
+                    continue;
+                }
+                MenuNode parent = e.parentId() == null ? null : map.get(e.parentId());
+                if (parent == null) {
+                    roots.add(n);
+                } else {
+                    parent.getChildren().add(n);
+                }
+            }
+            map.values().forEach(n -> n.setChildren(List.copyOf(n.getChildren())));
+            return List.copyOf(roots);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,81 +1,129 @@
 package com.eon.user.service;
 
+import com.eon.common.core.util.PathTemplate;
+import com.eon.common.core.util.PolicyFingerprint;
+import com.eon.user.dto.AuthorizeBatchRequest;
+import com.eon.user.dto.AuthorizeDecision;
 import com.eon.user.entity.*;
 import com.eon.user.policy.CompiledPolicy;
 import com.eon.user.repository.*;
-import com.eon.user.util.PathPatternCompiler;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 public class PolicyService {
 
     private final UserRepository userRepo;
-    private final UserRoleRepository userRoleRepo;
-    private final RolePermissionRepository rolePermRepo;
     private final PermissionRepository permRepo;
-    private final ApiResourceRepository apiRepo;
+    private final UserMeCache userMeCache;
 
     // 简化：本地内存缓存（可替换为 Caffeine/Redis）
     private final Map<Long, CompiledPolicy> cache = new ConcurrentHashMap<>();
 
+    // 解析后的路径模板不可变，按模板串在所有用户策略间共享
+    private final Map<String, PathTemplate> templates = new ConcurrentHashMap<>();
+
     public PolicyService(UserRepository userRepo,
-                        UserRoleRepository userRoleRepo,
-                        RolePermissionRepository rolePermRepo,
                         PermissionRepository permRepo,
-                        ApiResourceRepository apiRepo) {
+                        UserMeCache userMeCache) {
         this.userRepo = userRepo;
-        this.userRoleRepo = userRoleRepo;
-        this.rolePermRepo = rolePermRepo;
         this.permRepo = permRepo;
-        this.apiRepo = apiRepo;
+        this.userMeCache = userMeCache;
     }
 
-    public CompiledPolicy getPolicy(Long userId, int tokenPv) {
+    /**
+     * 获取用户策略：以库中策略指纹（用户版本 + 角色版本向量，一条查询）校验缓存，不一致即重建。
+     */
+    public CompiledPolicy getPolicy(Long userId) {
+        String fingerprint = currentFingerprint(userId);
         CompiledPolicy p = cache.get(userId);
-        Integer dbPv = userRepo.findById(userId).map(User::getPolicyVersion).orElse(0);
-        boolean needRebuild = (p == null) || !Objects.equals(p.getPolicyVersion(), dbPv) || tokenPv != dbPv;
-        if (needRebuild) {
+        if (p == null || !Objects.equals(p.getPolicyFingerprint(), fingerprint)) {
             p = rebuild(userId);
+            p.setPolicyFingerprint(fingerprint);
             cache.put(userId, p);
         }
         return p;
     }
 
+    /**
+     * 当前库中的策略指纹，与认证服务签发令牌时的 pf 声明算法一致。
+     */
+    public String currentFingerprint(Long userId) {
+        Integer userVersion = null;
+        Map<Long, Integer> roleVersions = new HashMap<>();
+        for (UserRepository.PolicyVersionView row : userRepo.findPolicyVersionVector(userId)) {
+            userVersion = row.getUserVersion();
+            if (row.getRoleId() != null) {
+                roleVersions.put(row.getRoleId(), row.getRoleVersion());
+            }
+        }
+        return PolicyFingerprint.of(userVersion, roleVersions);
+    }
+
+    /**
+     * 对单个判定项求值：优先按权限键判定，否则按 method + path 匹配 API 规则。
+     */
+    public AuthorizeDecision decide(CompiledPolicy policy, int index, AuthorizeBatchRequest.Item item) {
+        AuthorizeDecision decision = new AuthorizeDecision();
+        decision.setIndex(index);
+        if (item == null) {
+            return decision;
+        }
+        decision.setPermission(item.getPermission());
+        decision.setMethod(item.getMethod());
+        decision.setPath(item.getPath());
+        if (item.getPermission() != null && !item.getPermission().isBlank()) {
+            String effect = policy.effectOf(item.getPermission());
+            decision.setAllowed(CompiledPolicy.ALLOW.equals(effect));
+            decision.setMatchedKey(decision.isAllowed() ? item.getPermission() : null);
+            return decision;
+        }
+        CompiledPolicy.ApiRule rule = policy.matchApi(item.getMethod(), item.getPath());
+        if (rule != null) {
+            decision.setAllowed(CompiledPolicy.ALLOW.equals(rule.getEffect()));
+            decision.setMatchedKey(rule.getKey());
+        }
+        return decision;
+    }
+
     public void evict(Long userId) {
         cache.remove(userId);
+        userMeCache.evict(userId);
     }
 
+    /**
+     * 角色权限变更：策略缓存按指纹自校验无需逐个失效，只清空包含菜单/权限的 /users/me 序列化缓存；
+     * 存在事务时延迟到提交后执行，避免并发请求在提交前以旧数据回填。
+     */
     public void evictByRole(Long roleId) {
-        userRoleRepo.findByRoleId(roleId).stream()
-                .map(UserRole::getUserId)
-                .distinct()
-                .forEach(cache::remove);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userMeCache.clear();
+                }
+            });
+        } else {
+            userMeCache.clear();
+        }
     }
 
     private CompiledPolicy rebuild(Long userId) {
         User u = userRepo.findById(userId).orElseThrow();
-        List<Long> roleIds = userRoleRepo.findByUserId(userId).stream()
-                .map(UserRole::getRoleId).collect(Collectors.toList());
-
-        // 角色拥有的 permissionId
-        List<Long> permIds = rolePermRepo.findByRoleIdIn(roleIds).stream()
-                .map(RolePermission::getPermissionId).collect(Collectors.toList());
 
         Map<String, String> menuEffects = new HashMap<>();
         List<CompiledPolicy.ApiRule> apiRules = new ArrayList<>();
 
-        Map<Long, Permission> permMap = permRepo.findAllById(permIds).stream()
-                .collect(Collectors.toMap(Permission::getId, x -> x));
+        // 有效权限直接读取物化表（已按角色继承闭包展开），不再逐级展开角色与权限
+        List<Permission> permissions = permRepo.findEffectiveByUserId(userId);
 
-        // 预取所有 API 资源（含公共）
-        List<ApiResource> apis = apiRepo.findByTenantIdOrTenantIdIsNull(u.getTenantId());
-
-        for (Permission p : permMap.values()) {
+        for (Permission p : permissions) {
             String key = p.getResourceKey();
             String effect = p.getEffect().name();
 
@@ -83,22 +131,25 @@ public class PolicyService {
                 // DENY 优先：若已有 ALLOW，再写 DENY 会覆盖
                 menuEffects.put(key, effect);
             } else if (key.startsWith("api:")) {
-                // 从权限键解析 method + template（也可通过 apis 表再反查更稳妥）
+                // 权限键即 method + 路径模板，直接解析，不再依赖 apis.path_regex
                 String[] parts = key.split(":", 3); // api, METHOD, /path
                 String method = parts.length > 1 ? parts[1] : "*";
-                String pathTemplate = parts.length > 2 ? parts[2] : "/**";
-
-                // 匹配表里的编译正则（同 path_template 的）
-                String regex = apis.stream()
-                        .filter(a -> a.getPermissionKey().equals(key))
-                        .map(ApiResource::getPathRegex)
-                        .findFirst()
-                        .orElseGet(() -> PathPatternCompiler.toRegex(pathTemplate));
+                PathTemplate template = template(parts.length > 2 ? parts[2] : "/**");
+                if (template == null) {
+                    if (p.getEffect() != Permission.Effect.DENY) {
+                        // 非法的 ALLOW 模板不产生规则，按默认拒绝处理
+                        log.warn("忽略非法 API 路径模板的授权: {}", key);
+                        continue;
+                    }
+                    // 非法的 DENY 模板不能丢弃（存在更宽的 ALLOW 时会放行），退化为拒绝该方法的全部路径
+                    log.error("DENY 权限 {} 的路径模板非法，按拒绝 {} 全部路径处理，请修正权限键", key, method);
+                    template = template("/**");
+                }
 
                 CompiledPolicy.ApiRule rule = new CompiledPolicy.ApiRule();
                 rule.setKey(key);
                 rule.setMethod(method.toUpperCase());
-                rule.setRegex(Pattern.compile(regex));
+                rule.setTemplate(template);
                 rule.setEffect(effect);
                 apiRules.add(rule);
             }
@@ -111,4 +162,18 @@ public class PolicyService {
         policy.setApiRules(apiRules);
         return policy;
     }
+
+    private PathTemplate template(String pathTemplate) {
+        PathTemplate template = templates.get(pathTemplate);
+        if (template == null) {
+            try {
+                template = PathTemplate.parse(pathTemplate);
+            } catch (IllegalArgumentException e) {
+                log.warn("非法的 API 路径模板: {}", e.getMessage());
+                return null;
+            }
+            templates.putIfAbsent(pathTemplate, template);
+        }
+        return template;
+    }
 }
@@ -0,0 +1,74 @@
+package com.eon.user.service;
+
+import com.eon.user.entity.Role;
+import com.eon.user.repository.RoleClosureRepository;
+import com.eon.user.repository.RoleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 角色继承关系维护：roles.parent_id 记录直接父角色，role_closure 保存其传递闭包。
+ * 闭包只在挂载/移动时改写，读取侧（有效权限推导）只需一次索引连接。
+ */
+@Service
+public class RoleHierarchyService {
+
+    private final RoleRepository roleRepository;
+    private final RoleClosureRepository closureRepository;
+
+    public RoleHierarchyService(RoleRepository roleRepository, RoleClosureRepository closureRepository) {
+        this.roleRepository = roleRepository;
+        this.closureRepository = closureRepository;
+    }
+
+    /**
+     * 新角色入树：写入自身行以及父角色链上的所有祖先行。
+     */
+    @Transactional
+    public void attach(Role role) {
+        if (role.getParentId() != null) {
+            checkParent(role, role.getParentId());
+        }
+        closureRepository.insertLinks(role.getId(), role.getParentId());
+    }
+
+    /**
+     * 修改父角色，整棵子树随之移动。
+     *
+     * @return 父角色是否发生变化
+     */
+    @Transactional
+    public boolean move(Role role, Long parentId) {
+        if (Objects.equals(role.getParentId(), parentId)) {
+            return false;
+        }
+        if (parentId != null) {
+            checkParent(role, parentId);
+            if (closureRepository.existsByAncestorIdAndDescendantId(role.getId(), parentId)) {
+                throw new DataIntegrityViolationException("角色继承不能形成环");
+            }
+        }
+        List<Long> subtree = closureRepository.findSubtreeIds(role.getId());
+        closureRepository.detachSubtree(subtree);
+        if (parentId != null) {
+            closureRepository.attachSubtree(role.getId(), parentId);
+        }
+        role.setParentId(parentId);
+        roleRepository.save(role);
+        return true;
+    }
+
+    private void checkParent(Role role, Long parentId) {
+        Role parent = roleRepository.findById(parentId)
+                .orElseThrow(() -> new EntityNotFoundException("父角色不存在"));
+        // 租户角色可继承全局角色或同租户角色，全局角色只能继承全局角色
+        if (parent.getTenantId() != null && !parent.getTenantId().equals(role.getTenantId())) {
+            throw new DataIntegrityViolationException("父角色不属于同一租户");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * 按操作的目标租户路由数据源：
+ * 默认路由取调用方的 X-Tenant-Id，管理员为其他租户创建 / 导入 / 查询 / 导出用户时，
+ * SQL 须落到请求参数中租户所在的分片（为空表示全局数据）。显式推入的数据源优先于调用方租户，
+ * 也不依赖异步线程上继承的用户上下文。未启用租户分片时直接执行。
+ * <p>
+ * eon-auth 登录只按用户名查询全局数据源，分片上的用户无法登录；
+ * 因此配置了分片目标时需显式设置 eon.user.tenant-sharding.acknowledge-login-unsupported=true 才能启动。
+ */
+@Slf4j
+@Component
+public class TenantDataSourceRouting {
+
+    private final DataSourceContextHolder contextHolder;
+    private final TenantShardRouter router;
+
+    public TenantDataSourceRouting(DataSource dataSource,
+                                   ObjectProvider<DataSourceContextHolder> contextHolder,
+                                   @Value("${eon.user.tenant-sharding.acknowledge-login-unsupported:false}")
+                                   boolean loginUnsupportedAcknowledged) throws SQLException {
+        this(contextHolder.getIfAvailable(), dataSource.isWrapperFor(DynamicRoutingDataSource.class)
+                ? dataSource.unwrap(DynamicRoutingDataSource.class).getTenantShardRouter() : null);
+        if (router != null && !router.getShardTargets().isEmpty()) {
+            if (!loginUnsupportedAcknowledged) {
+                throw new IllegalStateException("eon-auth 尚不支持按租户分片登录，分片 " + router.getShardTargets()
+                        + " 上的用户无法登录；确认后设置 eon.user.tenant-sharding.acknowledge-login-unsupported=true");
+            }
+            log.warn("已启用租户分片 {}，分片上的用户无法通过 eon-auth 登录", router.getShardTargets());
+        }
+    }
+
+    /**
+     * @param router 租户分片路由，为空表示未启用分片
+     */
+    TenantDataSourceRouting(DataSourceContextHolder contextHolder, TenantShardRouter router) {
+        this.contextHolder = contextHolder;
+        this.router = router;
+    }
+
+    /**
+     * 在目标租户的数据源上执行；须在事务开启前调用（事务开启时即按当时的路由获取连接）。
+     * 目标与默认路由一致时不推入，保留读写分离对主库租户的副本路由。
+     */
+    public <T> T call(Long tenantId, Supplier<T> work) {
+        if (router == null) {
+            return work.get();
+        }
+        String target = router.resolve(tenantId);
+        if (contextHolder.current() == null && target.equals(router.currentTarget())) {
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("按目标租户路由不能在已开启的事务中执行");
+        }
+        contextHolder.push(target);
+        try {
+            return work.get();
+        } finally {
+            contextHolder.pop();
+        }
+    }
+
+    public void run(Long tenantId, Runnable work) {
+        call(tenantId, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -4,8 +4,11 @@ import com.eon.user.dto.AssignPermissionsRequest;
 import com.eon.user.dto.CreateRoleRequest;
 import com.eon.user.dto.CreateUserRequest;
 import com.eon.user.dto.RoleResponse;
+import com.eon.user.dto.UpdateRoleParentRequest;
 import com.eon.user.dto.UpdateUserRequest;
+import com.eon.user.dto.UserPageResponse;
 import com.eon.user.dto.UserResponse;
+import com.eon.user.dto.UserSearchRequest;
 import com.eon.user.entity.Permission;
 import com.eon.user.entity.Role;
 import com.eon.user.entity.RolePermission;
@@ -18,6 +21,7 @@ import com.eon.user.repository.UserRepository;
 import com.eon.user.repository.UserRoleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,12 +33,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserApplicationService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int COUNT_ESTIMATE_CAP = 10_000;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserRoleRepository userRoleRepository;
@@ -42,6 +49,8 @@ public class UserApplicationService {
     private final PermissionRepository permissionRepository;
     private final PasswordEncoder passwordEncoder;
     private final PolicyService policyService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final RoleHierarchyService roleHierarchyService;
 
     public UserApplicationService(UserRepository userRepository,
                                   RoleRepository roleRepository,
@@ -49,7 +58,9 @@ public class UserApplicationService {
                                   RolePermissionRepository rolePermissionRepository,
                                   PermissionRepository permissionRepository,
                                   PasswordEncoder passwordEncoder,
-                                  PolicyService policyService) {
+                                  PolicyService policyService,
+                                  EffectivePermissionService effectivePermissionService,
+                                  RoleHierarchyService roleHierarchyService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.userRoleRepository = userRoleRepository;
@@ -57,6 +68,8 @@ public class UserApplicationService {
         this.permissionRepository = permissionRepository;
         this.passwordEncoder = passwordEncoder;
         this.policyService = policyService;
+        this.effectivePermissionService = effectivePermissionService;
+        this.roleHierarchyService = roleHierarchyService;
     }
 
     @Transactional(readOnly = true)
@@ -73,6 +86,41 @@ public class UserApplicationService {
         return assembleUserResponse(user, true);
     }
 
+    /**
+     * 用户列表：按 (tenant_id, id) 键集分页，多取一条判断是否还有下一页；
+     * 本页用户的角色一次批量加载，列表项不展开权限。
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse listUsers(UserSearchRequest request) {
+        int limit = request.getLimit() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE));
+        String username = prefixPattern(request.getUsername());
+        String email = prefixPattern(request.getEmail());
+
+        List<User> rows = userRepository.findPage(request.getTenantId(), username, email, request.getActive(),
+                request.getCursor(), Limit.of(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<User> page = hasMore ? rows.subList(0, limit) : rows;
+
+        UserPageResponse response = new UserPageResponse();
+        response.setItems(assembleUserResponses(page));
+        response.setHasMore(hasMore);
+        response.setNextCursor(hasMore ? page.get(page.size() - 1).getId() : null);
+
+        UserSearchRequest.CountMode countMode = request.getCount() == null
+                ? UserSearchRequest.CountMode.NONE : request.getCount();
+        if (countMode == UserSearchRequest.CountMode.EXACT) {
+            response.setTotal(userRepository.countMatching(request.getTenantId(), username, email, request.getActive()));
+            response.setTotalExact(true);
+        } else if (countMode == UserSearchRequest.CountMode.ESTIMATE) {
+            long capped = userRepository.countMatchingCapped(request.getTenantId(), username, email,
+                    request.getActive(), COUNT_ESTIMATE_CAP + 1);
+            response.setTotal(Math.min(capped, COUNT_ESTIMATE_CAP));
+            response.setTotalExact(capped <= COUNT_ESTIMATE_CAP);
+        }
+        return response;
+    }
+
     @Transactional
     public UserResponse createUser(CreateUserRequest request) {
         userRepository.findByUsernameAndTenantId(request.getUsername(), request.getTenantId())
@@ -129,8 +177,11 @@ public class UserApplicationService {
         role.setTenantId(request.getTenantId());
         role.setCode(request.getCode());
         role.setName(request.getName());
+        role.setParentId(request.getParentId());
         role.setIsSystem(Boolean.TRUE.equals(request.getSystem()));
+        role.setPolicyVersion(1);
         Role saved = roleRepository.save(role);
+        roleHierarchyService.attach(saved);
 
         if (request.getPermissionIds() != null && !request.getPermissionIds().isEmpty()) {
             assignPermissions(saved.getId(), request.getPermissionIds());
@@ -142,21 +193,43 @@ public class UserApplicationService {
     public RoleResponse assignPermissions(Long roleId, AssignPermissionsRequest request) {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new EntityNotFoundException("角色不存在"));
-        List<UserRole> affectedUsers = userRoleRepository.findByRoleId(roleId);
-        assignPermissions(roleId, request.getPermissionIds());
-        if (!affectedUsers.isEmpty()) {
-            Set<Long> userIds = affectedUsers.stream().map(UserRole::getUserId).collect(Collectors.toSet());
-            bumpUsersPolicyVersion(userIds);
-            userIds.forEach(policyService::evict);
+        Set<Long> before = rolePermissionRepository.findByRoleId(roleId).stream()
+                .map(RolePermission::getPermissionId)
+                .collect(Collectors.toSet());
+        Set<Long> after = request.getPermissionIds() == null ? Set.of() : new HashSet<>(request.getPermissionIds());
+        if (before.equals(after)) {
+            return assembleRoleResponse(role);
         }
+        assignPermissions(roleId, request.getPermissionIds());
+        // 持有者的有效权限只写入新增 / 撤销的差量
+        Set<Long> granted = new HashSet<>(after);
+        granted.removeAll(before);
+        Set<Long> revoked = new HashSet<>(before);
+        revoked.removeAll(after);
+        effectivePermissionService.applyRoleGrants(roleId, granted, revoked);
+        // 版本向量：只提升角色版本，持有者的策略指纹随之变化，无需改写用户行
+        roleRepository.bumpPolicyVersion(roleId);
         policyService.evictByRole(roleId);
         return assembleRoleResponse(role);
     }
 
+    @Transactional
+    public RoleResponse changeRoleParent(Long roleId, UpdateRoleParentRequest request) {
+        Role role = roleRepository.findById(roleId)
+                .orElseThrow(() -> new EntityNotFoundException("角色不存在"));
+        if (roleHierarchyService.move(role, request.getParentId())) {
+            // 子树继承到的权限整体变化：重算持有者有效权限并提升子树各角色版本
+            effectivePermissionService.refreshRoleHolders(roleId);
+            roleRepository.bumpPolicyVersion(roleId);
+            policyService.evictByRole(roleId);
+        }
+        return assembleRoleResponse(role);
+    }
+
     @Transactional(readOnly = true)
     public List<RoleResponse> listRoles(Long tenantId) {
         List<Role> roles = roleRepository.findByTenantIdOrTenantIdIsNull(tenantId);
-        return roles.stream().map(this::assembleRoleResponse).collect(Collectors.toList());
+        return assembleRoleResponses(roles);
     }
 
     private boolean assignRoles(Long userId, List<Long> roleIds) {
@@ -183,6 +256,7 @@ public class UserApplicationService {
             }).toList();
             userRoleRepository.saveAll(toSave);
         }
+        effectivePermissionService.refreshUser(userId);
         return true;
     }
 
@@ -213,12 +287,6 @@ public class UserApplicationService {
         }
     }
 
-    private void bumpUsersPolicyVersion(Set<Long> userIds) {
-        List<User> users = userRepository.findAllById(userIds);
-        users.forEach(this::bumpPolicyVersion);
-        userRepository.saveAll(users);
-    }
-
     private UserResponse assembleUserResponse(User user, boolean includePermissions) {
         UserResponse response = new UserResponse();
         response.setId(user.getId());
@@ -230,59 +298,89 @@ public class UserApplicationService {
         response.setCreatedAt(user.getCreatedAt());
         response.setUpdatedAt(user.getUpdatedAt());
 
-        List<UserRole> relations = userRoleRepository.findByUserId(user.getId());
-        List<Long> roleIds = relations.stream().map(UserRole::getRoleId).toList();
-        List<Role> roles = roleIds.isEmpty() ? Collections.emptyList() : roleRepository.findAllById(roleIds);
-        response.setRoles(roles.stream().map(Role::getCode).sorted().toList());
+        // 角色编码、权限键各一条连接查询，不再逐级加载关联实体
+        response.setRoles(roleRepository.findCodesByUserId(user.getId()).stream().sorted().toList());
 
         if (includePermissions) {
-            List<String> permissions = resolvePermissions(roleIds);
-            response.setPermissions(permissions);
+            response.setPermissions(permissionRepository.findResourceKeysByUserId(user.getId()).stream()
+                    .distinct()
+                    .sorted()
+                    .toList());
         } else {
             response.setPermissions(Collections.emptyList());
         }
         return response;
     }
 
-    private RoleResponse assembleRoleResponse(Role role) {
-        RoleResponse resp = new RoleResponse();
-        resp.setId(role.getId());
-        resp.setTenantId(role.getTenantId());
-        resp.setCode(role.getCode());
-        resp.setName(role.getName());
-        resp.setSystem(role.getIsSystem());
-        List<RolePermission> relations = rolePermissionRepository.findByRoleId(role.getId());
-        if (relations.isEmpty()) {
-            resp.setPermissions(List.of());
-            return resp;
+    private List<UserResponse> assembleUserResponses(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
         }
-        List<Long> permissionIds = relations.stream().map(RolePermission::getPermissionId).toList();
-        Map<Long, Permission> permissionMap = permissionRepository.findAllById(permissionIds).stream()
-                .collect(Collectors.toMap(Permission::getId, Function.identity()));
-        List<String> permissions = relations.stream()
-                .map(rel -> permissionMap.get(rel.getPermissionId()))
-                .filter(Objects::nonNull)
-                .map(Permission::getResourceKey)
-                .distinct()
-                .sorted()
-                .toList();
-        resp.setPermissions(permissions);
-        return resp;
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        Map<Long, List<String>> rolesByUser = roleRepository.findCodesByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(RoleRepository.UserRoleCodeView::getUserId,
+                        Collectors.mapping(RoleRepository.UserRoleCodeView::getCode, Collectors.toList())));
+        return users.stream().map(user -> {
+            UserResponse response = new UserResponse();
+            response.setId(user.getId());
+            response.setTenantId(user.getTenantId());
+            response.setUsername(user.getUsername());
+            response.setEmail(user.getEmail());
+            response.setActive(user.getIsActive());
+            response.setPolicyVersion(user.getPolicyVersion());
+            response.setCreatedAt(user.getCreatedAt());
+            response.setUpdatedAt(user.getUpdatedAt());
+            response.setRoles(rolesByUser.getOrDefault(user.getId(), List.of()).stream().sorted().toList());
+            response.setPermissions(Collections.emptyList());
+            return response;
+        }).toList();
     }
 
-    private List<String> resolvePermissions(List<Long> roleIds) {
-        if (roleIds == null || roleIds.isEmpty()) {
-            return List.of();
+    /**
+     * 前缀匹配模式：转义 LIKE 通配符（转义符为 !），空白输入视为不过滤。
+     */
+    static String prefixPattern(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
         }
-        List<RolePermission> relations = rolePermissionRepository.findByRoleIdIn(roleIds);
-        if (relations.isEmpty()) {
+        StringBuilder pattern = new StringBuilder(value.length() + 1);
+        for (char c : value.trim().toCharArray()) {
+            if (c == '!' || c == '%' || c == '_') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    private RoleResponse assembleRoleResponse(Role role) {
+        return assembleRoleResponses(List.of(role)).get(0);
+    }
+
+    private List<RoleResponse> assembleRoleResponses(List<Role> roles) {
+        if (roles.isEmpty()) {
             return List.of();
         }
-        List<Long> permissionIds = relations.stream().map(RolePermission::getPermissionId).toList();
-        return permissionRepository.findAllById(permissionIds).stream()
-                .map(Permission::getResourceKey)
-                .distinct()
-                .sorted()
-                .toList();
+        // 所有角色的权限键一次性批量加载
+        List<Long> roleIds = roles.stream().map(Role::getId).toList();
+        Map<Long, List<String>> permissionsByRole = rolePermissionRepository.findPermissionKeysByRoleIdIn(roleIds).stream()
+                .collect(Collectors.groupingBy(RolePermissionRepository.RolePermissionKeyView::getRoleId,
+                        Collectors.mapping(RolePermissionRepository.RolePermissionKeyView::getResourceKey,
+                                Collectors.toList())));
+        return roles.stream().map(role -> {
+            RoleResponse resp = new RoleResponse();
+            resp.setId(role.getId());
+            resp.setTenantId(role.getTenantId());
+            resp.setCode(role.getCode());
+            resp.setName(role.getName());
+            resp.setParentId(role.getParentId());
+            resp.setSystem(role.getIsSystem());
+            resp.setPermissions(permissionsByRole.getOrDefault(role.getId(), List.of()).stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList());
+            return resp;
+        }).toList();
     }
 }
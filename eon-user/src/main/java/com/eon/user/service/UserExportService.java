@@ -0,0 +1,288 @@
+package com.eon.user.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 租户用户全量导出：只读前向游标逐行读取，边读边写到响应流，内存占用与数据量无关。
+ * 角色编码与有效权限在 SQL 中聚合，不加载 User / UserRole 实体。
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // MySQL Connector/J 约定：fetchSize 为 Integer.MIN_VALUE 时逐行流式读取，不缓存整个结果集
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int FLUSH_EVERY_ROWS = 500;
+    // 单个用户的权限键拼接长度可能超过 GROUP_CONCAT 默认的 1024 字节：导出期间临时调大，结束后恢复（连接会归还连接池）
+    private static final long EXPORT_GROUP_CONCAT_MAX_LEN = 1048576;
+    private static final String READ_GROUP_CONCAT_LIMIT = "SELECT @@SESSION.group_concat_max_len";
+    private static final String SET_GROUP_CONCAT_LIMIT = "SET SESSION group_concat_max_len = ";
+
+    private static final String EXPORT_SQL = "SELECT u.id, u.tenant_id, u.username, u.email, u.is_active, u.created_at, " +
+            "(SELECT GROUP_CONCAT(r.code ORDER BY r.code SEPARATOR ',') FROM user_roles ur " +
+            "JOIN roles r ON r.id = ur.role_id WHERE ur.user_id = u.id) AS roles, " +
+            "(SELECT GROUP_CONCAT(p.resource_key ORDER BY p.resource_key SEPARATOR ',') FROM user_effective_permissions e " +
+            "JOIN permissions p ON p.id = e.permission_id WHERE e.user_id = u.id) AS permissions " +
+            "FROM users u WHERE (u.tenant_id = ? OR (? IS NULL AND u.tenant_id IS NULL)) ORDER BY u.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 导出租户（为空表示全局用户）的用户、角色与有效权限。
+     *
+     * @return 导出的行数
+     */
+    public long export(Long tenantId, Format format, OutputStream out) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            long originalLimit = groupConcatLimit(con);
+            setGroupConcatLimit(con, EXPORT_GROUP_CONCAT_MAX_LEN);
+            try {
+                return stream(con, tenantId, format, out);
+            } finally {
+                setGroupConcatLimit(con, originalLimit);
+            }
+        });
+        log.info("用户导出完成：tenantId={}, format={}, rows={}", tenantId, format, rows);
+        return rows == null ? 0 : rows;
+    }
+
+    private long stream(Connection con, Long tenantId, Format format, OutputStream out) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(EXPORT_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(STREAMING_FETCH_SIZE);
+            ps.setObject(1, tenantId);
+            ps.setObject(2, tenantId);
+            try (ResultSet rs = ps.executeQuery()) {
+                try (RowWriter writer = writer(format, out, objectMapper)) {
+                    long count = 0;
+                    while (rs.next()) {
+                        writer.write(toRow(rs));
+                        if (++count % FLUSH_EVERY_ROWS == 0) {
+                            writer.flush();
+                        }
+                    }
+                    return count;
+                } catch (IOException e) {
+                    // 客户端断开等写出失败：须在关闭流式结果集之前中止查询，
+                    // 否则关闭时驱动会先读完剩余的全部行，连接一直被占用
+                    ps.cancel();
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static long groupConcatLimit(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(READ_GROUP_CONCAT_LIMIT)) {
+            return rs.next() ? rs.getLong(1) : 1024;
+        }
+    }
+
+    private static void setGroupConcatLimit(Connection con, long limit) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(SET_GROUP_CONCAT_LIMIT + limit);
+        }
+    }
+
+    private static ExportRow toRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new ExportRow(
+                rs.getLong("id"),
+                rs.getObject("tenant_id", Long.class),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getBoolean("is_active"),
+                createdAt == null ? null : createdAt.toInstant(),
+                split(rs.getString("roles")),
+                split(rs.getString("permissions")));
+    }
+
+    private static List<String> split(String joined) {
+        return joined == null || joined.isEmpty() ? List.of() : List.of(joined.split(","));
+    }
+
+    static RowWriter writer(Format format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out, objectMapper);
+    }
+
+    /**
+     * 导出行：一个用户一行。
+     */
+    record ExportRow(long id, Long tenantId, String username, String email, boolean active,
+                     Instant createdAt, List<String> roles, List<String> permissions) {
+    }
+
+    interface RowWriter extends AutoCloseable {
+        void write(ExportRow row) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * 每行一个 JSON 对象。
+     */
+    static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator gen;
+
+        NdjsonRowWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.gen = objectMapper.getFactory().createGenerator(out);
+            // 响应流由容器负责关闭
+            this.gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            // 行之间只用换行分隔
+            this.gen.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("id", row.id());
+            if (row.tenantId() == null) {
+                gen.writeNullField("tenantId");
+            } else {
+                gen.writeNumberField("tenantId", row.tenantId());
+            }
+            gen.writeStringField("username", row.username());
+            gen.writeStringField("email", row.email());
+            gen.writeBooleanField("active", row.active());
+            gen.writeStringField("createdAt", row.createdAt() == null ? null : row.createdAt().toString());
+            writeArray("roles", row.roles());
+            writeArray("permissions", row.permissions());
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        private void writeArray(String name, List<String> values) throws IOException {
+            gen.writeArrayFieldStart(name);
+            for (String value : values) {
+                gen.writeString(value);
+            }
+            gen.writeEndArray();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV，多值列以 ; 分隔。
+     * 以 = + - @（及制表符、回车）开头的单元格前加 ' ，防止在表格软件中被当作公式执行。
+     */
+    static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,tenant_id,username,email,active,created_at,roles,permissions\r\n");
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(row.tenantId() == null ? "" : row.tenantId().toString());
+            writer.write(',');
+            writeField(row.username());
+            writer.write(',');
+            writeField(row.email());
+            writer.write(',');
+            writer.write(Boolean.toString(row.active()));
+            writer.write(',');
+            writer.write(row.createdAt() == null ? "" : row.createdAt().toString());
+            writer.write(',');
+            writeField(String.join(";", row.roles()));
+            writer.write(',');
+            writeField(String.join(";", row.permissions()));
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            if (isFormulaLike(value.charAt(0))) {
+                value = "'" + value;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private static boolean isFormulaLike(char first) {
+            return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.eon.user.service;
+
+import com.eon.common.security.crypto.BoundedPasswordEncoder;
+import com.eon.user.dto.BulkImportUsersRequest;
+import com.eon.user.dto.BulkImportUsersResponse;
+import com.eon.user.dto.BulkImportUsersResponse.RowResult;
+import com.eon.user.dto.BulkImportUsersResponse.Status;
+import com.eon.user.entity.Role;
+import com.eon.user.repository.RoleRepository;
+import com.eon.user.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 批量导入用户：
+ * 行级校验与批内去重 → 分块集合查询已存在用户名 → 有界线程池并行 BCrypt →
+ * 每块一个事务，users / user_roles 走 JDBC 批量插入，有效权限一条集合语句写入。
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int HASH_QUEUE_PER_THREAD = 4;
+
+    private static final String INSERT_USER = "INSERT INTO users " +
+            "(tenant_id, username, email, password_hash, is_active, policy_version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, 1, 1, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final EffectivePermissionService effectivePermissionService;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    // BCrypt 为 CPU 密集型，线程数不超过核数，避免挤占请求线程
+    private final ThreadPoolExecutor hashPool;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             EffectivePermissionService effectivePermissionService,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.effectivePermissionService = effectivePermissionService;
+        // 导入自带哈希线程池，直接使用底层编码器，不占用在线请求的哈希队列
+        this.passwordEncoder = BoundedPasswordEncoder.unwrap(passwordEncoder);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        AtomicInteger seq = new AtomicInteger();
+        int threads = Runtime.getRuntime().availableProcessors();
+        // 有界队列：队列满时由提交线程自行计算，天然限制大批量导入的积压
+        this.hashPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * HASH_QUEUE_PER_THREAD), r -> {
+            Thread t = new Thread(r, "user-import-hash-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    public BulkImportUsersResponse importUsers(BulkImportUsersRequest request) {
+        List<BulkImportUsersRequest.Item> items = request.getUsers();
+        RowResult[] results = new RowResult[items.size()];
+        Long tenantId = request.getTenantId();
+
+        // 1. 行级校验 + 批内去重
+        Set<String> seen = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkImportUsersRequest.Item item = items.get(i);
+            if (item == null) {
+                results[i] = new RowResult(i, null, Status.INVALID, null, "行数据为空");
+                continue;
+            }
+            Set<ConstraintViolation<BulkImportUsersRequest.Item>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                String message = violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = new RowResult(i, item.getUsername(), Status.INVALID, null, message);
+            } else if (!seen.add(item.getUsername())) {
+                results[i] = new RowResult(i, item.getUsername(), Status.DUPLICATE, null, "批次内用户名重复");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // 2. 角色存在性：所有行引用的角色一次查询
+        Set<Long> roleIds = candidates.stream()
+                .map(i -> items.get(i).getRoleIds())
+                .filter(ids -> ids != null && !ids.isEmpty())
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+        Set<Long> knownRoles = roleIds.isEmpty() ? Set.of()
+                : roleRepository.findAllById(roleIds).stream().map(Role::getId).collect(Collectors.toSet());
+
+        for (int from = 0; from < candidates.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = candidates.subList(from, Math.min(from + CHUNK_SIZE, candidates.size()));
+            importChunk(tenantId, items, chunk, knownRoles, results);
+        }
+
+        BulkImportUsersResponse response = new BulkImportUsersResponse();
+        response.setResults(Arrays.asList(results));
+        response.setCreated((int) Arrays.stream(results).filter(r -> r.getStatus() == Status.CREATED).count());
+        response.setFailed(results.length - response.getCreated());
+        log.info("批量导入用户：tenantId={}, total={}, created={}", tenantId, results.length, response.getCreated());
+        return response;
+    }
+
+    private void importChunk(Long tenantId, List<BulkImportUsersRequest.Item> items, List<Integer> chunk,
+                             Set<Long> knownRoles, RowResult[] results) {
+        // 3. 已存在用户名：每块一条 IN 查询
+        Set<String> usernames = chunk.stream().map(i -> items.get(i).getUsername()).collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>(userRepository.findExistingUsernames(tenantId, usernames));
+
+        List<Integer> accepted = new ArrayList<>(chunk.size());
+        for (int i : chunk) {
+            BulkImportUsersRequest.Item item = items.get(i);
+            if (existing.contains(item.getUsername())) {
+                results[i] = new RowResult(i, item.getUsername(), Status.DUPLICATE, null, "用户名已存在");
+            } else if (item.getRoleIds() != null && !knownRoles.containsAll(item.getRoleIds())) {
+                results[i] = new RowResult(i, item.getUsername(), Status.INVALID, null, "部分角色不存在");
+            } else {
+                accepted.add(i);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            // 4. 事务外并行计算密码哈希
+            Map<Integer, String> hashes = accepted.stream()
+                    .collect(Collectors.toMap(i -> i, i -> CompletableFuture.supplyAsync(
+                            () -> passwordEncoder.encode(items.get(i).getPassword()), hashPool)))
+                    .entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().join()));
+
+            // 5. 每块一个事务批量写入
+            List<Long> ids = transactionTemplate.execute(status -> insertChunk(tenantId, items, accepted, hashes));
+            for (int k = 0; k < accepted.size(); k++) {
+                int i = accepted.get(k);
+                results[i] = new RowResult(i, items.get(i).getUsername(), Status.CREATED, ids.get(k), null);
+            }
+        } catch (RuntimeException e) {
+            // 任何失败只影响本块：前面的块已提交，调用方仍拿到逐行结果
+            if (e instanceof DataAccessException dae) {
+                log.warn("批量导入写库失败，本块 {} 行回滚: {}", accepted.size(), dae.getMostSpecificCause().getMessage());
+            } else {
+                log.error("批量导入处理失败，本块 {} 行回滚", accepted.size(), e);
+            }
+            for (int i : accepted) {
+                results[i] = new RowResult(i, items.get(i).getUsername(), Status.FAILED, null, "写入失败，请重试");
+            }
+        }
+    }
+
+    private List<Long> insertChunk(Long tenantId, List<BulkImportUsersRequest.Item> items,
+                                   List<Integer> accepted, Map<Integer, String> hashes) {
+        Timestamp now = Timestamp.from(Instant.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int k) throws SQLException {
+                        BulkImportUsersRequest.Item item = items.get(accepted.get(k));
+                        if (tenantId == null) {
+                            ps.setNull(1, Types.BIGINT);
+                        } else {
+                            ps.setLong(1, tenantId);
+                        }
+                        ps.setString(2, item.getUsername());
+                        ps.setString(3, item.getEmail());
+                        ps.setString(4, hashes.get(accepted.get(k)));
+                        ps.setTimestamp(5, now);
+                        ps.setTimestamp(6, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accepted.size();
+                    }
+                }, keys);
+        List<Long> ids = keys.getKeyList().stream()
+                .map(row -> ((Number) row.values().iterator().next()).longValue())
+                .toList();
+        if (ids.size() != accepted.size()) {
+            throw new IllegalStateException("生成主键数量与插入行数不一致");
+        }
+
+        List<Object[]> relations = new ArrayList<>();
+        for (int k = 0; k < accepted.size(); k++) {
+            List<Long> roles = items.get(accepted.get(k)).getRoleIds();
+            if (roles != null) {
+                for (Long roleId : new LinkedHashSet<>(roles)) {
+                    relations.add(new Object[]{ids.get(k), roleId});
+                }
+            }
+        }
+        if (!relations.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, relations);
+            effectivePermissionService.initUsers(ids);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,78 @@
+package com.eon.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.zip.CRC32;
+
+/**
+ * /users/me 序列化结果缓存：按 (userId, 策略指纹) 保存已序列化的响应体及强 ETag。
+ * 有界、写入后定时过期；用户、角色、权限或菜单变更时由对应服务主动失效。
+ */
+@Component
+public class UserMeCache {
+
+    static final long MAXIMUM_SIZE = 10_000;
+    static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final Cache<Long, Entry> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    public record Entry(String policyFingerprint, byte[] body, String etag) {
+    }
+
+    /**
+     * 指纹一致才命中；policyFingerprint 为空（令牌未携带 pf）时无法校验新鲜度，视为未命中。
+     */
+    public Entry get(Long userId, String policyFingerprint) {
+        if (policyFingerprint == null) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(userId);
+        if (entry == null || !policyFingerprint.equals(entry.policyFingerprint())) {
+            return null;
+        }
+        return entry;
+    }
+
+    public Entry put(Long userId, String policyFingerprint, byte[] body) {
+        // ETag 由缓存键与内容摘要组成：同版本下资料变化（如邮箱）同样会产生新 ETag
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        String etag = "\"" + userId + "-" + policyFingerprint + "-" + Long.toHexString(crc.getValue()) + "\"";
+        Entry entry = new Entry(policyFingerprint, body, etag);
+        cache.put(userId, entry);
+        return entry;
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * If-None-Match 比对：支持多值与 *，按弱比较忽略 W/ 前缀。
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 -- 示例数据
 INSERT IGNORE INTO roles (tenant_id, code, name, is_system) VALUES (NULL, 'admin', '系统管理员', 1);
+INSERT IGNORE INTO role_closure (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM roles;
 INSERT IGNORE INTO users (tenant_id, username, email, password_hash)
 VALUES (NULL, 'admin', 'admin@example.com', '$2a$10$Q8cSx2k3n1y2XhM6X0mO0.1bE3Yw8cP6o2p5n3k5yQx1Z0Vg9qUe2'); -- 明文 admin123（BCrypt）
 
@@ -30,4 +31,10 @@ INSERT IGNORE INTO permissions (resource_key, action, effect) VALUES
 -- 绑定到 admin 角色
 INSERT IGNORE INTO role_permissions (role_id, permission_id)
 SELECT r.id, p.id FROM roles r, permissions p
-WHERE r.code='admin' AND p.resource_key IN ('menu:system.users','menu:system.roles','api:GET:/users/:id','api:POST:/users');
\ No newline at end of file
+WHERE r.code='admin' AND p.resource_key IN ('menu:system.users','menu:system.roles','api:GET:/users/:id','api:POST:/users');
+-- 用户有效权限物化（经角色闭包展开；服务启动后的校验任务也会补齐）
+INSERT IGNORE INTO user_effective_permissions (user_id, permission_id)
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur
+JOIN role_closure rc ON rc.descendant_id = ur.role_id
+JOIN role_permissions rp ON rp.role_id = rc.ancestor_id;
@@ -18,6 +18,8 @@ CREATE TABLE IF NOT EXISTS users (
   created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   UNIQUE KEY uq_user_tenant_username (tenant_id, username),
+  KEY idx_users_tenant_id (tenant_id, id),   -- 列表键集分页
+  KEY idx_users_username (username, id),     -- eon-auth 登录按用户名（不带租户）查找
   CONSTRAINT fk_users_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户表';
 
@@ -25,9 +27,11 @@ CREATE TABLE IF NOT EXISTS users (
 CREATE TABLE IF NOT EXISTS roles (
   id           BIGINT PRIMARY KEY AUTO_INCREMENT,
   tenant_id    BIGINT NULL,
+  parent_id    BIGINT NULL,           -- 父角色（子角色继承父角色的全部权限）
   code         VARCHAR(128) NOT NULL,
   name         VARCHAR(255) NOT NULL,
   is_system    TINYINT(1) DEFAULT 0,
+  policy_version INT DEFAULT 1,   -- 角色策略版本（权限变更时递增，参与用户策略指纹）
   created_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   UNIQUE KEY uq_role_tenant_code (tenant_id, code),
@@ -104,6 +108,27 @@ CREATE TABLE IF NOT EXISTS role_permissions (
   CONSTRAINT fk_rp_permission FOREIGN KEY (permission_id) REFERENCES permissions(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='角色权限关联表';
 
+-- 角色继承闭包：每个角色对自身（depth=0）及每个祖先各一行，挂载/移动角色时维护
+CREATE TABLE IF NOT EXISTS role_closure (
+  ancestor_id   BIGINT NOT NULL,
+  descendant_id BIGINT NOT NULL,
+  depth         INT    NOT NULL,
+  PRIMARY KEY (descendant_id, ancestor_id),
+  KEY idx_rc_ancestor (ancestor_id),
+  CONSTRAINT fk_rc_ancestor   FOREIGN KEY (ancestor_id) REFERENCES roles(id) ON DELETE CASCADE,
+  CONSTRAINT fk_rc_descendant FOREIGN KEY (descendant_id) REFERENCES roles(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='角色继承闭包表';
+
+-- 用户有效权限（物化视图）：由 user_roles ⋈ role_closure ⋈ role_permissions 派生，随角色/授权变更增量维护
+CREATE TABLE IF NOT EXISTS user_effective_permissions (
+  user_id       BIGINT NOT NULL,
+  permission_id BIGINT NOT NULL,
+  PRIMARY KEY (user_id, permission_id),
+  KEY idx_uep_permission (permission_id),
+  CONSTRAINT fk_uep_user       FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+  CONSTRAINT fk_uep_permission FOREIGN KEY (permission_id) REFERENCES permissions(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户有效权限物化表';
+
 -- 审计（可选）
 CREATE TABLE IF NOT EXISTS audit_logs (
   id          BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -112,4 +137,50 @@ CREATE TABLE IF NOT EXISTS audit_logs (
   detail_json JSON,
   created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   KEY idx_audit_user (user_id)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志表';
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志表';
+
+-- ---------------------------------------------------------------------------
+-- 存量库升级（幂等，可重复执行）：CREATE TABLE IF NOT EXISTS 不会给已有表补列，
+-- 新增列按 information_schema 判断后再 ALTER，并回填存量数据
+-- ---------------------------------------------------------------------------
+
+-- roles.policy_version：角色策略版本（参与用户策略指纹）
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE roles ADD COLUMN policy_version INT DEFAULT 1 AFTER is_system',
+    'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'policy_version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+UPDATE roles SET policy_version = 1 WHERE policy_version IS NULL;
+
+-- roles.parent_id：父角色（子角色继承父角色的全部权限）
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE roles ADD COLUMN parent_id BIGINT NULL AFTER tenant_id',
+    'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'parent_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+-- 回填角色闭包：每个角色的自身行及沿 parent_id 上溯的全部祖先行，已有的行忽略
+INSERT IGNORE INTO role_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+  SELECT id, id, 0 FROM roles
+  UNION ALL
+  SELECT r.parent_id, c.descendant_id, c.depth + 1
+  FROM chain c JOIN roles r ON r.id = c.ancestor_id
+  WHERE r.parent_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth FROM chain;
+
+-- users.idx_users_username：登录按用户名（不带租户）查找用户
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE users ADD KEY idx_users_username (username, id)',
+    'DO 0')
+  FROM information_schema.statistics
+  WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_username');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
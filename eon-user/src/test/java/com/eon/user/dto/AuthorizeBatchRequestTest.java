@@ -0,0 +1,60 @@
+package com.eon.user.dto;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证批量判定请求的判定项校验：permission 与 method + path 二选一，且不允许空项。
+ */
+class AuthorizeBatchRequestTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void should_accept_permission_or_method_and_path() {
+        AuthorizeBatchRequest request = request(item("menu:user", null, null), item(null, "GET", "/users/1"));
+
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    void should_reject_item_with_both_targets() {
+        AuthorizeBatchRequest request = request(item("menu:user", "GET", "/users/1"));
+
+        assertEquals(1, validator.validate(request).size());
+    }
+
+    @Test
+    void should_reject_item_without_target() {
+        AuthorizeBatchRequest request = request(item(null, null, null), item(null, "GET", null));
+
+        assertEquals(2, validator.validate(request).size());
+    }
+
+    @Test
+    void should_reject_null_item() {
+        AuthorizeBatchRequest request = request(item("menu:user", null, null), null);
+
+        assertEquals(1, validator.validate(request).size());
+    }
+
+    private static AuthorizeBatchRequest request(AuthorizeBatchRequest.Item... items) {
+        AuthorizeBatchRequest request = new AuthorizeBatchRequest();
+        request.setItems(Arrays.asList(items));
+        return request;
+    }
+
+    private static AuthorizeBatchRequest.Item item(String permission, String method, String path) {
+        AuthorizeBatchRequest.Item item = new AuthorizeBatchRequest.Item();
+        item.setPermission(permission);
+        item.setMethod(method);
+        item.setPath(path);
+        return item;
+    }
+}
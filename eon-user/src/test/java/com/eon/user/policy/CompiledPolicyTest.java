@@ -0,0 +1,58 @@
+package com.eon.user.policy;
+
+import com.eon.common.core.util.PathTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 验证预编译策略的批量判定语义：DENY 优先、未命中默认拒绝。
+ */
+class CompiledPolicyTest {
+
+    @Test
+    void matchApi_should_prefer_deny_and_respect_method() {
+        CompiledPolicy policy = policy(
+                rule("api:*:/users/**", "*", "/users/**", "ALLOW"),
+                rule("api:DELETE:/users/:id", "DELETE", "/users/:id", "DENY"));
+
+        assertEquals("api:*:/users/**", policy.matchApi("get", "/users/1").getKey());
+        assertEquals("DENY", policy.matchApi("DELETE", "/users/1").getEffect());
+        assertNull(policy.matchApi("GET", "/orders/1"), "未命中任何规则时应返回 null");
+    }
+
+    @Test
+    void effectOf_should_lookup_menu_and_api_keys() {
+        CompiledPolicy policy = policy(
+                rule("api:GET:/users/:id", "GET", "/users/:id", "ALLOW"),
+                rule("api:GET:/users/:id", "GET", "/users/:id", "DENY"));
+        policy.setMenuEffects(Map.of("menu:system.users", "ALLOW"));
+
+        assertEquals("ALLOW", policy.effectOf("menu:system.users"));
+        assertEquals("DENY", policy.effectOf("api:GET:/users/:id"), "同键存在 DENY 时应拒绝");
+        assertEquals("DENY", policy.effectOf("menu:unknown"));
+        assertEquals("DENY", policy.effectOf(null));
+    }
+
+    private CompiledPolicy policy(CompiledPolicy.ApiRule... rules) {
+        CompiledPolicy policy = new CompiledPolicy();
+        policy.setUserId(1L);
+        policy.setPolicyVersion(1);
+        policy.setMenuEffects(Map.of());
+        policy.setApiRules(List.of(rules));
+        return policy;
+    }
+
+    private CompiledPolicy.ApiRule rule(String key, String method, String template, String effect) {
+        CompiledPolicy.ApiRule rule = new CompiledPolicy.ApiRule();
+        rule.setKey(key);
+        rule.setMethod(method);
+        rule.setTemplate(PathTemplate.parse(template));
+        rule.setEffect(effect);
+        return rule;
+    }
+}
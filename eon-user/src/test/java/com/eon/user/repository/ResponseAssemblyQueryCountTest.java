@@ -0,0 +1,166 @@
+package com.eon.user.repository;
+
+import com.eon.user.dto.UserSearchRequest;
+import com.eon.user.entity.Permission;
+import com.eon.user.entity.Role;
+import com.eon.user.entity.RolePermission;
+import com.eon.user.entity.User;
+import com.eon.user.entity.UserEffectivePermission;
+import com.eon.user.entity.UserRole;
+import com.eon.user.service.EffectivePermissionService;
+import com.eon.user.service.PolicyService;
+import com.eon.user.service.RoleHierarchyService;
+import com.eon.user.service.UserApplicationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 以 Hibernate Statistics 统计实际执行的 SQL 语句数，验证用户 / 角色响应组装的语句数与数据量无关（无 N+1）。
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.cloud.nacos.discovery.enabled=false"
+})
+class ResponseAssemblyQueryCountTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @EntityScan(basePackageClasses = User.class)
+    @Import(UserApplicationService.class)
+    static class Config {
+    }
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+    @MockitoBean
+    private PolicyService policyService;
+    @MockitoBean
+    private EffectivePermissionService effectivePermissionService;
+    @MockitoBean
+    private RoleHierarchyService roleHierarchyService;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserApplicationService service;
+
+    private Statistics statistics;
+    private final Map<Long, Long> permissionByRole = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listRoles_should_use_fixed_statements_regardless_of_role_count() {
+        seedRoles(1L, 1);
+        seedRoles(2L, 20);
+
+        assertEquals(2, statementsFor(() -> service.listRoles(1L)));
+        assertEquals(2, statementsFor(() -> service.listRoles(2L)));
+    }
+
+    @Test
+    void getUserDetail_should_use_fixed_statements_regardless_of_role_count() {
+        Long few = seedUser(1L, "few", seedRoles(1L, 1));
+        Long many = seedUser(2L, "many", seedRoles(2L, 20));
+
+        assertEquals(3, statementsFor(() -> service.getUserDetail(few)));
+        assertEquals(3, statementsFor(() -> service.getUserDetail(many)));
+    }
+
+    @Test
+    void listUsers_should_use_fixed_statements_regardless_of_page_size() {
+        Role[] roles = seedRoles(3L, 3);
+        for (int i = 0; i < 30; i++) {
+            seedUser(3L, "u" + i, roles);
+        }
+
+        assertEquals(2, statementsFor(() -> service.listUsers(search(3L, 1))));
+        assertEquals(2, statementsFor(() -> service.listUsers(search(3L, 25))));
+    }
+
+    private long statementsFor(Runnable action) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Role[] seedRoles(Long tenantId, int count) {
+        Role[] roles = new Role[count];
+        for (int i = 0; i < count; i++) {
+            Role role = new Role();
+            role.setTenantId(tenantId);
+            role.setCode("role-" + tenantId + "-" + i);
+            role.setName("角色" + i);
+            role.setIsSystem(false);
+            role.setPolicyVersion(1);
+            roles[i] = em.persist(role);
+
+            Permission permission = new Permission();
+            permission.setTenantId(tenantId);
+            permission.setResourceKey("menu:" + tenantId + ":" + i);
+            permission.setEffect(Permission.Effect.ALLOW);
+            em.persist(permission);
+
+            RolePermission relation = new RolePermission();
+            relation.setRoleId(role.getId());
+            relation.setPermissionId(permission.getId());
+            em.persist(relation);
+            permissionByRole.put(role.getId(), permission.getId());
+        }
+        return roles;
+    }
+
+    private Long seedUser(Long tenantId, String username, Role... roles) {
+        User user = new User();
+        user.setTenantId(tenantId);
+        user.setUsername(username);
+        user.setPasswordHash("hash");
+        em.persist(user);
+        for (Role role : roles) {
+            UserRole relation = new UserRole();
+            relation.setUserId(user.getId());
+            relation.setRoleId(role.getId());
+            em.persist(relation);
+
+            UserEffectivePermission effective = new UserEffectivePermission();
+            effective.setUserId(user.getId());
+            effective.setPermissionId(permissionByRole.get(role.getId()));
+            em.persist(effective);
+        }
+        return user.getId();
+    }
+
+    private static UserSearchRequest search(Long tenantId, int limit) {
+        UserSearchRequest request = new UserSearchRequest();
+        request.setTenantId(tenantId);
+        request.setLimit(limit);
+        return request;
+    }
+}
@@ -0,0 +1,97 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.TenantShardRouter;
+import com.eon.user.repository.RoleClosureRepository;
+import com.eon.user.repository.UserEffectivePermissionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证物化表维护：授权变更只写差量，校验任务按用户分片修复漂移。
+ */
+class EffectivePermissionServiceTest {
+
+    private final UserEffectivePermissionRepository repository = mock(UserEffectivePermissionRepository.class);
+    private final RoleClosureRepository closureRepository = mock(RoleClosureRepository.class);
+    private final EffectivePermissionService service = new EffectivePermissionService(repository, closureRepository,
+            mock(PlatformTransactionManager.class), (DataSourceContextHolder) null, null);
+
+    @Test
+    void verifyAndRepair_should_skip_writes_when_no_users() {
+        when(repository.findUserIdsAfter(0L, EffectivePermissionService.VERIFY_CHUNK_SIZE)).thenReturn(List.of());
+
+        assertEquals(0, service.verifyAndRepair());
+        verify(closureRepository).insertMissingSelfLinks();
+        verify(repository, never()).insertMissing(anyLong(), anyLong());
+        verify(repository, never()).deleteStale(anyLong(), anyLong());
+    }
+
+    @Test
+    void verifyAndRepair_should_repair_drift_chunk_by_chunk() {
+        int chunk = EffectivePermissionService.VERIFY_CHUNK_SIZE;
+        List<Long> first = LongStream.rangeClosed(1, chunk).boxed().toList();
+        when(repository.findUserIdsAfter(0L, chunk)).thenReturn(first);
+        when(repository.findUserIdsAfter((long) chunk, chunk)).thenReturn(List.of(chunk + 1L, chunk + 7L));
+        when(repository.insertMissing(0L, (long) chunk)).thenReturn(3);
+        when(repository.deleteStale((long) chunk, chunk + 7L)).thenReturn(1);
+
+        assertEquals(4, service.verifyAndRepair());
+        verify(repository).deleteStale(0L, (long) chunk);
+        verify(repository).insertMissing((long) chunk, chunk + 7L);
+    }
+
+    @Test
+    void verifyAndRepair_should_visit_global_target_and_every_shard() {
+        DataSourceContextHolder contextHolder = new DataSourceContextHolder();
+        TenantRouting routing = new TenantRouting();
+        routing.setEnabled(true);
+        routing.setGlobalTarget("master");
+        routing.setShards(List.of("shard1", "shard2"));
+        TenantShardRouter router = new TenantShardRouter(routing, Set.of("master", "shard1", "shard2"), "master", () -> null);
+        EffectivePermissionService sharded = new EffectivePermissionService(repository, closureRepository,
+                mock(PlatformTransactionManager.class), contextHolder, router);
+        List<String> visited = new ArrayList<>();
+        when(repository.findUserIdsAfter(0L, EffectivePermissionService.VERIFY_CHUNK_SIZE)).thenAnswer(invocation -> {
+            visited.add(contextHolder.current());
+            return "shard1".equals(contextHolder.current()) ? List.of(5L) : List.of();
+        });
+        when(repository.insertMissing(0L, 5L)).thenReturn(2);
+
+        assertEquals(2, sharded.verifyAndRepair());
+        assertEquals(List.of("master", "shard1", "shard2"), visited);
+        assertNull(contextHolder.current());
+    }
+
+    @Test
+    void applyRoleGrants_should_write_only_the_delta() {
+        service.applyRoleGrants(9L, Set.of(5L), Set.of());
+
+        verify(repository).insertGrantedForRoleHolders(9L, Set.of(5L));
+        verify(repository, never()).deleteRevokedForRoleHolders(anyLong(), anyCollection());
+        verify(repository, never()).deleteByUserId(anyLong());
+    }
+
+    @Test
+    void refreshRoleHolders_should_reconcile_without_rewriting() {
+        service.refreshRoleHolders(9L);
+
+        verify(repository).insertMissingForRoleHolders(9L);
+        verify(repository).deleteStaleForRoleHolders(9L);
+    }
+}
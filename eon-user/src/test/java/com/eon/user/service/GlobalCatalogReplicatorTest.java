@@ -0,0 +1,144 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 以两个 MySQL 兼容模式的 H2 库模拟全局库与分片，验证全局目录的镜像、租户行保留、冲突放弃，
+ * 以及公共角色授权变化后按分片修复有效权限。
+ */
+class GlobalCatalogReplicatorTest {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE tenants (id BIGINT PRIMARY KEY, name VARCHAR(64))",
+            "CREATE TABLE permissions (id BIGINT PRIMARY KEY, tenant_id BIGINT, code VARCHAR(64))",
+            "CREATE TABLE roles (id BIGINT PRIMARY KEY, tenant_id BIGINT, parent_id BIGINT, name VARCHAR(64))",
+            "CREATE TABLE menus (id BIGINT PRIMARY KEY, tenant_id BIGINT, parent_id BIGINT REFERENCES menus(id), name VARCHAR(64))",
+            "CREATE TABLE apis (id BIGINT PRIMARY KEY, tenant_id BIGINT, path VARCHAR(64))",
+            "CREATE TABLE role_permissions (role_id BIGINT REFERENCES roles(id) ON DELETE CASCADE,"
+                    + " permission_id BIGINT REFERENCES permissions(id) ON DELETE CASCADE, PRIMARY KEY (role_id, permission_id))",
+            "CREATE TABLE role_closure (descendant_id BIGINT REFERENCES roles(id) ON DELETE CASCADE,"
+                    + " ancestor_id BIGINT REFERENCES roles(id) ON DELETE CASCADE, depth INT, PRIMARY KEY (descendant_id, ancestor_id))",
+            "CREATE TABLE users (id BIGINT PRIMARY KEY, tenant_id BIGINT)",
+            "CREATE TABLE user_roles (user_id BIGINT REFERENCES users(id) ON DELETE CASCADE,"
+                    + " role_id BIGINT REFERENCES roles(id) ON DELETE CASCADE, PRIMARY KEY (user_id, role_id))"
+    };
+
+    private final DataSourceContextHolder contextHolder = new DataSourceContextHolder();
+    private final EffectivePermissionService effectivePermissionService = mock(EffectivePermissionService.class);
+    private JdbcTemplate global;
+    private JdbcTemplate shard;
+    private GlobalCatalogReplicator replicator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        targets.put("global", h2("global"));
+        targets.put("shard1", h2("shard1"));
+        global = new JdbcTemplate(targets.get("global"));
+        shard = new JdbcTemplate(targets.get("shard1"));
+        for (String ddl : SCHEMA) {
+            global.execute(ddl);
+            shard.execute(ddl);
+        }
+        TenantRouting routing = new TenantRouting();
+        routing.setEnabled(true);
+        routing.setGlobalTarget("global");
+        routing.setShards(List.of("shard1"));
+        TenantShardRouter router = new TenantShardRouter(routing, targets.keySet(), "global", () -> null);
+        DynamicRoutingDataSource dataSource = new DynamicRoutingDataSource("global", targets, contextHolder, null, router);
+        replicator = new GlobalCatalogReplicator(dataSource, contextHolder, effectivePermissionService);
+
+        global.execute("INSERT INTO tenants VALUES (1, 'acme')");
+        global.execute("INSERT INTO permissions VALUES (10, NULL, 'user:read'), (11, NULL, 'user:write')");
+        global.execute("INSERT INTO roles VALUES (20, NULL, NULL, 'admin')");
+        global.execute("INSERT INTO role_permissions VALUES (20, 10), (20, 11)");
+        global.execute("INSERT INTO role_closure VALUES (20, 20, 0)");
+        // 子菜单先于父菜单插入，依赖写入阶段关闭外键检查
+        global.execute("SET FOREIGN_KEY_CHECKS = 0");
+        global.execute("INSERT INTO menus VALUES (31, NULL, 30, 'users'), (30, NULL, NULL, 'system')");
+        global.execute("SET FOREIGN_KEY_CHECKS = 1");
+        global.execute("INSERT INTO apis VALUES (40, NULL, '/users')");
+    }
+
+    @Test
+    void replicate_should_mirror_global_rows_and_keep_tenant_rows() {
+        shard.execute("INSERT INTO tenants VALUES (1, 'acme')");
+        shard.execute("INSERT INTO roles VALUES (21, NULL, NULL, 'retired'), (500, 1, NULL, 'tenant-admin')");
+        shard.execute("INSERT INTO menus VALUES (50, NULL, NULL, 'legacy'), (51, NULL, 50, 'legacy-child')");
+        shard.execute("INSERT INTO users VALUES (1000, 1)");
+        shard.execute("INSERT INTO user_roles VALUES (1000, 21), (1000, 500)");
+
+        replicator.replicate();
+
+        assertEquals(List.of(20L, 500L), ids("roles"));
+        assertEquals(List.of(30L, 31L), ids("menus"));
+        assertEquals(List.of(10L, 11L), ids("permissions"));
+        assertEquals(List.of(40L), ids("apis"));
+        assertEquals(2, count("SELECT COUNT(*) FROM role_permissions WHERE role_id = 20"));
+        assertEquals(List.of(500L), shard.queryForList("SELECT role_id FROM user_roles WHERE user_id = 1000", Long.class));
+        verify(effectivePermissionService).verifyTarget("shard1");
+    }
+
+    @Test
+    void replicate_should_repair_shard_holders_only_when_global_grants_change() {
+        replicator.replicate();
+        replicator.replicate();
+        verify(effectivePermissionService, times(1)).verifyTarget("shard1");
+
+        global.execute("DELETE FROM role_permissions WHERE role_id = 20 AND permission_id = 11");
+        replicator.replicate();
+
+        assertEquals(List.of(10L), shard.queryForList(
+                "SELECT permission_id FROM role_permissions WHERE role_id = 20", Long.class));
+        verify(effectivePermissionService, times(2)).verifyTarget("shard1");
+    }
+
+    @Test
+    void replicate_should_abort_shard_when_global_id_is_taken_by_tenant_row() {
+        shard.execute("INSERT INTO tenants VALUES (1, 'acme')");
+        shard.execute("INSERT INTO roles VALUES (20, 1, NULL, 'tenant-owned')");
+
+        replicator.replicate();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM roles WHERE id = 20 AND tenant_id = 1"));
+        assertEquals(0, count("SELECT COUNT(*) FROM role_permissions"));
+        verify(effectivePermissionService, never()).verifyTarget(anyString());
+    }
+
+    private DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private List<Long> ids(String table) {
+        return shard.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+
+    private int count(String sql) {
+        Integer count = shard.queryForObject(sql, Integer.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.eon.user.service;
+
+import com.eon.user.entity.Menu;
+import com.eon.user.policy.CompiledPolicy;
+import com.eon.user.repository.MenuRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证菜单森林按租户缓存、按策略指纹共享视图，并在失效或过期后重新加载。
+ */
+class MenuServiceTest {
+
+    private final MenuRepository menuRepo = mock(MenuRepository.class);
+    private final MenuService menuService = new MenuService(menuRepo, new UserMeCache());
+
+    @Test
+    void userMenus_should_filter_sort_and_share_views() {
+        when(menuRepo.findByTenantIdOrTenantIdIsNull(1L)).thenReturn(List.of(
+                menu(1L, null, 20, "menu:system"),
+                menu(2L, 1L, 2, "menu:system.users"),
+                menu(3L, 1L, 1, "menu:system.roles"),
+                menu(4L, null, 10, "menu:dashboard"),
+                menu(5L, 4L, 1, "menu:dashboard.hidden")));
+
+        CompiledPolicy a = policy(Map.of("menu:system", "ALLOW", "menu:system.users", "ALLOW",
+                "menu:system.roles", "ALLOW", "menu:dashboard", "DENY"));
+        CompiledPolicy b = policy(Map.of("menu:system", "ALLOW", "menu:system.users", "ALLOW",
+                "menu:system.roles", "ALLOW", "api:GET:/users", "ALLOW"));
+
+        List<MenuService.MenuNode> viewA = menuService.userMenus(10L, 1L, a);
+        List<MenuService.MenuNode> viewB = menuService.userMenus(11L, 1L, b);
+
+        assertEquals(1, viewA.size());
+        assertEquals(List.of(3L, 2L), viewA.get(0).getChildren().stream().map(MenuService.MenuNode::getId).toList());
+        assertSame(viewA, viewB, "菜单效果一致的用户应共享同一视图");
+
+        CompiledPolicy c = policy(Map.of("menu:system.users", "ALLOW", "menu:dashboard", "ALLOW"));
+        List<MenuService.MenuNode> viewC = menuService.userMenus(12L, 1L, c);
+        assertEquals(List.of(2L, 4L), viewC.stream().map(MenuService.MenuNode::getId).toList(),
+                "父菜单不可见时子菜单应提升为根节点");
+
+        verify(menuRepo, times(1)).findByTenantIdOrTenantIdIsNull(1L);
+    }
+
+    @Test
+    void evictTenant_should_reload_forest() {
+        when(menuRepo.findByTenantIdOrTenantIdIsNull(1L)).thenReturn(List.of(menu(1L, null, 1, "menu:system")));
+        CompiledPolicy policy = policy(Map.of("menu:system", "ALLOW"));
+
+        List<MenuService.MenuNode> before = menuService.userMenus(10L, 1L, policy);
+        menuService.evictTenant(1L);
+        List<MenuService.MenuNode> after = menuService.userMenus(10L, 1L, policy);
+
+        assertNotSame(before, after);
+        verify(menuRepo, times(2)).findByTenantIdOrTenantIdIsNull(1L);
+    }
+
+    @Test
+    void forest_should_expire_without_explicit_eviction() {
+        AtomicLong nanos = new AtomicLong();
+        MenuService expiring = new MenuService(menuRepo, new UserMeCache(), nanos::get);
+        when(menuRepo.findByTenantIdOrTenantIdIsNull(1L))
+                .thenReturn(List.of(menu(1L, null, 1, "menu:system")))
+                .thenReturn(List.of(menu(1L, null, 1, "menu:system"), menu(2L, null, 2, "menu:audit")));
+        CompiledPolicy policy = policy(Map.of("menu:system", "ALLOW", "menu:audit", "ALLOW"));
+
+        assertEquals(1, expiring.userMenus(10L, 1L, policy).size());
+        nanos.addAndGet(MenuService.EXPIRE_AFTER_WRITE.plusSeconds(1).toNanos());
+
+        assertEquals(2, expiring.userMenus(10L, 1L, policy).size(), "菜单经 SQL 修改后应在过期后可见");
+    }
+
+    private Menu menu(Long id, Long parentId, Integer sortWeight, String key) {
+        Menu menu = new Menu();
+        menu.setId(id);
+        menu.setParentId(parentId);
+        menu.setTitle("m" + id);
+        menu.setSortWeight(sortWeight);
+        menu.setPermissionKey(key);
+        return menu;
+    }
+
+    private CompiledPolicy policy(Map<String, String> menuEffects) {
+        CompiledPolicy policy = new CompiledPolicy();
+        policy.setMenuEffects(menuEffects);
+        policy.setApiRules(List.of());
+        return policy;
+    }
+}
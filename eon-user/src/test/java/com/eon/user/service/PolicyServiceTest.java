@@ -0,0 +1,122 @@
+package com.eon.user.service;
+
+import com.eon.common.core.util.PolicyFingerprint;
+import com.eon.user.entity.Permission;
+import com.eon.user.entity.User;
+import com.eon.user.policy.CompiledPolicy;
+import com.eon.user.repository.PermissionRepository;
+import com.eon.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证策略缓存按版本向量指纹校验：角色版本变化即触发重建。
+ */
+class PolicyServiceTest {
+
+    private final UserRepository userRepo = mock(UserRepository.class);
+    private final PermissionRepository permRepo = mock(PermissionRepository.class);
+
+    private final PolicyService policyService = new PolicyService(userRepo, permRepo, new UserMeCache());
+
+    @Test
+    void getPolicy_should_rebuild_only_when_fingerprint_changes() {
+        User user = new User();
+        user.setId(1L);
+        user.setPolicyVersion(2);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(permRepo.findEffectiveByUserId(1L)).thenReturn(List.of());
+        when(userRepo.findPolicyVersionVector(1L))
+                .thenReturn(List.of(row(2, 10L, 1)))
+                .thenReturn(List.of(row(2, 10L, 1)))
+                .thenReturn(List.of(row(2, 10L, 2)));
+
+        CompiledPolicy first = policyService.getPolicy(1L);
+        CompiledPolicy second = policyService.getPolicy(1L);
+        CompiledPolicy third = policyService.getPolicy(1L);
+
+        assertEquals(PolicyFingerprint.of(2, Map.of(10L, 1)), first.getPolicyFingerprint());
+        assertSame(first, second, "指纹未变化时应复用缓存");
+        assertNotSame(second, third, "角色版本提升后应重建策略");
+        assertEquals(PolicyFingerprint.of(2, Map.of(10L, 2)), third.getPolicyFingerprint());
+        verify(permRepo, times(2)).findEffectiveByUserId(1L);
+    }
+
+    @Test
+    void getPolicy_should_compile_api_templates_and_skip_invalid_ones() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findPolicyVersionVector(1L)).thenReturn(List.of(row(1, null, null)));
+        when(permRepo.findEffectiveByUserId(1L)).thenReturn(List.of(
+                permission("api:GET:/files/:path**"),
+                permission("api:GET:/broken/**/x")));
+
+        CompiledPolicy policy = policyService.getPolicy(1L);
+
+        assertEquals(1, policy.getApiRules().size());
+        assertEquals("api:GET:/files/:path**", policy.matchApi("get", "/files/a/b.txt").getKey());
+    }
+
+    @Test
+    void getPolicy_should_fail_closed_on_malformed_deny_template() {
+        User user = new User();
+        user.setId(1L);
+        user.setPolicyVersion(1);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findPolicyVersionVector(1L)).thenReturn(List.of(row(1, null, null)));
+        Permission deny = permission("api:POST:/users:batch");
+        deny.setEffect(Permission.Effect.DENY);
+        when(permRepo.findEffectiveByUserId(1L)).thenReturn(List.of(permission("api:*:/**"), deny));
+
+        CompiledPolicy policy = policyService.getPolicy(1L);
+
+        assertEquals(CompiledPolicy.DENY, policy.matchApi("POST", "/users:batch").getEffect());
+        assertEquals(CompiledPolicy.DENY, policy.matchApi("POST", "/orders").getEffect());
+        assertEquals(CompiledPolicy.ALLOW, policy.matchApi("GET", "/users").getEffect());
+    }
+
+    @Test
+    void currentFingerprint_should_handle_user_without_roles() {
+        when(userRepo.findPolicyVersionVector(1L)).thenReturn(List.of(row(3, null, null)));
+
+        assertEquals(PolicyFingerprint.of(3, Map.of()), policyService.currentFingerprint(1L));
+    }
+
+    private Permission permission(String key) {
+        Permission permission = new Permission();
+        permission.setResourceKey(key);
+        permission.setEffect(Permission.Effect.ALLOW);
+        return permission;
+    }
+
+    private UserRepository.PolicyVersionView row(Integer userVersion, Long roleId, Integer roleVersion) {
+        return new UserRepository.PolicyVersionView() {
+            @Override
+            public Integer getUserVersion() {
+                return userVersion;
+            }
+
+            @Override
+            public Long getRoleId() {
+                return roleId;
+            }
+
+            @Override
+            public Integer getRoleVersion() {
+                return roleVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.eon.user.service;
+
+import com.eon.user.entity.Role;
+import com.eon.user.repository.RoleClosureRepository;
+import com.eon.user.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证角色继承：闭包按子树整体移动，拒绝成环与跨租户继承。
+ */
+class RoleHierarchyServiceTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleClosureRepository closureRepository = mock(RoleClosureRepository.class);
+    private final RoleHierarchyService service = new RoleHierarchyService(roleRepository, closureRepository);
+
+    @Test
+    void attach_should_link_new_role_under_parent() {
+        Role parent = role(1L, null);
+        Role child = role(2L, 7L);
+        child.setParentId(1L);
+        when(roleRepository.findById(1L)).thenReturn(Optional.of(parent));
+
+        service.attach(child);
+
+        verify(closureRepository).insertLinks(2L, 1L);
+    }
+
+    @Test
+    void move_should_detach_and_reattach_subtree() {
+        Role role = role(2L, null);
+        when(roleRepository.findById(5L)).thenReturn(Optional.of(role(5L, null)));
+        when(closureRepository.findSubtreeIds(2L)).thenReturn(List.of(2L, 3L));
+
+        assertTrue(service.move(role, 5L));
+
+        verify(closureRepository).detachSubtree(List.of(2L, 3L));
+        verify(closureRepository).attachSubtree(2L, 5L);
+        assertEquals(5L, role.getParentId());
+    }
+
+    @Test
+    void move_should_reject_cycle() {
+        Role role = role(2L, null);
+        when(roleRepository.findById(3L)).thenReturn(Optional.of(role(3L, null)));
+        when(closureRepository.existsByAncestorIdAndDescendantId(2L, 3L)).thenReturn(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.move(role, 3L));
+        verify(closureRepository, never()).detachSubtree(any());
+    }
+
+    @Test
+    void move_should_reject_parent_from_other_tenant() {
+        Role role = role(2L, 7L);
+        when(roleRepository.findById(3L)).thenReturn(Optional.of(role(3L, 8L)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.move(role, 3L));
+        verify(closureRepository, never()).attachSubtree(anyLong(), anyLong());
+    }
+
+    @Test
+    void move_should_be_noop_when_parent_unchanged() {
+        Role role = role(2L, null);
+        role.setParentId(1L);
+
+        assertFalse(service.move(role, 1L));
+        verifyNoInteractions(closureRepository);
+    }
+
+    private Role role(long id, Long tenantId) {
+        Role role = new Role();
+        role.setId(id);
+        role.setTenantId(tenantId);
+        role.setCode("role-" + id);
+        return role;
+    }
+}
@@ -0,0 +1,85 @@
+package com.eon.user.service;
+
+import com.eon.common.datasource.properties.DynamicDataSourceProperties.TenantRouting;
+import com.eon.common.datasource.support.DataSourceContextHolder;
+import com.eon.common.datasource.support.DynamicRoutingDataSource;
+import com.eon.common.datasource.support.TenantShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证按请求参数中的目标租户而非调用方租户路由数据源，以及配置分片时需确认登录限制。
+ */
+class TenantDataSourceRoutingTest {
+
+    private final AtomicReference<Long> callerTenant = new AtomicReference<>();
+    private final DataSourceContextHolder contextHolder = new DataSourceContextHolder();
+    private final Map<String, DataSource> targets = new LinkedHashMap<>();
+    private final Connection masterConnection = mock(Connection.class);
+    private final Connection vipConnection = mock(Connection.class);
+    private final DynamicRoutingDataSource dataSource;
+
+    TenantDataSourceRoutingTest() throws SQLException {
+        targets.put("master", mock(DataSource.class));
+        targets.put("vip", mock(DataSource.class));
+        when(targets.get("master").getConnection()).thenReturn(masterConnection);
+        when(targets.get("vip").getConnection()).thenReturn(vipConnection);
+        TenantRouting routing = new TenantRouting();
+        routing.setEnabled(true);
+        routing.setMapping(Map.of(42L, "vip"));
+        TenantShardRouter router = new TenantShardRouter(routing, targets.keySet(), "master", callerTenant::get);
+        dataSource = new DynamicRoutingDataSource("master", targets, contextHolder, null, router);
+    }
+
+    @Test
+    void call_should_route_to_target_tenant_instead_of_caller() throws SQLException {
+        TenantDataSourceRouting routing = routing(true);
+
+        callerTenant.set(7L);
+        assertSame(vipConnection, routing.call(42L, this::connection));
+        callerTenant.set(42L);
+        assertSame(masterConnection, routing.call(null, this::connection));
+        assertNull(contextHolder.current());
+    }
+
+    @Test
+    void call_should_keep_default_routing_when_target_matches_caller() throws SQLException {
+        TenantDataSourceRouting routing = routing(true);
+
+        callerTenant.set(42L);
+        assertNull(routing.call(42L, contextHolder::current));
+    }
+
+    @Test
+    void constructor_should_require_acknowledging_login_limitation_for_shards() {
+        assertThrows(IllegalStateException.class, () -> routing(false));
+    }
+
+    private TenantDataSourceRouting routing(boolean acknowledged) throws SQLException {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<DataSourceContextHolder> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(contextHolder);
+        return new TenantDataSourceRouting(dataSource, provider, acknowledged);
+    }
+
+    private Connection connection() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
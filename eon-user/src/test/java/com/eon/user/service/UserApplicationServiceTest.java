@@ -0,0 +1,249 @@
+package com.eon.user.service;
+
+import com.eon.user.dto.AssignPermissionsRequest;
+import com.eon.user.dto.RoleResponse;
+import com.eon.user.dto.UpdateRoleParentRequest;
+import com.eon.user.dto.UserPageResponse;
+import com.eon.user.dto.UserResponse;
+import com.eon.user.dto.UserSearchRequest;
+import com.eon.user.entity.Permission;
+import com.eon.user.entity.Role;
+import com.eon.user.entity.RolePermission;
+import com.eon.user.entity.User;
+import com.eon.user.repository.PermissionRepository;
+import com.eon.user.repository.RolePermissionRepository;
+import com.eon.user.repository.RoleRepository;
+import com.eon.user.repository.UserRepository;
+import com.eon.user.repository.UserRoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 查询次数断言：响应组装的仓储调用次数固定，不随角色/权限数量增长（防止 N+1 回归）。
+ */
+class UserApplicationServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+    private final RolePermissionRepository rolePermissionRepository = mock(RolePermissionRepository.class);
+    private final PermissionRepository permissionRepository = mock(PermissionRepository.class);
+
+    private final PolicyService policyService = mock(PolicyService.class);
+    private final EffectivePermissionService effectivePermissionService = mock(EffectivePermissionService.class);
+    private final RoleHierarchyService roleHierarchyService = mock(RoleHierarchyService.class);
+
+    private final UserApplicationService service = new UserApplicationService(userRepository, roleRepository,
+            userRoleRepository, rolePermissionRepository, permissionRepository,
+            mock(PasswordEncoder.class), policyService, effectivePermissionService, roleHierarchyService);
+
+    @Test
+    void listRoles_should_load_permissions_in_one_query() {
+        List<Role> roles = LongStream.rangeClosed(1, 500).mapToObj(this::role).toList();
+        List<RolePermissionRepository.RolePermissionKeyView> keys = new ArrayList<>();
+        keys.add(view(1L, "menu:system"));
+        keys.add(view(1L, "api:GET:/users"));
+        keys.add(view(2L, "menu:system"));
+        when(roleRepository.findByTenantIdOrTenantIdIsNull(7L)).thenReturn(roles);
+        when(rolePermissionRepository.findPermissionKeysByRoleIdIn(anyCollection())).thenReturn(keys);
+
+        List<RoleResponse> result = service.listRoles(7L);
+
+        assertEquals(500, result.size());
+        assertEquals(List.of("api:GET:/users", "menu:system"), result.get(0).getPermissions());
+        assertEquals(List.of(), result.get(499).getPermissions());
+        verify(roleRepository, times(1)).findByTenantIdOrTenantIdIsNull(7L);
+        verify(rolePermissionRepository, times(1)).findPermissionKeysByRoleIdIn(anyCollection());
+        verifyNoMoreInteractions(roleRepository, rolePermissionRepository);
+        verifyNoInteractions(permissionRepository, userRoleRepository);
+    }
+
+    @Test
+    void getUserDetail_should_use_fixed_number_of_queries() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(roleRepository.findCodesByUserId(1L)).thenReturn(List.of("user", "admin"));
+        when(permissionRepository.findResourceKeysByUserId(1L)).thenReturn(List.of("menu:b", "menu:a"));
+
+        UserResponse response = service.getUserDetail(1L);
+
+        assertEquals(List.of("admin", "user"), response.getRoles());
+        assertEquals(List.of("menu:a", "menu:b"), response.getPermissions());
+        verify(userRepository, times(1)).findById(1L);
+        verify(roleRepository, times(1)).findCodesByUserId(1L);
+        verify(permissionRepository, times(1)).findResourceKeysByUserId(1L);
+        verifyNoMoreInteractions(userRepository, roleRepository, permissionRepository);
+        verifyNoInteractions(userRoleRepository, rolePermissionRepository);
+    }
+
+    @Test
+    void listUsers_should_seek_after_cursor_and_batch_roles() {
+        List<User> rows = LongStream.rangeClosed(101, 103).mapToObj(this::user).toList();
+        when(userRepository.findPage(7L, "ad!_min%", null, true, 100L, Limit.of(3))).thenReturn(rows);
+        when(roleRepository.findCodesByUserIdIn(List.of(101L, 102L))).thenReturn(List.of(code(101L, "admin")));
+        UserSearchRequest request = new UserSearchRequest();
+        request.setTenantId(7L);
+        request.setUsername("ad_min");
+        request.setActive(true);
+        request.setCursor(100L);
+        request.setLimit(2);
+
+        UserPageResponse page = service.listUsers(request);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(List.of("admin"), page.getItems().get(0).getRoles());
+        assertTrue(page.isHasMore());
+        assertEquals(102L, page.getNextCursor());
+        assertNull(page.getTotal());
+        verify(roleRepository, times(1)).findCodesByUserIdIn(anyCollection());
+        verifyNoMoreInteractions(roleRepository);
+        verifyNoInteractions(permissionRepository, userRoleRepository);
+    }
+
+    @Test
+    void listUsers_should_report_capped_estimate() {
+        when(userRepository.findPage(eq(7L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(List.of());
+        when(userRepository.countMatchingCapped(7L, null, null, null, UserApplicationService.COUNT_ESTIMATE_CAP + 1))
+                .thenReturn((long) UserApplicationService.COUNT_ESTIMATE_CAP + 1);
+        UserSearchRequest request = new UserSearchRequest();
+        request.setTenantId(7L);
+        request.setCount(UserSearchRequest.CountMode.ESTIMATE);
+
+        UserPageResponse page = service.listUsers(request);
+
+        assertFalse(page.isHasMore());
+        assertEquals(UserApplicationService.COUNT_ESTIMATE_CAP, page.getTotal());
+        assertFalse(page.getTotalExact());
+        verifyNoInteractions(roleRepository);
+    }
+
+    @Test
+    void assignPermissions_should_bump_role_version_only() {
+        when(roleRepository.findById(9L)).thenReturn(Optional.of(role(9L)));
+        when(rolePermissionRepository.findByRoleId(9L)).thenReturn(List.of(rolePermission(9L, 1L), rolePermission(9L, 2L)));
+        when(permissionRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(new Permission(), new Permission()));
+        AssignPermissionsRequest request = new AssignPermissionsRequest();
+        request.setPermissionIds(List.of(2L, 3L));
+
+        service.assignPermissions(9L, request);
+
+        verify(roleRepository).bumpPolicyVersion(9L);
+        verify(policyService).evictByRole(9L);
+        verify(effectivePermissionService).applyRoleGrants(9L, Set.of(3L), Set.of(1L));
+        verifyNoInteractions(userRepository, userRoleRepository);
+    }
+
+    @Test
+    void assignPermissions_should_skip_when_grants_unchanged() {
+        when(roleRepository.findById(9L)).thenReturn(Optional.of(role(9L)));
+        when(rolePermissionRepository.findByRoleId(9L)).thenReturn(List.of(rolePermission(9L, 1L)));
+        AssignPermissionsRequest request = new AssignPermissionsRequest();
+        request.setPermissionIds(List.of(1L));
+
+        service.assignPermissions(9L, request);
+
+        verify(roleRepository, never()).bumpPolicyVersion(9L);
+        verifyNoInteractions(effectivePermissionService, policyService);
+    }
+
+    @Test
+    void changeRoleParent_should_refresh_subtree_holders_when_moved() {
+        Role role = role(9L);
+        when(roleRepository.findById(9L)).thenReturn(Optional.of(role));
+        when(roleHierarchyService.move(role, 3L)).thenReturn(true);
+        UpdateRoleParentRequest request = new UpdateRoleParentRequest();
+        request.setParentId(3L);
+
+        service.changeRoleParent(9L, request);
+
+        verify(effectivePermissionService).refreshRoleHolders(9L);
+        verify(roleRepository).bumpPolicyVersion(9L);
+        verify(policyService).evictByRole(9L);
+    }
+
+    @Test
+    void changeRoleParent_should_skip_refresh_when_parent_unchanged() {
+        Role role = role(9L);
+        when(roleRepository.findById(9L)).thenReturn(Optional.of(role));
+        when(roleHierarchyService.move(role, null)).thenReturn(false);
+
+        service.changeRoleParent(9L, new UpdateRoleParentRequest());
+
+        verifyNoInteractions(effectivePermissionService, policyService);
+    }
+
+    private User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user-" + id);
+        return user;
+    }
+
+    private RoleRepository.UserRoleCodeView code(Long userId, String code) {
+        return new RoleRepository.UserRoleCodeView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getCode() {
+                return code;
+            }
+        };
+    }
+
+    private Role role(long id) {
+        Role role = new Role();
+        role.setId(id);
+        role.setCode("role-" + id);
+        role.setName("角色" + id);
+        return role;
+    }
+
+    private RolePermission rolePermission(long roleId, long permissionId) {
+        RolePermission relation = new RolePermission();
+        relation.setRoleId(roleId);
+        relation.setPermissionId(permissionId);
+        return relation;
+    }
+
+    private RolePermissionRepository.RolePermissionKeyView view(Long roleId, String key) {
+        return new RolePermissionRepository.RolePermissionKeyView() {
+            @Override
+            public Long getRoleId() {
+                return roleId;
+            }
+
+            @Override
+            public String getResourceKey() {
+                return key;
+            }
+        };
+    }
+}
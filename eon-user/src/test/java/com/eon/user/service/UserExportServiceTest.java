@@ -0,0 +1,118 @@
+package com.eon.user.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证导出行的 NDJSON / CSV 编码：每行独立可解析，CSV 按 RFC 4180 转义并中和公式；
+ * 写出失败时在关闭流式结果集前中止查询，并恢复会话变量。
+ */
+class UserExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ndjson_should_write_one_object_per_line() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UserExportService.RowWriter writer = UserExportService.writer(UserExportService.Format.NDJSON, out, objectMapper)) {
+            writer.write(row(1L, "admin", List.of("admin", "user")));
+            writer.write(row(2L, "demo", List.of()));
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("admin", first.get("username").asText());
+        assertEquals(2, first.get("roles").size());
+        assertEquals(0, objectMapper.readTree(lines[1]).get("roles").size());
+    }
+
+    @Test
+    void csv_should_quote_fields_with_separators() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UserExportService.RowWriter writer = UserExportService.writer(UserExportService.Format.CSV, out, objectMapper)) {
+            writer.write(row(1L, "a,\"b\"", List.of("admin", "user")));
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,tenant_id,username,email,active,created_at,roles,permissions", lines[0]);
+        assertEquals("1,7,\"a,\"\"b\"\"\",x@eon.com,true,2026-01-01T00:00:00Z,admin;user,menu:a", lines[1]);
+    }
+
+    @Test
+    void csv_should_neutralize_formula_cells() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UserExportService.RowWriter writer = UserExportService.writer(UserExportService.Format.CSV, out, objectMapper)) {
+            writer.write(row(1L, "=HYPERLINK(\"x\")", List.of("@admin", "+user")));
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("1,7,\"'=HYPERLINK(\"\"x\"\")\",x@eon.com,true,2026-01-01T00:00:00Z,'@admin;+user,menu:a", lines[1]);
+    }
+
+    @Test
+    void export_should_cancel_before_closing_stream_and_restore_session() throws Exception {
+        Connection con = mock(Connection.class);
+        Statement session = mock(Statement.class);
+        ResultSet limit = mock(ResultSet.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(con.createStatement()).thenReturn(session);
+        when(session.executeQuery(anyString())).thenReturn(limit);
+        when(limit.next()).thenReturn(true);
+        when(limit.getLong(1)).thenReturn(4096L);
+        when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getString(anyString())).thenReturn("x");
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> inv.<ConnectionCallback<?>>getArgument(0).doInConnection(con));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        UserExportService service = new UserExportService(jdbcTemplate, objectMapper);
+        assertThrows(UncheckedIOException.class,
+                () -> service.export(7L, UserExportService.Format.NDJSON, broken));
+
+        InOrder order = inOrder(session, ps, rs);
+        order.verify(session).execute("SET SESSION group_concat_max_len = 1048576");
+        order.verify(ps).cancel();
+        order.verify(rs).close();
+        order.verify(session).execute("SET SESSION group_concat_max_len = 4096");
+    }
+
+    private UserExportService.ExportRow row(long id, String username, List<String> roles) {
+        return new UserExportService.ExportRow(id, 7L, username, "x@eon.com", true,
+                Instant.parse("2026-01-01T00:00:00Z"), roles, List.of("menu:a"));
+    }
+}
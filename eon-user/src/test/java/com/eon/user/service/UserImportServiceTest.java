@@ -0,0 +1,138 @@
+package com.eon.user.service;
+
+import com.eon.user.dto.BulkImportUsersRequest;
+import com.eon.user.dto.BulkImportUsersResponse;
+import com.eon.user.dto.BulkImportUsersResponse.Status;
+import com.eon.user.entity.Role;
+import com.eon.user.repository.RoleRepository;
+import com.eon.user.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 验证批量导入：行级结果、批内/库内重复识别，以及按块批量写库。
+ */
+class UserImportServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final EffectivePermissionService effectivePermissionService = mock(EffectivePermissionService.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final UserImportService service = new UserImportService(userRepository, roleRepository,
+            effectivePermissionService, passwordEncoder, jdbcTemplate, mock(PlatformTransactionManager.class),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void importUsers_should_report_per_row_results() {
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+        when(userRepository.findExistingUsernames(eq(7L), anyCollection())).thenReturn(List.of("taken"));
+        when(roleRepository.findAllById(anyCollection())).thenReturn(List.of(role(1L)));
+        stubGeneratedKeys(100L);
+
+        BulkImportUsersRequest request = new BulkImportUsersRequest();
+        request.setTenantId(7L);
+        request.setUsers(List.of(
+                item("alice", List.of(1L)),
+                item("alice", null),
+                item("taken", null),
+                item("", null),
+                item("bob", List.of(1L, 99L)),
+                item("carol", null)));
+
+        BulkImportUsersResponse response = service.importUsers(request);
+
+        List<Status> statuses = response.getResults().stream().map(BulkImportUsersResponse.RowResult::getStatus).toList();
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.DUPLICATE, Status.INVALID, Status.INVALID,
+                Status.CREATED), statuses);
+        assertEquals(100L, response.getResults().get(0).getUserId());
+        assertEquals(101L, response.getResults().get(5).getUserId());
+        assertEquals(2, response.getCreated());
+        assertEquals(4, response.getFailed());
+        verify(userRepository, times(1)).findExistingUsernames(eq(7L), anyCollection());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(effectivePermissionService).initUsers(List.of(100L, 101L));
+    }
+
+    @Test
+    void importUsers_should_report_null_rows_and_chunk_failures() {
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+        when(userRepository.findExistingUsernames(eq(7L), anyCollection())).thenReturn(List.of());
+        // 主键数量与行数不一致：非 DataAccessException 的失败同样按块回滚并逐行报告
+        doAnswer(inv -> new int[0]).when(jdbcTemplate).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+
+        BulkImportUsersRequest request = new BulkImportUsersRequest();
+        request.setTenantId(7L);
+        request.setUsers(Arrays.asList(item("alice", null), null, item("bob", Arrays.asList(1L, null))));
+
+        BulkImportUsersResponse response = service.importUsers(request);
+
+        List<Status> statuses = response.getResults().stream().map(BulkImportUsersResponse.RowResult::getStatus).toList();
+        assertEquals(List.of(Status.FAILED, Status.INVALID, Status.INVALID), statuses);
+        assertEquals(0, response.getCreated());
+        assertEquals(3, response.getFailed());
+    }
+
+    // 模拟批量插入返回自增主键
+    private void stubGeneratedKeys(long firstId) {
+        doAnswer(inv -> {
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+            KeyHolder keys = inv.getArgument(2);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("GENERATED_KEY", firstId + i);
+                rows.add(row);
+            }
+            keys.getKeyList().addAll(rows);
+            return new int[setter.getBatchSize()];
+        }).when(jdbcTemplate).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class));
+    }
+
+    private BulkImportUsersRequest.Item item(String username, List<Long> roleIds) {
+        BulkImportUsersRequest.Item item = new BulkImportUsersRequest.Item();
+        item.setUsername(username);
+        item.setPassword("password-" + username);
+        item.setRoleIds(roleIds);
+        return item;
+    }
+
+    private Role role(long id) {
+        Role role = new Role();
+        role.setId(id);
+        return role;
+    }
+}
@@ -0,0 +1,57 @@
+package com.eon.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证 /users/me 序列化缓存的版本校验与 ETag 比对。
+ */
+class UserMeCacheTest {
+
+    private final UserMeCache cache = new UserMeCache();
+
+    @Test
+    void get_should_match_policy_fingerprint() {
+        cache.put(1L, "fp-a", bytes("{\"a\":1}"));
+
+        assertNotNull(cache.get(1L, "fp-a"));
+        assertNull(cache.get(1L, null), "未携带指纹时无法校验新鲜度，视为未命中");
+        assertNull(cache.get(1L, "fp-b"), "令牌指纹不一致时视为未命中");
+
+        cache.evict(1L);
+        assertNull(cache.get(1L, "fp-a"));
+    }
+
+    @Test
+    void etag_should_change_with_content() {
+        String first = cache.put(1L, "fp-a", bytes("{\"email\":\"a@eon.io\"}")).etag();
+        String second = cache.put(1L, "fp-a", bytes("{\"email\":\"b@eon.io\"}")).etag();
+
+        assertNotEquals(first, second);
+        assertTrue(first.startsWith("\"1-fp-a-"));
+        assertEquals(second, cache.get(1L, "fp-a").etag());
+    }
+
+    @Test
+    void matches_should_handle_lists_weak_and_wildcard() {
+        String etag = "\"1-fp-abc\"";
+
+        assertTrue(UserMeCache.matches("\"x\", \"1-fp-abc\"", etag));
+        assertTrue(UserMeCache.matches("W/\"1-fp-abc\"", etag));
+        assertTrue(UserMeCache.matches("*", etag));
+        assertFalse(UserMeCache.matches("\"1-fp-abd\"", etag));
+        assertFalse(UserMeCache.matches(null, etag));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}